@@ -38,7 +38,9 @@ import org.prefixcommons.CurieUtil;
 import io.scigraph.frames.CommonProperties;
 import io.scigraph.frames.NodeProperties;
 import io.scigraph.internal.CypherUtil;
+import io.scigraph.internal.hierarchy.HierarchyCache;
 import io.scigraph.neo4j.Graph;
+import io.scigraph.owlapi.OwlRelationships;
 
 public class HyperGeometricAnalyzer {
 
@@ -46,14 +48,16 @@ public class HyperGeometricAnalyzer {
   private final CurieUtil curieUtil;
   private final Graph graph;
   private final CypherUtil cypherUtil;
+  private final HierarchyCache hierarchyCache;
 
   @Inject
   HyperGeometricAnalyzer(GraphDatabaseService graphDb, CurieUtil curieUtil, Graph graph,
-      CypherUtil cypherUtil) {
+      CypherUtil cypherUtil, HierarchyCache hierarchyCache) {
     this.graphDb = graphDb;
     this.curieUtil = curieUtil;
     this.graph = graph;
     this.cypherUtil = cypherUtil;
+    this.hierarchyCache = hierarchyCache;
   }
 
   private double computeBonferroniCoeff(Set<AnalyzerInnerNode> set) {
@@ -78,6 +82,14 @@ public class HyperGeometricAnalyzer {
 
   private Set<AnalyzerInnerNode> resolveToParents(Long nodeId, Long count) {
     Set<AnalyzerInnerNode> innerNodeSet = new HashSet<>();
+    Optional<long[]> descendants =
+        hierarchyCache.getDescendants(OwlRelationships.RDFS_SUBCLASS_OF, nodeId);
+    if (descendants.isPresent()) {
+      for (long descendant : descendants.get()) {
+        innerNodeSet.add(new AnalyzerInnerNode(descendant, count));
+      }
+      return innerNodeSet;
+    }
     String query = "match (n)<-[:subClassOf*]-(p) where id(n) = " + nodeId + " return p";
     Result result = cypherUtil.execute(query);
     while (result.hasNext()) {
@@ -24,7 +24,9 @@ import io.scigraph.analyzer.AnalyzeRequest;
 import io.scigraph.analyzer.HyperGeometricAnalyzer;
 import io.scigraph.frames.NodeProperties;
 import io.scigraph.internal.CypherUtil;
+import io.scigraph.internal.hierarchy.HierarchyCache;
 import io.scigraph.owlapi.GraphOwlVisitor;
+import io.scigraph.owlapi.OwlRelationships;
 import io.scigraph.owlapi.OwlPostprocessor;
 import io.scigraph.owlapi.loader.OwlLoadConfiguration.MappedProperty;
 import io.scigraph.util.GraphTestBase;
@@ -43,6 +45,7 @@ import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.util.OWLOntologyWalker;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.io.Resources;
 
 public class HyperGeometricAnalyzerTest extends GraphTestBase {
@@ -83,7 +86,9 @@ public class HyperGeometricAnalyzerTest extends GraphTestBase {
     map.put("pizza", "http://www.co-ode.org/ontologies/pizza/pizza.owl#");
     util = new CurieUtil(map);
     CypherUtil cypherUtil = new CypherUtil(graphDb, util);
-    analyzer = new HyperGeometricAnalyzer(graphDb, util, graph, cypherUtil);
+    analyzer = new HyperGeometricAnalyzer(graphDb, util, graph, cypherUtil,
+        new HierarchyCache(graphDb, newHashSet(OwlRelationships.RDFS_SUBCLASS_OF.name()),
+            new MetricRegistry()));
   }
 
   @Test
@@ -15,27 +15,142 @@
  */
 package io.scigraph.cache;
 
-import javax.inject.Inject;
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.util.stream.Collectors.joining;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheBuilderSpec;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.Inject;
+
+import io.scigraph.neo4j.GraphVersion;
 
 public class CacheInterceptor implements MethodInterceptor {
 
-  @Inject
-  Cache<CacheableMethodInvocation, Object> methodCache;
+  static final CacheBuilderSpec DEFAULT_CACHE_SPEC = CacheBuilderSpec.parse("maximumSize=10000");
+
+  /*** Stands in for null results, which Guava caches cannot hold */
+  private static final Object NULL = new Object();
+
+  private final Map<String, CacheBuilderSpec> specs;
+  private final ConcurrentMap<Method, Cache<CacheableMethodInvocation, Object>> caches =
+      new ConcurrentHashMap<>();
+
+  @Inject(optional = true)
+  MetricRegistry metrics = new MetricRegistry();
+
+  /*** Absent when there is no graph to version, ie: in tests */
+  @Inject(optional = true)
+  GraphVersion graphVersion;
+
+  private volatile long version;
+
+  CacheInterceptor(Map<String, CacheBuilderSpec> specs) {
+    this.specs = specs;
+  }
+
+  static String getName(Method method) {
+    return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+  }
+
+  /***
+   * @return the name of the method's metrics, with its parameter types so overloads do not clash
+   */
+  static String getMetricName(Method method) {
+    return getName(method) + Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName)
+        .collect(joining(",", "(", ")"));
+  }
+
+  Cache<CacheableMethodInvocation, Object> getCache(Method method) {
+    return caches.computeIfAbsent(method, this::createCache);
+  }
+
+  Cache<CacheableMethodInvocation, Object> createCache(Method method) {
+    String name = getName(method);
+    CacheBuilderSpec spec =
+        specs.getOrDefault(name, specs.getOrDefault(CacheModule.DEFAULT_SPEC, DEFAULT_CACHE_SPEC));
+    CacheBuilder<Object, Object> builder = CacheBuilder.from(spec).recordStats();
+    if (spec.toParsableString().contains("maximumWeight")) {
+      builder.weigher((key, value) -> weigh(value));
+    }
+    Cache<CacheableMethodInvocation, Object> cache = builder.build();
+    String metricName = getMetricName(method);
+    metrics.register(name(CacheInterceptor.class, metricName, "hits"),
+        (Gauge<Long>) () -> cache.stats().hitCount());
+    metrics.register(name(CacheInterceptor.class, metricName, "misses"),
+        (Gauge<Long>) () -> cache.stats().missCount());
+    metrics.register(name(CacheInterceptor.class, metricName, "hitRate"),
+        (Gauge<Double>) () -> cache.stats().hitRate());
+    metrics.register(name(CacheInterceptor.class, metricName, "evictions"),
+        (Gauge<Long>) () -> cache.stats().evictionCount());
+    metrics.register(name(CacheInterceptor.class, metricName, "size"), (Gauge<Long>) cache::size);
+    return cache;
+  }
+
+  /***
+   * Collections weigh as much as their size, anything else weighs 1.
+   */
+  static int weigh(Object value) {
+    return (value instanceof Collection) ? 1 + ((Collection<?>) value).size() : 1;
+  }
+
+  /***
+   * Drop every cached result as soon as the {@link GraphVersion} changes.
+   */
+  void checkVersion() {
+    if (null == graphVersion) {
+      return;
+    }
+    long current = graphVersion.get();
+    if (current != version) {
+      synchronized (this) {
+        if (current != version) {
+          caches.values().forEach(Cache::invalidateAll);
+          version = current;
+        }
+      }
+    }
+  }
 
   @Override
   public Object invoke(final MethodInvocation invocation) throws Throwable {
-    CacheableMethodInvocation cacheableInvocation = new CacheableMethodInvocation(invocation);
-    Object result = methodCache.getIfPresent(cacheableInvocation);
-    if (null == result) {
-      result = invocation.proceed();
-      methodCache.put(cacheableInvocation, result);
+    checkVersion();
+    Method method = invocation.getMethod();
+    Cache<CacheableMethodInvocation, Object> cache = getCache(method);
+    Timer loads = metrics.timer(name(CacheInterceptor.class, getMetricName(method), "loads"));
+    Object result;
+    try {
+      // Concurrent misses on the same invocation wait for a single load
+      result = cache.get(new CacheableMethodInvocation(invocation), () -> {
+        try (Timer.Context time = loads.time()) {
+          Object value = invocation.proceed();
+          return (null == value) ? NULL : value;
+        } catch (Exception | Error e) {
+          throw e;
+        } catch (Throwable t) {
+          throw new ExecutionException(t);
+        }
+      });
+    } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+      throw e.getCause();
     }
-    return result;
+    return (NULL == result) ? null : result;
   }
 
 }
@@ -15,14 +15,39 @@
  */
 package io.scigraph.cache;
 
+import java.util.Collections;
+import java.util.Map;
+
+import com.google.common.cache.CacheBuilderSpec;
 import com.google.inject.AbstractModule;
 import com.google.inject.matcher.Matchers;
 
+/***
+ * Caches the results of methods annotated with {@link Cacheable}.
+ *
+ * <p>
+ * Each method gets its own cache. Specs are looked up by <em>SimpleClassName.methodName</em>,
+ * then by {@link #DEFAULT_SPEC}. Every cache is dropped as soon as the bound
+ * {@link io.scigraph.neo4j.GraphVersion GraphVersion} changes.
+ */
 public class CacheModule extends AbstractModule {
 
+  /*** The spec used by methods that do not have their own */
+  public static final String DEFAULT_SPEC = "default";
+
+  private final Map<String, CacheBuilderSpec> specs;
+
+  public CacheModule() {
+    this(Collections.<String, CacheBuilderSpec>emptyMap());
+  }
+
+  public CacheModule(Map<String, CacheBuilderSpec> specs) {
+    this.specs = specs;
+  }
+
   @Override
   protected void configure() {
-    CacheInterceptor interceptor = new CacheInterceptor();
+    CacheInterceptor interceptor = new CacheInterceptor(specs);
     requestInjection(interceptor);
     bindInterceptor(Matchers.any(), Matchers.annotatedWith(Cacheable.class), interceptor);
   }
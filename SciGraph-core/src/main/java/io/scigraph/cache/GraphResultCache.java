@@ -0,0 +1,201 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.cache;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static com.google.common.collect.Iterables.size;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.tinkerpop.blueprints.Graph;
+
+import io.scigraph.neo4j.GraphVersion;
+
+/***
+ * A bounded cache of graph results keyed by normalized request parameters.
+ *
+ * <p>
+ * Entries are weighed by their number of vertices and edges and the least recently used are
+ * evicted first. The whole cache is dropped as soon as the {@link GraphVersion} changes.
+ * Concurrent requests for the same key share a single computation. Results can opt out of
+ * caching, for instance when they were truncated.
+ */
+public class GraphResultCache {
+
+  private static final Logger logger = Logger.getLogger(GraphResultCache.class.getName());
+
+  private final GraphVersion graphVersion;
+  private final Cache<List<Object>, Graph> cache;
+  private volatile long version;
+
+  /***
+   * @param graphVersion
+   * @param maximumWeight
+   *          the maximum number of vertices and edges held by the cache, 0 disables caching
+   * @param metrics
+   */
+  public GraphResultCache(GraphVersion graphVersion, long maximumWeight, MetricRegistry metrics) {
+    this.graphVersion = graphVersion;
+    this.version = graphVersion.get();
+    this.cache = CacheBuilder.newBuilder().maximumWeight(maximumWeight)
+        .weigher((List<Object> key, Graph graph) -> weigh(graph)).recordStats().build();
+    metrics.register(name(GraphResultCache.class, "hitRate"),
+        (Gauge<Double>) () -> cache.stats().hitRate());
+    metrics.register(name(GraphResultCache.class, "hits"),
+        (Gauge<Long>) () -> cache.stats().hitCount());
+    metrics.register(name(GraphResultCache.class, "misses"),
+        (Gauge<Long>) () -> cache.stats().missCount());
+    metrics.register(name(GraphResultCache.class, "evictions"),
+        (Gauge<Long>) () -> cache.stats().evictionCount());
+    metrics.register(name(GraphResultCache.class, "size"), (Gauge<Long>) cache::size);
+  }
+
+  static int weigh(Graph graph) {
+    return (int) Math.min(Integer.MAX_VALUE,
+        1L + size(graph.getVertices()) + size(graph.getEdges()));
+  }
+
+  /***
+   * Build a cache key. Collections are sorted so that the order of repeated query parameters
+   * does not matter.
+   *
+   * @param endpoint
+   *          the name of the cached endpoint
+   * @param parameters
+   *          the request parameters that determine the result
+   * @return a normalized key
+   */
+  public static List<Object> key(String endpoint, Object... parameters) {
+    List<Object> key = new ArrayList<>();
+    key.add(endpoint);
+    for (Object parameter : parameters) {
+      if (parameter instanceof Collection && !(parameter instanceof List)) {
+        List<String> values = new ArrayList<>();
+        for (Object value : (Collection<?>) parameter) {
+          values.add(String.valueOf(value));
+        }
+        values.sort(null);
+        key.add(values);
+      } else {
+        key.add(parameter);
+      }
+    }
+    return key;
+  }
+
+  /***
+   * @param key
+   *          a key built by {@link #key}
+   * @param loader
+   *          computes the result on a miss
+   * @return the cached or the computed result
+   */
+  public Graph get(List<Object> key, Callable<Graph> loader) {
+    return get(key, loader, () -> true);
+  }
+
+  /***
+   * Like {@link #get(List, Callable)} but results computed by loader are only cached if
+   * cacheable holds once loader returns (ie: if they were not truncated).
+   *
+   * @param key
+   *          a key built by {@link #key}
+   * @param loader
+   *          computes the result on a miss
+   * @param cacheable
+   *          checked after loader returned
+   * @return the cached or the computed result
+   */
+  public Graph get(List<Object> key, Callable<Graph> loader, BooleanSupplier cacheable) {
+    checkVersion();
+    AtomicBoolean loaded = new AtomicBoolean();
+    try {
+      return cache.get(key, () -> {
+        loaded.set(true);
+        Graph graph = loader.call();
+        if (!cacheable.getAsBoolean()) {
+          throw new UncacheableResult(graph);
+        }
+        return graph;
+      });
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof UncacheableResult) {
+        // Another request's uncacheable result is not ours to return
+        return loaded.get() ? ((UncacheableResult) e.getCause()).graph : load(loader);
+      }
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  static Graph load(Callable<Graph> loader) {
+    try {
+      return loader.call();
+    } catch (Exception e) {
+      Throwables.throwIfUnchecked(e);
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /***
+   * Carries a result out of the cache loader without caching it.
+   */
+  private static final class UncacheableResult extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    final transient Graph graph;
+
+    UncacheableResult(Graph graph) {
+      super(null, null, false, false);
+      this.graph = graph;
+    }
+
+  }
+
+  void checkVersion() {
+    long current = graphVersion.get();
+    if (current != version) {
+      synchronized (this) {
+        if (current != version) {
+          logger.info("Graph version changed from " + version + " to " + current
+              + ", clearing cached results");
+          cache.invalidateAll();
+          version = current;
+        }
+      }
+    }
+  }
+
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+}
@@ -20,10 +20,12 @@ import static com.google.common.collect.Collections2.transform;
 import static com.google.common.collect.Iterables.getFirst;
 import static com.google.common.collect.Sets.newHashSet;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -38,14 +40,19 @@ import org.apache.commons.lang3.text.StrSubstitutor;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Result;
-import org.neo4j.graphdb.Transaction;
 
 import com.google.common.base.Function;
 import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import org.prefixcommons.CurieUtil;
 
+import io.scigraph.internal.hierarchy.PropertyHierarchy;
+import io.scigraph.neo4j.GraphVersion;
+
 /***
  * A utility for more expressive Cypher queries.
  * 
@@ -67,19 +74,53 @@ public class CypherUtil {
   private static final String ENTAILMENT_REGEX = "\\[(\\w*):?([\\w:|\\.\\/#]*)([!*\\.\\d]*)\\]";
   private static Pattern ENTAILMENT_PATTERN = Pattern.compile(ENTAILMENT_REGEX);
 
+  private static final Pattern TEMPLATE_VARIABLE_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
+
+  static final int RESOLVED_QUERY_CACHE_SIZE = 10_000;
+
   private final GraphDatabaseService graphDb;
   private final CurieUtil curieUtil;
+  private final GraphVersion graphVersion;
+  private final PropertyHierarchy propertyHierarchy;
+  private final SlowQueryLog slowQueryLog;
+
+  /*** The relationship template variables of each query */
+  private final Cache<String, List<String>> templateVariables =
+      CacheBuilder.newBuilder().maximumSize(RESOLVED_QUERY_CACHE_SIZE).build();
+  /*** Fully resolved queries keyed by template, graph version and relationship values */
+  private final Cache<List<Object>, String> resolvedQueries =
+      CacheBuilder.newBuilder().maximumSize(RESOLVED_QUERY_CACHE_SIZE).build();
 
-  @Inject
   public CypherUtil(GraphDatabaseService graphDb, CurieUtil curieUtil) {
+    this(graphDb, curieUtil, new GraphVersion(graphDb));
+  }
+
+  CypherUtil(GraphDatabaseService graphDb, CurieUtil curieUtil, GraphVersion graphVersion) {
+    this(graphDb, curieUtil, graphVersion, new PropertyHierarchy(graphDb, graphVersion));
+  }
+
+  public CypherUtil(GraphDatabaseService graphDb, CurieUtil curieUtil, GraphVersion graphVersion,
+      PropertyHierarchy propertyHierarchy) {
+    this(graphDb, curieUtil, graphVersion, propertyHierarchy, new SlowQueryLog());
+  }
+
+  @Inject
+  public CypherUtil(GraphDatabaseService graphDb, CurieUtil curieUtil, GraphVersion graphVersion,
+      PropertyHierarchy propertyHierarchy, SlowQueryLog slowQueryLog) {
     this.graphDb = graphDb;
     this.curieUtil = curieUtil;
+    this.graphVersion = graphVersion;
+    this.propertyHierarchy = propertyHierarchy;
+    this.slowQueryLog = slowQueryLog;
   }
 
   public Result execute(String query, Multimap<String, Object> params, long timeout, TimeUnit unit) {
-    query = substituteRelationships(query, params);
-    query = resolveRelationships(query);
-    return graphDb.execute(query, flattenMap(params), timeout, unit);
+    long start = System.nanoTime();
+    String resolved = resolveQuery(query, params);
+    Map<String, Object> parameters = flattenMap(params);
+    return slowQueryLog.wrap(
+        graphDb.execute(slowQueryLog.prepare(resolved), parameters, timeout, unit),
+        resolved, parameters, start);
   }
 
   public Result execute(String query, long timeout, TimeUnit unit) {
@@ -87,9 +128,54 @@ public class CypherUtil {
   }
 
   public Result execute(String query, Multimap<String, Object> params) {
-    query = substituteRelationships(query, params);
-    query = resolveRelationships(query);
-    return graphDb.execute(query, flattenMap(params));
+    long start = System.nanoTime();
+    String resolved = resolveQuery(query, params);
+    Map<String, Object> parameters = flattenMap(params);
+    return slowQueryLog.wrap(graphDb.execute(slowQueryLog.prepare(resolved), parameters),
+        resolved, parameters, start);
+  }
+
+  /***
+   * Substitute the relationship templates of a query and resolve its relationships.
+   *
+   * <p>
+   * Only the values of the template variables end up in the query text, every other parameter
+   * is passed to Neo4j as a Cypher parameter. Resolved queries are cached by template, graph
+   * version and template values, so repeated requests skip the rewriting and Neo4j sees the
+   * same text, and reuses the same plan, for every request that only differs by parameters.
+   *
+   * @param query a query template
+   * @param params the request parameters
+   * @return the query to run
+   */
+  public String resolveQuery(String query, Multimap<String, Object> params) {
+    List<String> variables = templateVariables.getIfPresent(query);
+    if (null == variables) {
+      variables = getTemplateVariables(query);
+      templateVariables.put(query, variables);
+    }
+    List<Object> key = new ArrayList<>(variables.size() + 2);
+    key.add(query);
+    key.add(graphVersion.get());
+    for (String variable : variables) {
+      key.add(ImmutableList.copyOf(params.get(variable)));
+    }
+    String resolved = resolvedQueries.getIfPresent(key);
+    if (null == resolved) {
+      resolved = resolveRelationships(substituteRelationships(query, params));
+      resolvedQueries.put(key, resolved);
+    }
+    return resolved;
+  }
+
+  static List<String> getTemplateVariables(String query) {
+    Set<String> variables = new LinkedHashSet<>();
+    Matcher m = TEMPLATE_VARIABLE_PATTERN.matcher(query);
+    while (m.find()) {
+      // Drop StrSubstitutor's default value, if any
+      variables.add(Splitter.on(":-").limit(2).split(m.group(1)).iterator().next());
+    }
+    return ImmutableList.copyOf(variables);
   }
 
   public Result execute(String query) {
@@ -105,37 +191,18 @@ public class CypherUtil {
   }
 
   public Set<RelationshipType> getEntailedRelationshipTypes(Collection<String> parents) {
-    Set<String> relationshipNames = getEntailedRelationshipNames(parents);
-    Collection<RelationshipType> relationshipTypes = Collections.emptySet();
-    try (Transaction tx = graphDb.beginTx()) {
-      relationshipTypes = transform(relationshipNames, new Function<String, RelationshipType>() {
-        @Override
-        public RelationshipType apply(String name) {
-          return RelationshipType.withName(name);
-        }
-      });
-      tx.success();
+    Set<RelationshipType> relationshipTypes = new HashSet<>();
+    for (String name : getEntailedRelationshipNames(parents)) {
+      relationshipTypes.add(RelationshipType.withName(name));
     }
-    return new HashSet<RelationshipType>(relationshipTypes);
+    return relationshipTypes;
   }
 
   Set<String> getEntailedRelationshipNames(Collection<String> parents) {
     Set<String> entailedTypes = new HashSet<>();
     for (String parent : parents) {
       entailedTypes.add(parent);
-      Map<String, Object> params = new HashMap<>();
-      params.put("iri", parent);
-      try (Transaction tx = graphDb.beginTx()) {
-        Result result =
-            graphDb.execute("START parent=node:node_auto_index(iri={iri}) "
-                + "MATCH (parent)<-[:subPropertyOf|equivalentProperty*]-(subProperty) "
-                + "RETURN distinct subProperty.iri as subProperty", params);
-        while (result.hasNext()) {
-          Map<String, Object> map = result.next();
-          entailedTypes.add((String) map.get("subProperty"));
-        }
-        tx.success();
-      }
+      entailedTypes.addAll(propertyHierarchy.getSubProperties(parent));
     }
     return entailedTypes;
   }
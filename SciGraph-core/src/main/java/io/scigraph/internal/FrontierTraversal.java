@@ -0,0 +1,247 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+
+/***
+ * Follows a list of relationship steps one frontier at a time.
+ *
+ * <p>
+ * Each step reads the outgoing relationships of every frontier node directly and de-duplicates
+ * the next frontier in a primitive id set. Large frontiers are split in chunks that are expanded
+ * in parallel on the traversal executor, each with its own transaction. Step types are resolved
+ * like {@link CypherUtil#resolveRelationships(String)} does: CURIEs are expanded and <em>!</em>
+ * adds the sub properties. Steps that cannot be expressed natively (ie: bounded variable length)
+ * are delegated to Cypher.
+ */
+final class FrontierTraversal {
+
+  /*** Frontiers at least this large are expanded in parallel */
+  static final int PARALLEL_FRONTIER_SIZE = 1_000;
+
+  private static final int CHUNK_SIZE = 250;
+
+  private static final Pattern STEP_PATTERN =
+      Pattern.compile("^\\s*:?([^*!]*?)\\s*(!)?\\s*(\\*)?\\s*$");
+
+  private final GraphDatabaseService graphDb;
+  private final CypherUtil cypherUtil;
+  private final ExecutorService executor;
+  private final int nodeBudget;
+  private int visitedNodes = 0;
+
+  FrontierTraversal(GraphDatabaseService graphDb, CypherUtil cypherUtil, ExecutorService executor,
+      int nodeBudget) {
+    this.graphDb = graphDb;
+    this.cypherUtil = cypherUtil;
+    this.executor = executor;
+    this.nodeBudget = nodeBudget;
+  }
+
+  /***
+   * A parsed relationship step: an optional set of types (any type if empty), whether their sub
+   * properties are followed too (<em>rel!</em>) and whether the step is repeated
+   * (<em>rel*</em>).
+   */
+  static final class Step {
+
+    final List<String> types;
+    final boolean entailed;
+    final boolean repeated;
+
+    Step(List<String> types, boolean entailed, boolean repeated) {
+      this.types = types;
+      this.entailed = entailed;
+      this.repeated = repeated;
+    }
+
+    /***
+     * @param step
+     *          a Cypher like relationship step: <em>rel</em>, <em>relA|relB</em>, <em>rel!</em>,
+     *          <em>rel*</em> or <em>*</em>, where rel may be a CURIE
+     * @return the step or empty if it can only be evaluated by Cypher
+     */
+    static Optional<Step> parse(String step) {
+      Matcher matcher = STEP_PATTERN.matcher(step);
+      if (!matcher.matches()) {
+        return Optional.empty();
+      }
+      List<String> types = new ArrayList<>();
+      for (String type : Splitter.on('|').trimResults().omitEmptyStrings().split(matcher.group(1))) {
+        types.add(type.replaceAll("^:|`", ""));
+      }
+      return Optional.of(new Step(types, null != matcher.group(2), null != matcher.group(3)));
+    }
+
+  }
+
+  long[] follow(long[] frontier, List<String> steps) {
+    for (String step : steps) {
+      Optional<Step> parsed = Step.parse(step);
+      frontier = parsed.isPresent() ? follow(frontier, parsed.get()) : followCypher(frontier, step);
+    }
+    return frontier;
+  }
+
+  long[] follow(long[] frontier, Step step) {
+    RelationshipType[] types = resolveTypes(step);
+    try (PrimitiveLongSet next = Primitive.longSet(frontier.length * 2)) {
+      long[] added = expand(frontier, types, next);
+      while (step.repeated && added.length > 0) {
+        added = expand(added, types, next);
+      }
+      return toArray(next);
+    }
+  }
+
+  /***
+   * @return the IRIs of the step's types and, if it is entailed, of their sub properties
+   */
+  RelationshipType[] resolveTypes(Step step) {
+    if (step.types.isEmpty()) {
+      return new RelationshipType[0];
+    }
+    return cypherUtil.resolveTypes(Joiner.on('|').join(step.types), step.entailed).stream()
+        .map(RelationshipType::withName).toArray(RelationshipType[]::new);
+  }
+
+  /***
+   * Add the outgoing neighbors of frontier to visited.
+   *
+   * @return the neighbors that were not visited yet
+   */
+  long[] expand(long[] frontier, RelationshipType[] types, PrimitiveLongSet visited) {
+    long[] neighbors = (frontier.length >= PARALLEL_FRONTIER_SIZE)
+        ? parallelNeighbors(frontier, types) : neighbors(frontier, types);
+    long[] added = new long[neighbors.length];
+    int size = 0;
+    for (long neighbor : neighbors) {
+      if (visited.add(neighbor)) {
+        added[size++] = neighbor;
+      }
+    }
+    visitedNodes += size;
+    if (visitedNodes > nodeBudget) {
+      throw new TraversalBudgetExceededException(
+          format("Traversal visited more than %d nodes", nodeBudget));
+    }
+    return Arrays.copyOf(added, size);
+  }
+
+  long[] parallelNeighbors(long[] frontier, RelationshipType[] types) {
+    List<Future<long[]>> chunks = new ArrayList<>();
+    for (int i = 0; i < frontier.length; i += CHUNK_SIZE) {
+      long[] chunk = Arrays.copyOfRange(frontier, i, Math.min(frontier.length, i + CHUNK_SIZE));
+      chunks.add(executor.submit(() -> {
+        try (Transaction tx = graphDb.beginTx()) {
+          long[] chunkNeighbors = neighbors(chunk, types);
+          tx.success();
+          return chunkNeighbors;
+        }
+      }));
+    }
+    List<long[]> neighbors = new ArrayList<>();
+    try {
+      for (Future<long[]> chunk : chunks) {
+        neighbors.add(chunk.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      chunks.forEach(chunk -> chunk.cancel(true));
+    }
+    return neighbors.stream().flatMapToLong(Arrays::stream).toArray();
+  }
+
+  long[] neighbors(long[] frontier, RelationshipType[] types) {
+    long[] neighbors = new long[Math.max(16, frontier.length)];
+    int size = 0;
+    for (long id : frontier) {
+      Node node = graphDb.getNodeById(id);
+      Iterable<Relationship> relationships = (types.length == 0)
+          ? node.getRelationships(Direction.OUTGOING)
+          : node.getRelationships(Direction.OUTGOING, types);
+      for (Relationship relationship : relationships) {
+        if (size == neighbors.length) {
+          neighbors = Arrays.copyOf(neighbors, size * 2);
+        }
+        neighbors[size++] = relationship.getEndNodeId();
+      }
+    }
+    return Arrays.copyOf(neighbors, size);
+  }
+
+  long[] followCypher(long[] frontier, String step) {
+    try (PrimitiveLongSet next = Primitive.longSet(frontier.length * 2)) {
+      for (long id : frontier) {
+        String query = "MATCH (n)-[:" + step + "]->(m) WHERE ID(n) = " + id + " RETURN ID(m) AS m";
+        Result result = cypherUtil.execute(query);
+        while (result.hasNext()) {
+          if (next.add((long) result.next().get("m"))) {
+            visitedNodes++;
+          }
+        }
+      }
+      if (visitedNodes > nodeBudget) {
+        throw new TraversalBudgetExceededException(
+            format("Traversal visited more than %d nodes", nodeBudget));
+      }
+      return toArray(next);
+    }
+  }
+
+  static long[] toArray(PrimitiveLongSet set) {
+    long[] ids = new long[set.size()];
+    int i = 0;
+    PrimitiveLongIterator iterator = set.iterator();
+    while (iterator.hasNext()) {
+      ids[i++] = iterator.next();
+    }
+    Arrays.sort(ids);
+    return ids;
+  }
+
+}
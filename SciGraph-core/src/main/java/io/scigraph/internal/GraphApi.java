@@ -16,23 +16,38 @@
 package io.scigraph.internal;
 
 import static com.google.common.collect.Iterables.isEmpty;
+import static com.google.common.collect.Iterables.size;
 import static com.google.common.collect.Sets.newHashSet;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.graphdb.Path;
 import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
@@ -44,12 +59,20 @@ import org.neo4j.graphdb.traversal.Uniqueness;
 import org.prefixcommons.CurieUtil;
 
 import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
 
+import io.scigraph.cache.Cacheable;
 import io.scigraph.frames.NodeProperties;
+import io.scigraph.internal.hierarchy.HierarchyCache;
 import io.scigraph.neo4j.DirectedRelationshipType;
+import io.scigraph.neo4j.bindings.IndicatesTraversalExecutor;
 import io.scigraph.owlapi.OwlRelationships;
 import io.scigraph.owlapi.curies.AddCuries;
 
@@ -58,12 +81,47 @@ public class GraphApi {
   private final GraphDatabaseService graphDb;
   private final CypherUtil cypherUtil;
   private final CurieUtil curieUtil;
+  private final Optional<HierarchyCache> hierarchyCache;
+  private final ExecutorService traversalExecutor;
 
-  @Inject
+  /*** The default maximum number of nodes visited by {@link #getReachableNodes} */
+  public static final int DEFAULT_NODE_BUDGET = 100_000;
+
+  /*** The default maximum length of a path returned by {@link #getPaths} */
+  public static final int DEFAULT_PATH_DEPTH = 10;
+
+  /*** Returned by {@link #forEachEdge} once the last edge was visited */
+  public static final long NO_MORE_EDGES = -1;
+
+  static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+  static final String NODE_AUTO_INDEX = "node_auto_index";
+  static final int NODE_CACHE_SIZE = 100_000;
+
+  private final Cache<String, Long> nodeIdCache =
+      CacheBuilder.newBuilder().maximumSize(NODE_CACHE_SIZE).recordStats().build();
+
+  /***
+   * Parallel traversals run on the common fork join pool.
+   */
   public GraphApi(GraphDatabaseService graphDb, CypherUtil cypherUtil, CurieUtil curieUtil) {
+    this(graphDb, cypherUtil, curieUtil, Optional.empty(), ForkJoinPool.commonPool());
+  }
+
+  @Inject
+  GraphApi(GraphDatabaseService graphDb, CypherUtil cypherUtil, CurieUtil curieUtil,
+      HierarchyCache hierarchyCache,
+      @IndicatesTraversalExecutor ExecutorService traversalExecutor) {
+    this(graphDb, cypherUtil, curieUtil, Optional.of(hierarchyCache), traversalExecutor);
+  }
+
+  GraphApi(GraphDatabaseService graphDb, CypherUtil cypherUtil, CurieUtil curieUtil,
+      Optional<HierarchyCache> hierarchyCache, ExecutorService traversalExecutor) {
     this.graphDb = graphDb;
     this.cypherUtil = cypherUtil;
     this.curieUtil = curieUtil;
+    this.hierarchyCache = hierarchyCache;
+    this.traversalExecutor = traversalExecutor;
   }
 
   /***
@@ -75,6 +133,17 @@ public class GraphApi {
   public Collection<Node> getEntailment(Node parent, DirectedRelationshipType relationship,
       boolean traverseEquivalentEdges) {
     Set<Node> entailment = new HashSet<>();
+    if (!traverseEquivalentEdges && relationship.getDirection() != Direction.BOTH
+        && hierarchyCache.isPresent() && hierarchyCache.get().covers(relationship.getType())) {
+      Optional<long[]> entailed = (relationship.getDirection() == Direction.INCOMING)
+          ? hierarchyCache.get().getDescendants(relationship.getType(), parent.getId())
+          : hierarchyCache.get().getAncestors(relationship.getType(), parent.getId());
+      entailment.add(parent);
+      for (long id : entailed.get()) {
+        entailment.add(graphDb.getNodeById(id));
+      }
+      return entailment;
+    }
     TraversalDescription description = graphDb.traversalDescription().depthFirst()
         .relationships(relationship.getType(), relationship.getDirection())
         .evaluator(Evaluators.fromDepth(0)).evaluator(Evaluators.all());
@@ -90,11 +159,165 @@ public class GraphApi {
   @AddCuries
   public Graph getNeighbors(Set<Node> nodes, int depth, Set<DirectedRelationshipType> types,
       final Optional<Predicate<Node>> includeNode) {
+    return getNeighbors(nodes, depth, types, includeNode, TraversalBudget.unlimited());
+  }
+
+  /***
+   * Expand the neighborhood of some roots within a budget.
+   *
+   * <p>
+   * The traversal stops as soon as the budget is exhausted: the returned graph is then a
+   * truncated neighborhood and {@link TraversalBudget#getExceededLimit()} tells which limit was
+   * hit.
+   *
+   * @param nodes the roots
+   * @param depth
+   * @param types
+   * @param includeNode
+   * @param budget bounds the relationships expanded, the nodes returned and the time spent
+   * @return the (possibly truncated) neighborhood
+   */
+  @AddCuries
+  public Graph getNeighbors(Set<Node> nodes, int depth, Set<DirectedRelationshipType> types,
+      final Optional<Predicate<Node>> includeNode, TraversalBudget budget) {
+    return getNeighbors(nodes, depth, types, includeNode, budget, SupernodePolicy.NONE);
+  }
+
+  /***
+   * Expand the neighborhood of some roots within a budget, limiting the expansion of high
+   * degree nodes.
+   *
+   * @param nodes the roots
+   * @param depth
+   * @param types
+   * @param includeNode
+   * @param budget bounds the relationships expanded, the nodes returned and the time spent
+   * @param supernodePolicy how nodes with many relationships are expanded
+   * @return the (possibly truncated) neighborhood
+   */
+  @AddCuries
+  public Graph getNeighbors(Set<Node> nodes, int depth, Set<DirectedRelationshipType> types,
+      final Optional<Predicate<Node>> includeNode, TraversalBudget budget,
+      SupernodePolicy supernodePolicy) {
+    TinkerGraphUtil tgu = new TinkerGraphUtil(curieUtil);
+    streamNeighbors(nodes, depth, types, includeNode, budget, supernodePolicy, tgu);
+    return tgu.getGraph();
+  }
+
+  /***
+   * Send the neighborhood of some roots to a sink as it is traversed, without building a graph.
+   *
+   * <p>
+   * The only state kept is the set of node and relationship ids already sent. The roots are
+   * sent on their own if the neighborhood has no relationships.
+   *
+   * @param nodes the roots
+   * @param depth
+   * @param types
+   * @param includeNode
+   * @param budget bounds the relationships expanded, the nodes sent and the time spent
+   * @param supernodePolicy how nodes with many relationships are expanded
+   * @param sink receives each node and relationship once
+   */
+  public void streamNeighbors(Set<Node> nodes, int depth, Set<DirectedRelationshipType> types,
+      final Optional<Predicate<Node>> includeNode, TraversalBudget budget,
+      SupernodePolicy supernodePolicy, GraphSink sink) {
+    boolean empty = emitNeighborhood(nodes,
+        getNeighborhoodDescription(depth, types, includeNode, budget, supernodePolicy), budget,
+        sink);
+    if (empty) {
+      // If nothing was added to the graph add the root nodes
+      for (Node node : nodes) {
+        sink.node(node);
+      }
+    }
+  }
+
+  /***
+   * Expand the neighborhood of many roots in parallel.
+   *
+   * <p>
+   * The roots are partitioned and each partition is traversed on the traversal executor with its
+   * own read transaction. The partial graphs are then merged in a single de-duplicating pass. All the
+   * workers share the same budget.
+   *
+   * @param nodes the roots
+   * @param depth
+   * @param types
+   * @param includeNode
+   * @param budget bounds the relationships expanded, the nodes returned and the time spent
+   * @param supernodePolicy how nodes with many relationships are expanded
+   * @return the merged (possibly truncated) neighborhood
+   */
+  @AddCuries
+  public Graph getNeighborsInParallel(Set<Node> nodes, int depth,
+      Set<DirectedRelationshipType> types, final Optional<Predicate<Node>> includeNode,
+      TraversalBudget budget, SupernodePolicy supernodePolicy) {
+    TraversalDescription description =
+        getNeighborhoodDescription(depth, types, includeNode, budget, supernodePolicy);
+    List<Long> roots = nodes.stream().map(Node::getId).collect(Collectors.toList());
+    int partitionSize = Math.max(1, (int) Math.ceil(roots.size() / (double) PARALLELISM));
+    List<Future<Graph>> partials = new ArrayList<>();
+    for (List<Long> partition : Lists.partition(roots, partitionSize)) {
+      partials.add(traversalExecutor.submit(() -> {
+        try (Transaction tx = graphDb.beginTx()) {
+          Graph partial = new TinkerGraph();
+          Set<Node> partitionRoots = new HashSet<>();
+          for (long id : partition) {
+            partitionRoots.add(graphDb.getNodeById(id));
+          }
+          emitNeighborhood(partitionRoots, description, budget,
+              new TinkerGraphUtil(partial, curieUtil));
+          tx.success();
+          return partial;
+        }
+      }));
+    }
+    Graph graph = new TinkerGraph();
+    TinkerGraphUtil tgu = new TinkerGraphUtil(graph, curieUtil);
+    try {
+      for (Future<Graph> partial : partials) {
+        tgu.addGraph(partial.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      partials.forEach(partial -> partial.cancel(true));
+    }
+    if (isEmpty(graph.getEdges())) {
+      for (Node node : nodes) {
+        tgu.addNode(node);
+      }
+    }
+    return graph;
+  }
+
+  TraversalDescription getNeighborhoodDescription(int depth, Set<DirectedRelationshipType> types,
+      final Optional<Predicate<Node>> includeNode, final TraversalBudget budget,
+      SupernodePolicy supernodePolicy) {
     TraversalDescription description = graphDb.traversalDescription().breadthFirst()
         .evaluator(Evaluators.toDepth(depth)).uniqueness(Uniqueness.RELATIONSHIP_RECENT);
-    for (DirectedRelationshipType type : types) {
-      description = description.relationships(type.getType(), type.getDirection());
+    if (supernodePolicy.isActive()) {
+      description = description.expand(supernodePolicy.getExpander(types));
+    } else {
+      for (DirectedRelationshipType type : types) {
+        description = description.relationships(type.getType(), type.getDirection());
+      }
     }
+    description = description.evaluator(new Evaluator() {
+      @Override
+      public Evaluation evaluate(Path path) {
+        if (path.length() == 0 || budget.expand()) {
+          return Evaluation.INCLUDE_AND_CONTINUE;
+        } else {
+          return Evaluation.EXCLUDE_AND_PRUNE;
+        }
+      }
+    });
     if (includeNode.isPresent()) {
       description = description.evaluator(new Evaluator() {
         @Override
@@ -107,21 +330,40 @@ public class GraphApi {
         }
       });
     }
-    Graph graph = new TinkerGraph();
-    TinkerGraphUtil tgu = new TinkerGraphUtil(graph, curieUtil);
-    for (Path path : description.traverse(nodes)) {
-      Relationship relationship = path.lastRelationship();
-      if (null != relationship) {
-        tgu.addEdge(relationship);
-      }
-    }
-    if (isEmpty(graph.getEdges())) {
-      // If nothing was added to the graph add the root nodes
-      for (Node node : nodes) {
-        tgu.addNode(node);
+    return description;
+  }
+
+  /***
+   * @return true if no relationship was sent
+   */
+  boolean emitNeighborhood(Set<Node> nodes, TraversalDescription description,
+      TraversalBudget budget, GraphSink sink) {
+    try (PrimitiveLongSet sentNodes = Primitive.longSet();
+        PrimitiveLongSet sentRelationships = Primitive.longSet()) {
+      for (Path path : description.traverse(nodes)) {
+        if (budget.isExhausted()) {
+          break;
+        }
+        Relationship relationship = path.lastRelationship();
+        if (null != relationship && !sentRelationships.contains(relationship.getId())) {
+          long start = relationship.getStartNodeId();
+          long end = relationship.getEndNodeId();
+          int newNodes = (sentNodes.contains(start) ? 0 : 1)
+              + ((start == end || sentNodes.contains(end)) ? 0 : 1);
+          if (!budget.addNodes(newNodes)) {
+            break;
+          }
+          for (Node node : relationship.getNodes()) {
+            if (sentNodes.add(node.getId())) {
+              sink.node(node);
+            }
+          }
+          sentRelationships.add(relationship.getId());
+          sink.edge(relationship);
+        }
       }
+      return sentRelationships.isEmpty();
     }
-    return graph;
   }
 
   public Graph getEdges(RelationshipType type, boolean entail, long skip, long limit) {
@@ -146,6 +388,68 @@ public class GraphApi {
     return graph;
   }
 
+  /***
+   * Visit the edges of a type in relationship id order, starting after a cursor.
+   *
+   * <p>
+   * Relationships are read by id from the cursor on, keeping those of the requested types, so
+   * nothing is sorted and a page only reads the relationships between its first and last edge,
+   * however many pages were read before. Unlike SKIP / LIMIT the order is stable. Ids freed by
+   * deleted relationships are skipped with a scan of the relationship store; graphs that were not
+   * written to after they were loaded only have free ids past the last relationship, so the scan
+   * is only paid once the last edge was visited.
+   *
+   * @param type a type IRI or CURIE
+   * @param entail include subproperties and equivalent properties
+   * @param after only visit edges with an id greater than this cursor
+   * @param limit the maximum number of edges to visit
+   * @param consumer
+   * @return the cursor for the next page, which may be empty, or {@link #NO_MORE_EDGES}
+   */
+  public long forEachEdge(RelationshipType type, boolean entail, long after, long limit,
+      Consumer<Relationship> consumer) {
+    String iri = curieUtil.getIri(type.name()).orElse(type.name());
+    Set<String> types = entail
+        ? cypherUtil.getEntailedRelationshipTypes(Collections.singleton(iri)).stream()
+            .map(RelationshipType::name).collect(Collectors.toSet())
+        : Collections.singleton(iri);
+    long visited = 0;
+    long id = after;
+    while (visited < limit) {
+      Relationship relationship;
+      try {
+        relationship = graphDb.getRelationshipById(++id);
+      } catch (NotFoundException e) {
+        OptionalLong next = getNextRelationshipId(id);
+        if (!next.isPresent()) {
+          return NO_MORE_EDGES;
+        }
+        relationship = graphDb.getRelationshipById(id = next.getAsLong());
+      }
+      if (types.contains(relationship.getType().name())) {
+        consumer.accept(relationship);
+        visited++;
+      }
+    }
+    return id;
+  }
+
+  /***
+   * @return the smallest relationship id greater than id, if any
+   */
+  OptionalLong getNextRelationshipId(long id) {
+    try (ResourceIterator<Relationship> relationships =
+        graphDb.getAllRelationships().iterator()) {
+      while (relationships.hasNext()) {
+        long next = relationships.next().getId();
+        if (next > id) {
+          return OptionalLong.of(next);
+        }
+      }
+    }
+    return OptionalLong.empty();
+  }
+
   public Optional<Node> getNode(String id, Optional<String> lblHint) {
     String iriResolved = curieUtil.getIri(id).orElse(id);
     Optional<Node> node = Optional.empty();
@@ -156,43 +460,114 @@ public class GraphApi {
         node = Optional.of(hit);
       }
     } else {
-      String startQuery =
-          "MATCH (n {" + NodeProperties.IRI + ": \"" + iriResolved + "\"}) RETURN n";
-      Result res = cypherUtil.execute(startQuery);
-      if (res.hasNext()) {
-        node = Optional.of((Node) res.next().get("n"));
+      Long cachedId = nodeIdCache.getIfPresent(iriResolved);
+      if (null != cachedId) {
+        try {
+          return Optional.of(graphDb.getNodeById(cachedId));
+        } catch (NotFoundException e) {
+          nodeIdCache.invalidate(iriResolved);
+        }
+      }
+      node = findNodeByIri(iriResolved);
+      if (node.isPresent()) {
+        nodeIdCache.put(iriResolved, node.get().getId());
       }
     }
 
     return node;
   }
 
+  /***
+   * Resolve many ids in a single transaction.
+   *
+   * @param ids
+   *          CURIEs or IRIs
+   * @return the resolved nodes keyed by id, in the order of ids. Unknown ids are left out.
+   */
+  public Map<String, Node> getNodes(Collection<String> ids) {
+    Map<String, Node> nodes = new LinkedHashMap<>();
+    try (Transaction tx = graphDb.beginTx()) {
+      for (String id : ids) {
+        Optional<Node> node = getNode(id, Optional.empty());
+        if (node.isPresent()) {
+          nodes.put(id, node.get());
+        }
+      }
+      tx.success();
+    }
+    return nodes;
+  }
+
+  /***
+   * Look up an IRI in the node auto index, which always indexes IRIs. Only graphs built without
+   * the index fall back to a (scanning) Cypher match.
+   */
+  Optional<Node> findNodeByIri(String iri) {
+    if (graphDb.index().existsForNodes(NODE_AUTO_INDEX)) {
+      return Optional.ofNullable(graphDb.index().getNodeAutoIndexer().getAutoIndex()
+          .get(NodeProperties.IRI, iri).getSingle());
+    }
+    String startQuery = "MATCH (n {" + NodeProperties.IRI + ": {iri}}) RETURN n";
+    Result res = graphDb.execute(startQuery, Collections.singletonMap("iri", iri));
+    return res.hasNext() ? Optional.of((Node) res.next().get("n")) : Optional.empty();
+  }
+
+  /***
+   * Resolve ids ahead of time so that their lookups are served from the node cache.
+   * 
+   * @param ids
+   *          the most requested CURIEs or IRIs
+   */
+  public void warmNodeCache(Iterable<String> ids) {
+    try (Transaction tx = graphDb.beginTx()) {
+      for (String id : ids) {
+        getNode(id, Optional.empty());
+      }
+      tx.success();
+    }
+  }
+
+  /***
+   * @return statistics about the IRI to node id cache
+   */
+  public CacheStats getNodeCacheStats() {
+    return nodeIdCache.stats();
+  }
+
   public Graph getReachableNodes(Node start, List<String> rels, Set<String> lbls) {
-    Set<Node> acc = Sets.newHashSet(start);
+    return getReachableNodes(start, rels, lbls, DEFAULT_NODE_BUDGET);
+  }
+
+  /***
+   * Follow rels from start one frontier at a time.
+   * 
+   * @param start
+   * @param rels
+   *          relationship steps to follow in order (ie: relA, relA|relB, relA!, relA* or *),
+   *          a single step of any type if empty
+   * @param lbls
+   *          only return nodes with one of these labels, if not empty
+   * @param nodeBudget
+   *          the maximum number of nodes visited by all the steps
+   * @return the nodes reached by the last step
+   * @throws TraversalBudgetExceededException
+   *           if more than nodeBudget nodes are visited
+   */
+  public Graph getReachableNodes(Node start, List<String> rels, Set<String> lbls,
+      int nodeBudget) {
+    FrontierTraversal traversal = new FrontierTraversal(graphDb, cypherUtil, traversalExecutor, nodeBudget);
+    long[] frontier = new long[] {start.getId()};
     if (rels.isEmpty()) {
-      Set<Node> newAcc = Sets.newHashSet();
-      String query = "MATCH (n)-[]->(m) WHERE ID(n) = " + start.getId() + " RETURN m";
-      Result res = cypherUtil.execute(query);
-      while (res.hasNext()) {
-        newAcc.add((Node) res.next().get("m"));
-      }
-      acc = newAcc;
+      frontier =
+          traversal.follow(frontier,
+              new FrontierTraversal.Step(Collections.emptyList(), false, false));
     } else {
-      for (String rel : rels) {
-        Set<Node> newAcc = Sets.newHashSet();
-        for (Node n : acc) {
-          String query = "MATCH (n)-[:" + rel + "]->(m) WHERE ID(n) = " + n.getId() + " RETURN m";
-          Result res = cypherUtil.execute(query);
-          while (res.hasNext()) {
-            newAcc.add((Node) res.next().get("m"));
-          }
-        }
-        acc = newAcc;
-      }
+      frontier = traversal.follow(frontier, rels);
     }
 
     TinkerGraphUtil tgu = new TinkerGraphUtil(curieUtil);
-    for (Node n : acc) {
+    for (long id : frontier) {
+      Node n = graphDb.getNodeById(id);
       if (lbls.isEmpty()) {
         tgu.addNode(n);
       } else {
@@ -208,9 +583,41 @@ public class GraphApi {
     return tgu.getGraph();
   }
 
+  /***
+   * Find the shortest simple paths between two nodes.
+   *
+   * @param start
+   * @param end
+   * @param types
+   *          the relationships to follow, any relationship in both directions if empty
+   * @param k
+   *          the number of paths to find
+   * @param maxDepth
+   *          the maximum length of a path
+   * @param maxExpansions
+   *          the maximum number of relationships read by the search
+   * @return the union of up to k shortest paths, an empty graph if end cannot be reached
+   * @throws TraversalBudgetExceededException
+   *           if more than maxExpansions relationships are read
+   */
+  @AddCuries
+  public Graph getPaths(Node start, Node end, Set<DirectedRelationshipType> types, int k,
+      int maxDepth, int maxExpansions) {
+    PathFinder finder = new PathFinder(graphDb, types, maxDepth, maxExpansions);
+    TinkerGraphUtil tgu = new TinkerGraphUtil(curieUtil);
+    for (PathFinder.Route route : finder.kShortestPaths(start.getId(), end.getId(), k)) {
+      tgu.addNode(graphDb.getNodeById(route.nodes[0]));
+      for (long id : route.relationships) {
+        tgu.addEdge(graphDb.getRelationshipById(id));
+      }
+    }
+    return tgu.getGraph();
+  }
+
   /***
    * @return All the {@link RelationshipType}s in the graph.
    */
+  @Cacheable
   public Collection<RelationshipType> getAllRelationshipTypes() {
     Set<RelationshipType> relationships = new HashSet<>();
     try (Transaction tx = graphDb.beginTx()) {
@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+/***
+ * Receives the elements of a graph as a traversal reaches them.
+ *
+ * <p>
+ * Each node and relationship is sent once. The nodes of a relationship are always sent before
+ * the relationship itself.
+ */
+public interface GraphSink {
+
+  void node(Node node);
+
+  void edge(Relationship relationship);
+
+  /***
+   * Receive a query result that is neither a node nor a relationship, ie: a boolean.
+   *
+   * @param key
+   *          the column of the value
+   * @param value
+   */
+  default void value(String key, Object value) {}
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.PropertyContainer;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Result;
+
+/***
+ * Utilities for {@link GraphSink}s.
+ */
+public final class GraphSinks {
+
+  private static final Logger logger = Logger.getLogger(GraphSinks.class.getName());
+
+  private GraphSinks() {}
+
+  /***
+   * Send the nodes, relationships and paths of a Cypher result to a sink, in a single pass over
+   * its rows.
+   *
+   * <p>
+   * Lists are sent element by element and booleans are sent as values. Each node and
+   * relationship is sent once and the nodes of a relationship are sent before it.
+   *
+   * @param result
+   * @param sink
+   */
+  public static void emit(Result result, GraphSink sink) {
+    try (PrimitiveLongSet nodes = Primitive.longSet();
+        PrimitiveLongSet relationships = Primitive.longSet()) {
+      Set<String> values = new HashSet<>();
+      while (result.hasNext()) {
+        for (Map.Entry<String, Object> entry : result.next().entrySet()) {
+          Object value = entry.getValue();
+          if (null == value) {
+            continue;
+          } else if (value instanceof PropertyContainer) {
+            emit((PropertyContainer) value, sink, nodes, relationships);
+          } else if (value instanceof Path) {
+            for (PropertyContainer container : (Path) value) {
+              emit(container, sink, nodes, relationships);
+            }
+          } else if (value instanceof Collection) {
+            for (Object thing : (Collection<?>) value) {
+              if (thing instanceof PropertyContainer) {
+                emit((PropertyContainer) thing, sink, nodes, relationships);
+              }
+            }
+          } else if (value instanceof Boolean) {
+            if (values.add(entry.getKey())) {
+              sink.value(entry.getKey(), value);
+            }
+          } else {
+            logger.warning("Not converting " + value.getClass() + " to a graph");
+          }
+        }
+      }
+    }
+  }
+
+  static void emit(PropertyContainer container, GraphSink sink, PrimitiveLongSet nodes,
+      PrimitiveLongSet relationships) {
+    if (container instanceof Node) {
+      emit((Node) container, sink, nodes);
+    } else {
+      Relationship relationship = (Relationship) container;
+      if (relationships.add(relationship.getId())) {
+        emit(relationship.getStartNode(), sink, nodes);
+        emit(relationship.getEndNode(), sink, nodes);
+        sink.edge(relationship);
+      }
+    }
+  }
+
+  static void emit(Node node, GraphSink sink, PrimitiveLongSet nodes) {
+    if (nodes.add(node.getId())) {
+      sink.node(node);
+    }
+  }
+
+}
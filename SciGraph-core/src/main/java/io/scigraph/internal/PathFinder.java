@@ -0,0 +1,278 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+
+import io.scigraph.neo4j.DirectedRelationshipType;
+
+/***
+ * Finds the shortest simple paths between two nodes.
+ *
+ * <p>
+ * A single shortest path is found by a bidirectional breadth first search that always grows the
+ * smaller of the two frontiers by one level. The k shortest simple paths are found with Yen's
+ * algorithm on top of it. Every relationship read counts against a shared expansion budget.
+ */
+final class PathFinder {
+
+  private static final long NO_PARENT = -1;
+
+  private final GraphDatabaseService graphDb;
+  private final Map<Direction, RelationshipType[]> types = new EnumMap<>(Direction.class);
+  private final int maxDepth;
+  private final int maxExpansions;
+  private int expansions = 0;
+
+  /***
+   * @param graphDb
+   * @param types
+   *          the relationships to follow, any relationship in both directions if empty
+   * @param maxDepth
+   *          the maximum length of a path
+   * @param maxExpansions
+   *          the maximum number of relationships read by the search
+   */
+  PathFinder(GraphDatabaseService graphDb, Set<DirectedRelationshipType> types, int maxDepth,
+      int maxExpansions) {
+    this.graphDb = graphDb;
+    this.maxDepth = maxDepth;
+    this.maxExpansions = maxExpansions;
+    Map<Direction, Set<RelationshipType>> byDirection = new EnumMap<>(Direction.class);
+    for (DirectedRelationshipType type : types) {
+      byDirection.computeIfAbsent(type.getDirection(), direction -> new HashSet<>())
+          .add(type.getType());
+    }
+    for (Map.Entry<Direction, Set<RelationshipType>> entry : byDirection.entrySet()) {
+      this.types.put(entry.getKey(),
+          entry.getValue().toArray(new RelationshipType[entry.getValue().size()]));
+    }
+  }
+
+  /***
+   * A path as alternating node and relationship ids.
+   */
+  static final class Route {
+
+    final long[] nodes;
+    final long[] relationships;
+
+    Route(long[] nodes, long[] relationships) {
+      this.nodes = nodes;
+      this.relationships = relationships;
+    }
+
+    int length() {
+      return relationships.length;
+    }
+
+    Route prefix(int length) {
+      return new Route(Arrays.copyOf(nodes, length + 1), Arrays.copyOf(relationships, length));
+    }
+
+    boolean startsWith(Route prefix) {
+      if (prefix.length() > length() || nodes[0] != prefix.nodes[0]) {
+        return false;
+      }
+      for (int i = 0; i < prefix.length(); i++) {
+        if (relationships[i] != prefix.relationships[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    Route append(Route suffix) {
+      long[] joinedNodes = Arrays.copyOf(nodes, nodes.length + suffix.length());
+      System.arraycopy(suffix.nodes, 1, joinedNodes, nodes.length, suffix.length());
+      long[] joinedRelationships = Arrays.copyOf(relationships, length() + suffix.length());
+      System.arraycopy(suffix.relationships, 0, joinedRelationships, length(), suffix.length());
+      return new Route(joinedNodes, joinedRelationships);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Long.hashCode(nodes[0]) + Arrays.hashCode(relationships);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Route)) {
+        return false;
+      }
+      Route other = (Route) obj;
+      return nodes[0] == other.nodes[0] && Arrays.equals(relationships, other.relationships);
+    }
+
+  }
+
+  /***
+   * @return up to k shortest simple paths from start to end, shortest first
+   * @throws TraversalBudgetExceededException
+   *           if more than maxExpansions relationships are read
+   */
+  List<Route> kShortestPaths(long start, long end, int k) {
+    List<Route> paths = new ArrayList<>();
+    Optional<Route> shortest = shortestPath(start, end, maxDepth, Collections.<Long>emptySet(),
+        Collections.<Long>emptySet());
+    if (!shortest.isPresent()) {
+      return paths;
+    }
+    paths.add(shortest.get());
+    PriorityQueue<Route> candidates = new PriorityQueue<>(Comparator.comparingInt(Route::length));
+    Set<Route> seen = new HashSet<>(paths);
+    while (paths.size() < k) {
+      Route previous = paths.get(paths.size() - 1);
+      for (int i = 0; i < previous.length(); i++) {
+        Route root = previous.prefix(i);
+        Set<Long> excludedRelationships = new HashSet<>();
+        for (Route path : paths) {
+          if (path.length() > i && path.startsWith(root)) {
+            excludedRelationships.add(path.relationships[i]);
+          }
+        }
+        Set<Long> excludedNodes = new HashSet<>();
+        for (int j = 0; j < i; j++) {
+          excludedNodes.add(root.nodes[j]);
+        }
+        Optional<Route> spur = shortestPath(previous.nodes[i], end, maxDepth - i, excludedNodes,
+            excludedRelationships);
+        if (spur.isPresent()) {
+          Route candidate = root.append(spur.get());
+          if (seen.add(candidate)) {
+            candidates.add(candidate);
+          }
+        }
+      }
+      if (candidates.isEmpty()) {
+        break;
+      }
+      paths.add(candidates.poll());
+    }
+    return paths;
+  }
+
+  /***
+   * A bidirectional breadth first search from start to end.
+   *
+   * @return the shortest path avoiding the excluded nodes and relationships, if one is at most
+   *         depth long
+   */
+  Optional<Route> shortestPath(long start, long end, int depth, Set<Long> excludedNodes,
+      Set<Long> excludedRelationships) {
+    if (start == end) {
+      return Optional.of(new Route(new long[] {start}, new long[0]));
+    }
+    Map<Long, Long> forwardParents = new HashMap<>();
+    Map<Long, Long> backwardParents = new HashMap<>();
+    forwardParents.put(start, NO_PARENT);
+    backwardParents.put(end, NO_PARENT);
+    List<Long> forwardFrontier = Collections.singletonList(start);
+    List<Long> backwardFrontier = Collections.singletonList(end);
+    for (int level = 0; level < depth; level++) {
+      if (forwardFrontier.isEmpty() || backwardFrontier.isEmpty()) {
+        break;
+      }
+      boolean forward = forwardFrontier.size() <= backwardFrontier.size();
+      Map<Long, Long> parents = forward ? forwardParents : backwardParents;
+      Map<Long, Long> otherParents = forward ? backwardParents : forwardParents;
+      List<Long> next = new ArrayList<>();
+      for (long id : forward ? forwardFrontier : backwardFrontier) {
+        for (Relationship relationship : relationships(graphDb.getNodeById(id), forward)) {
+          if (++expansions > maxExpansions) {
+            throw new TraversalBudgetExceededException(
+                format("Path search expanded more than %d relationships", maxExpansions));
+          }
+          long other = relationship.getOtherNodeId(id);
+          if (excludedRelationships.contains(relationship.getId())
+              || excludedNodes.contains(other) || parents.containsKey(other)) {
+            continue;
+          }
+          parents.put(other, relationship.getId());
+          if (otherParents.containsKey(other)) {
+            return Optional.of(join(start, other, end, forwardParents, backwardParents));
+          }
+          next.add(other);
+        }
+      }
+      if (forward) {
+        forwardFrontier = next;
+      } else {
+        backwardFrontier = next;
+      }
+    }
+    return Optional.empty();
+  }
+
+  Iterable<Relationship> relationships(Node node, boolean forward) {
+    if (types.isEmpty()) {
+      return node.getRelationships(Direction.BOTH);
+    }
+    List<Relationship> relationships = new ArrayList<>();
+    for (Map.Entry<Direction, RelationshipType[]> entry : types.entrySet()) {
+      Direction direction = forward ? entry.getKey() : entry.getKey().reverse();
+      for (Relationship relationship : node.getRelationships(direction, entry.getValue())) {
+        relationships.add(relationship);
+      }
+    }
+    return relationships;
+  }
+
+  Route join(long start, long meeting, long end, Map<Long, Long> forwardParents,
+      Map<Long, Long> backwardParents) {
+    List<Long> nodes = new ArrayList<>();
+    List<Long> relationships = new ArrayList<>();
+    long node = meeting;
+    nodes.add(node);
+    while (node != start) {
+      Relationship relationship = graphDb.getRelationshipById(forwardParents.get(node));
+      relationships.add(relationship.getId());
+      node = relationship.getOtherNodeId(node);
+      nodes.add(node);
+    }
+    Collections.reverse(nodes);
+    Collections.reverse(relationships);
+    node = meeting;
+    while (node != end) {
+      Relationship relationship = graphDb.getRelationshipById(backwardParents.get(node));
+      relationships.add(relationship.getId());
+      node = relationship.getOtherNodeId(node);
+      nodes.add(node);
+    }
+    return new Route(nodes.stream().mapToLong(Long::longValue).toArray(),
+        relationships.stream().mapToLong(Long::longValue).toArray());
+  }
+
+}
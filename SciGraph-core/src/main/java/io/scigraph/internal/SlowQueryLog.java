@@ -0,0 +1,443 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.neo4j.graphdb.ExecutionPlanDescription;
+import org.neo4j.graphdb.Notification;
+import org.neo4j.graphdb.QueryExecutionType;
+import org.neo4j.graphdb.QueryStatistics;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Result;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/***
+ * Records slow Cypher queries.
+ *
+ * <p>
+ * Results are wrapped so that the rows they return and the time spent executing them can be
+ * measured. Only the time spent in the result counts: a caller streaming rows to a slow client
+ * does not make its query slow. Queries slower than the threshold are kept in a bounded in
+ * memory ring and logged as JSON to the {@link #LOGGER_NAME} logger, which can be sent to its
+ * own file.
+ * Queries slower than the plan threshold also get their execution plan recorded and the next
+ * run of the same query is profiled, so that its plan comes with rows and db hits per operator.
+ * The default instance records nothing.
+ */
+public class SlowQueryLog {
+
+  private static final Logger logger = Logger.getLogger(SlowQueryLog.class.getName());
+
+  /*** Slow queries are logged to this logger, one JSON object per entry */
+  public static final String LOGGER_NAME = "io.scigraph.slowQueries";
+
+  private static final Logger queryLogger = Logger.getLogger(LOGGER_NAME);
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  static final int MAX_PENDING_PROFILES = 1_000;
+
+  private final long threshold;
+  private final long planThreshold;
+  private final int capacity;
+  private final Deque<SlowQuery> entries = new ArrayDeque<>();
+  /*** Queries whose next run is profiled */
+  private final Cache<String, Boolean> pendingProfiles =
+      CacheBuilder.newBuilder().maximumSize(MAX_PENDING_PROFILES).build();
+
+  public SlowQueryLog() {
+    this(Long.MAX_VALUE, Long.MAX_VALUE, 0);
+  }
+
+  /***
+   * @param threshold
+   *          queries slower than this, in milliseconds, are recorded
+   * @param planThreshold
+   *          queries slower than this, in milliseconds, also have their plan recorded
+   * @param capacity
+   *          the number of entries kept in memory
+   */
+  public SlowQueryLog(long threshold, long planThreshold, int capacity) {
+    this.threshold = threshold;
+    this.planThreshold = planThreshold;
+    this.capacity = capacity;
+  }
+
+  public boolean isEnabled() {
+    return threshold < Long.MAX_VALUE;
+  }
+
+  /***
+   * @param query
+   *          a resolved query
+   * @return the query to run, profiled if its last run was slow
+   */
+  String prepare(String query) {
+    if (null == pendingProfiles.getIfPresent(query) || hasPrefix(query)) {
+      return query;
+    }
+    pendingProfiles.invalidate(query);
+    return "PROFILE " + query;
+  }
+
+  static boolean hasPrefix(String query) {
+    String start = query.trim().toUpperCase(Locale.ROOT);
+    return start.startsWith("PROFILE") || start.startsWith("EXPLAIN")
+        || start.startsWith("CYPHER");
+  }
+
+  /***
+   * @param result
+   *          the result of query
+   * @param query
+   *          the resolved query
+   * @param parameters
+   * @param start
+   *          when the query was started, from {@link System#nanoTime()}
+   * @return a result recording the query once it is exhausted or closed
+   */
+  Result wrap(Result result, String query, Map<String, Object> parameters, long start) {
+    return isEnabled() ? new RecordingResult(result, query, parameters, System.nanoTime() - start)
+        : result;
+  }
+
+  /***
+   * @param executing
+   *          the time spent executing the query, in nanoseconds
+   */
+  void complete(Result result, String query, Map<String, Object> parameters, long executing,
+      long rows) {
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(executing);
+    if (elapsed <= threshold) {
+      return;
+    }
+    String plan = null;
+    long dbHits = -1;
+    if (elapsed > planThreshold) {
+      try {
+        ExecutionPlanDescription description = result.getExecutionPlanDescription();
+        StringBuilder builder = new StringBuilder();
+        dbHits = describe(description, 0, builder);
+        plan = builder.toString();
+        if (!description.hasProfilerStatistics()) {
+          pendingProfiles.put(query, true);
+        }
+      } catch (RuntimeException e) {
+        logger.log(Level.FINE, "Failed to describe the plan of a slow query", e);
+      }
+    }
+    record(new SlowQuery(System.currentTimeMillis(), query, parameters, rows, elapsed, dbHits,
+        plan));
+  }
+
+  /***
+   * Append a line per operator of description.
+   *
+   * @return the total db hits of the plan, -1 if it was not profiled
+   */
+  static long describe(ExecutionPlanDescription description, int depth, StringBuilder builder) {
+    for (int i = 0; i < depth; i++) {
+      builder.append("  ");
+    }
+    builder.append(description.getName());
+    long dbHits = -1;
+    if (description.hasProfilerStatistics()) {
+      ExecutionPlanDescription.ProfilerStatistics statistics = description.getProfilerStatistics();
+      builder.append(" rows=").append(statistics.getRows())
+          .append(" dbHits=").append(statistics.getDbHits());
+      dbHits = statistics.getDbHits();
+    } else if (description.getArguments().containsKey("EstimatedRows")) {
+      builder.append(" estimatedRows=").append(description.getArguments().get("EstimatedRows"));
+    }
+    builder.append('\n');
+    for (ExecutionPlanDescription child : description.getChildren()) {
+      long childHits = describe(child, depth + 1, builder);
+      if (dbHits >= 0 && childHits >= 0) {
+        dbHits += childHits;
+      }
+    }
+    return dbHits;
+  }
+
+  void record(SlowQuery entry) {
+    synchronized (entries) {
+      entries.addLast(entry);
+      while (entries.size() > capacity) {
+        entries.removeFirst();
+      }
+    }
+    try {
+      queryLogger.warning(MAPPER.writeValueAsString(entry));
+    } catch (JsonProcessingException e) {
+      logger.log(Level.WARNING, "Failed to log a slow query", e);
+    }
+  }
+
+  /***
+   * @return the recorded slow queries, oldest first
+   */
+  public List<SlowQuery> getEntries() {
+    synchronized (entries) {
+      return new ArrayList<>(entries);
+    }
+  }
+
+  /***
+   * A slow query.
+   */
+  public static final class SlowQuery {
+
+    private final long timestamp;
+    private final String query;
+    private final Map<String, Object> parameters;
+    private final long rows;
+    private final long elapsed;
+    private final long dbHits;
+    private final String plan;
+
+    SlowQuery(long timestamp, String query, Map<String, Object> parameters, long rows,
+        long elapsed, long dbHits, String plan) {
+      this.timestamp = timestamp;
+      this.query = query;
+      this.parameters = new HashMap<>();
+      for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+        this.parameters.put(parameter.getKey(), String.valueOf(parameter.getValue()));
+      }
+      this.rows = rows;
+      this.elapsed = elapsed;
+      this.dbHits = dbHits;
+      this.plan = plan;
+    }
+
+    public long getTimestamp() {
+      return timestamp;
+    }
+
+    public String getQuery() {
+      return query;
+    }
+
+    public Map<String, Object> getParameters() {
+      return Collections.unmodifiableMap(parameters);
+    }
+
+    /*** @return the rows returned, -1 if they were not counted */
+    public long getRows() {
+      return rows;
+    }
+
+    /*** @return the elapsed time in milliseconds */
+    public long getElapsed() {
+      return elapsed;
+    }
+
+    /*** @return the db hits of a profiled query, -1 otherwise */
+    public long getDbHits() {
+      return dbHits;
+    }
+
+    /*** @return the execution plan, null if it was not recorded */
+    public String getPlan() {
+      return plan;
+    }
+
+  }
+
+  /***
+   * Counts the rows of a result, times the calls to it and records its query once it is exhausted
+   * or closed.
+   */
+  private final class RecordingResult implements Result {
+
+    private final Result delegate;
+    private final String query;
+    private final Map<String, Object> parameters;
+    private final AtomicBoolean completed = new AtomicBoolean();
+    /*** Nanoseconds spent in the delegate */
+    private long executing;
+    private long rows;
+    private boolean counted = true;
+
+    RecordingResult(Result delegate, String query, Map<String, Object> parameters,
+        long executing) {
+      this.delegate = delegate;
+      this.query = query;
+      this.parameters = parameters;
+      this.executing = executing;
+    }
+
+    void complete() {
+      if (completed.compareAndSet(false, true)) {
+        SlowQueryLog.this.complete(delegate, query, parameters, executing, counted ? rows : -1);
+      }
+    }
+
+    @Override
+    public QueryExecutionType getQueryExecutionType() {
+      return delegate.getQueryExecutionType();
+    }
+
+    @Override
+    public List<String> columns() {
+      return delegate.columns();
+    }
+
+    @Override
+    public <T> ResourceIterator<T> columnAs(String name) {
+      counted = false;
+      return delegate.columnAs(name);
+    }
+
+    @Override
+    public boolean hasNext() {
+      long start = System.nanoTime();
+      boolean hasNext = delegate.hasNext();
+      executing += System.nanoTime() - start;
+      if (!hasNext) {
+        complete();
+      }
+      return hasNext;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+      long start = System.nanoTime();
+      Map<String, Object> row = delegate.next();
+      executing += System.nanoTime() - start;
+      rows++;
+      return row;
+    }
+
+    @Override
+    public void close() {
+      complete();
+      delegate.close();
+    }
+
+    @Override
+    public QueryStatistics getQueryStatistics() {
+      return delegate.getQueryStatistics();
+    }
+
+    @Override
+    public ExecutionPlanDescription getExecutionPlanDescription() {
+      return delegate.getExecutionPlanDescription();
+    }
+
+    @Override
+    public String resultAsString() {
+      counted = false;
+      long start = System.nanoTime();
+      String result = delegate.resultAsString();
+      executing += System.nanoTime() - start;
+      complete();
+      return result;
+    }
+
+    @Override
+    public void writeAsStringTo(PrintWriter writer) {
+      counted = false;
+      TimedWriter timedWriter = new TimedWriter(writer);
+      long start = System.nanoTime();
+      delegate.writeAsStringTo(new PrintWriter(timedWriter));
+      executing += System.nanoTime() - start - timedWriter.writing;
+      complete();
+    }
+
+    @Override
+    public void remove() {
+      delegate.remove();
+    }
+
+    @Override
+    public Iterable<Notification> getNotifications() {
+      return delegate.getNotifications();
+    }
+
+    @Override
+    public <VisitationException extends Exception> void accept(
+        ResultVisitor<VisitationException> visitor) throws VisitationException {
+      long[] visiting = new long[1];
+      long start = System.nanoTime();
+      delegate.accept(row -> {
+        rows++;
+        long visitStart = System.nanoTime();
+        try {
+          return visitor.visit(row);
+        } finally {
+          visiting[0] += System.nanoTime() - visitStart;
+        }
+      });
+      executing += System.nanoTime() - start - visiting[0];
+      complete();
+    }
+
+  }
+
+  /***
+   * Times the writes to a writer, so that they can be told apart from the query execution.
+   */
+  private static final class TimedWriter extends Writer {
+
+    private final Writer delegate;
+    /*** Nanoseconds spent in the delegate */
+    private long writing;
+
+    TimedWriter(Writer delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+      long start = System.nanoTime();
+      delegate.write(buffer, offset, length);
+      writing += System.nanoTime() - start;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      long start = System.nanoTime();
+      delegate.flush();
+      writing += System.nanoTime() - start;
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+
+  }
+
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.PathExpander;
+import org.neo4j.graphdb.PathExpanderBuilder;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.traversal.BranchState;
+
+import com.google.common.collect.Iterables;
+
+import io.scigraph.neo4j.DirectedRelationshipType;
+
+/***
+ * Decides how traversals expand high degree nodes ("supernodes").
+ *
+ * <p>
+ * The degree of a node only counts the relationships the traversal follows. It is read from
+ * Neo4j's per type and direction relationship counts, so it is cheap even for dense nodes. Nodes
+ * whose degree is above the threshold are either skipped, sampled (the first relationships
+ * in store order, which keeps results stable) or only expanded along a restricted set of
+ * relationship types. Traversal roots are never skipped.
+ */
+public final class SupernodePolicy {
+
+  /*** How supernodes are expanded */
+  public enum Behaviour {
+    /*** Expand supernodes like any other node */
+    EXPAND,
+    /*** Do not expand supernodes */
+    SKIP,
+    /*** Only expand a fixed number of relationships of supernodes */
+    SAMPLE,
+    /*** Only expand supernodes along some relationship types */
+    TYPED
+  }
+
+  /*** Expands every node fully */
+  public static final SupernodePolicy NONE =
+      new SupernodePolicy(Behaviour.EXPAND, Integer.MAX_VALUE, 0,
+          Collections.<DirectedRelationshipType>emptySet());
+
+  private final Behaviour behaviour;
+  private final int threshold;
+  private final int sampleSize;
+  private final Set<DirectedRelationshipType> supernodeTypes;
+
+  /***
+   * @param behaviour
+   * @param threshold
+   *          nodes with more relationships than this are supernodes
+   * @param sampleSize
+   *          the number of relationships expanded by {@link Behaviour#SAMPLE}
+   * @param supernodeTypes
+   *          the relationships expanded by {@link Behaviour#TYPED}
+   */
+  public SupernodePolicy(Behaviour behaviour, int threshold, int sampleSize,
+      Set<DirectedRelationshipType> supernodeTypes) {
+    checkArgument(threshold >= 0, "The supernode threshold must not be negative");
+    checkArgument(behaviour != Behaviour.SAMPLE || sampleSize > 0,
+        "The supernode sample size must be positive");
+    this.behaviour = behaviour;
+    this.threshold = threshold;
+    this.sampleSize = sampleSize;
+    this.supernodeTypes = supernodeTypes;
+  }
+
+  public boolean isActive() {
+    return behaviour != Behaviour.EXPAND;
+  }
+
+  /***
+   * @return the number of relationships of node that a traversal along types would follow
+   */
+  static int degree(Node node, Set<DirectedRelationshipType> types) {
+    if (types.isEmpty()) {
+      return node.getDegree();
+    }
+    long degree = 0;
+    for (DirectedRelationshipType type : types) {
+      degree += node.getDegree(type.getType(), type.getDirection());
+    }
+    return (int) Math.min(Integer.MAX_VALUE, degree);
+  }
+
+  static Set<DirectedRelationshipType> reverse(Set<DirectedRelationshipType> types) {
+    Set<DirectedRelationshipType> reversed = new HashSet<>();
+    for (DirectedRelationshipType type : types) {
+      reversed.add(new DirectedRelationshipType(type.getType(), type.getDirection().reverse()));
+    }
+    return reversed;
+  }
+
+  static <STATE> PathExpander<STATE> expander(Set<DirectedRelationshipType> types) {
+    if (types.isEmpty()) {
+      return PathExpanderBuilder.allTypesAndDirections().build();
+    }
+    PathExpanderBuilder builder = PathExpanderBuilder.empty();
+    for (DirectedRelationshipType type : types) {
+      builder = builder.add(type.getType(), type.getDirection());
+    }
+    return builder.build();
+  }
+
+  /***
+   * @param types
+   *          the relationships followed by the traversal, all of them if empty
+   * @return an expander applying this policy
+   */
+  <STATE> PathExpander<STATE> getExpander(Set<DirectedRelationshipType> types) {
+    return new DegreeAwareExpander<>(types, SupernodePolicy.<STATE>expander(types),
+        SupernodePolicy.<STATE>expander(supernodeTypes));
+  }
+
+  private final class DegreeAwareExpander<STATE> implements PathExpander<STATE> {
+
+    private final Set<DirectedRelationshipType> types;
+    private final PathExpander<STATE> expander;
+    private final PathExpander<STATE> supernodeExpander;
+
+    DegreeAwareExpander(Set<DirectedRelationshipType> types, PathExpander<STATE> expander,
+        PathExpander<STATE> supernodeExpander) {
+      this.types = types;
+      this.expander = expander;
+      this.supernodeExpander = supernodeExpander;
+    }
+
+    @Override
+    public Iterable<Relationship> expand(Path path, BranchState<STATE> state) {
+      if (degree(path.endNode(), types) <= threshold) {
+        return expander.expand(path, state);
+      }
+      switch (behaviour) {
+        case SAMPLE:
+          return Iterables.limit(expander.expand(path, state), sampleSize);
+        case TYPED:
+          if (!supernodeTypes.isEmpty()) {
+            return supernodeExpander.expand(path, state);
+          }
+          // fall through: there is nothing to follow
+        case SKIP:
+          return (path.length() == 0) ? expander.expand(path, state)
+              : Collections.<Relationship>emptyList();
+        default:
+          return expander.expand(path, state);
+      }
+    }
+
+    @Override
+    public PathExpander<STATE> reverse() {
+      return new DegreeAwareExpander<>(SupernodePolicy.reverse(types), expander.reverse(),
+          supernodeExpander.reverse());
+    }
+
+  }
+
+}
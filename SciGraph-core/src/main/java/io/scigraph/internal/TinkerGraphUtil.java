@@ -22,14 +22,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Logger;
 
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
-import org.neo4j.graphdb.Path;
 import org.neo4j.graphdb.PropertyContainer;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.Result;
@@ -50,7 +48,7 @@ import io.scigraph.frames.NodeProperties;
 /***
  * Utilities for building TinkerGraphs from Neo4j objects
  */
-public class TinkerGraphUtil {
+public class TinkerGraphUtil implements GraphSink {
 
   static final Logger logger = Logger.getLogger(TinkerGraphUtil.class.getName());
 
@@ -100,6 +98,16 @@ public class TinkerGraphUtil {
     }
   }
 
+  @Override
+  public void node(Node node) {
+    addNode(node);
+  }
+
+  @Override
+  public void edge(Relationship relationship) {
+    addEdge(relationship);
+  }
+
   Vertex addNode(Node node) {
     Vertex vertex = graph.getVertex(node.getId());
     if (null == vertex) {
@@ -214,39 +222,21 @@ public class TinkerGraphUtil {
 
   public Graph resultToGraph(Result result) {
     graph = new TinkerGraph();
-    while (result.hasNext()) {
-      Map<String, Object> map = result.next();
-      for (Map.Entry<String, Object> entry : map.entrySet()) {
-        Object value = entry.getValue();
-        String key = entry.getKey();
-        if (null == value) {
-          continue;
-        } else if (value instanceof PropertyContainer) {
-          addElement((PropertyContainer) value);
-        } else if (value instanceof Path) {
-          for (PropertyContainer container : (Path) value) {
-            addElement(container);
-          }
-        } else if (value instanceof ArrayList) {
-          for (Object thing : (ArrayList<?>) value) {
-            if (thing instanceof PropertyContainer) {
-              addElement((PropertyContainer) thing);
-            }
-          }
-        } else if (value instanceof Boolean) {
-          // generates a lonely node which contains the result
-          Vertex vertex = graph.addVertex(key);
-          vertex.setProperty(key, value);
-          vertex.setProperty(NodeProperties.LABEL, "Boolean result");
-          vertex.setProperty(CommonProperties.IRI, key);
-        } else {
-          logger.warning("Not converting " + value.getClass() + " to tinker graph");
-        }
-      }
-    }
+    GraphSinks.emit(result, this);
     return graph;
   }
 
+  /***
+   * Add a lonely node holding a result value.
+   */
+  @Override
+  public void value(String key, Object value) {
+    Vertex vertex = graph.addVertex(key);
+    vertex.setProperty(key, value);
+    vertex.setProperty(NodeProperties.LABEL, "Boolean result");
+    vertex.setProperty(CommonProperties.IRI, key);
+  }
+
   static public <T> Optional<T> getProperty(Element container, String property, Class<T> type) {
     Optional<T> value = Optional.<T>empty();
     if (container.getPropertyKeys().contains(property)) {
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/***
+ * Bounds the work done by a single traversal.
+ *
+ * <p>
+ * A budget caps the number of relationships expanded, the number of nodes returned and the
+ * wall clock time spent. Traversals stop early once any of these is exhausted and the budget
+ * remembers which limit was hit first so that callers can mark the result as truncated. A
+ * budget is safe to share between the workers of a parallel traversal.
+ */
+public final class TraversalBudget {
+
+  /*** The limits of a budget */
+  public enum Limit {
+    RELATIONSHIPS, NODES, DEADLINE
+  }
+
+  /*** Longer timeouts are treated as no timeout */
+  static final long MAX_TIMEOUT = TimeUnit.DAYS.toMillis(365);
+
+  private final long maxRelationships;
+  private final long maxNodes;
+  private final boolean timed;
+  private final long deadline;
+  private final AtomicLong relationships = new AtomicLong();
+  private final AtomicLong nodes = new AtomicLong();
+  private volatile Limit exceeded;
+
+  /***
+   * @param maxRelationships
+   *          the maximum number of relationships expanded
+   * @param maxNodes
+   *          the maximum number of nodes returned
+   * @param timeout
+   *          the maximum time spent in milliseconds, starting now
+   */
+  public TraversalBudget(long maxRelationships, long maxNodes, long timeout) {
+    this.maxRelationships = maxRelationships;
+    this.maxNodes = maxNodes;
+    this.timed = timeout <= MAX_TIMEOUT;
+    this.deadline = timed ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0;
+  }
+
+  public static TraversalBudget unlimited() {
+    return new TraversalBudget(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+  }
+
+  /***
+   * Charge the expansion of one relationship.
+   *
+   * @return false if the budget is exhausted and the relationship should not be followed
+   */
+  public boolean expand() {
+    if (null != exceeded) {
+      return false;
+    } else if (relationships.incrementAndGet() > maxRelationships) {
+      return exceed(Limit.RELATIONSHIPS);
+    } else if (timed && System.nanoTime() - deadline > 0) {
+      return exceed(Limit.DEADLINE);
+    }
+    return true;
+  }
+
+  /***
+   * Charge newly returned nodes.
+   *
+   * @return false if the nodes do not fit in the budget and should not be returned
+   */
+  public boolean addNodes(int count) {
+    if (null != exceeded) {
+      return false;
+    } else if (nodes.addAndGet(count) > maxNodes) {
+      nodes.addAndGet(-count);
+      return exceed(Limit.NODES);
+    }
+    return true;
+  }
+
+  private synchronized boolean exceed(Limit limit) {
+    if (null == exceeded) {
+      exceeded = limit;
+    }
+    return false;
+  }
+
+  public boolean isExhausted() {
+    return null != exceeded;
+  }
+
+  /***
+   * @return the first limit that was exceeded, if any
+   */
+  public Optional<Limit> getExceededLimit() {
+    return Optional.ofNullable(exceeded);
+  }
+
+  public long getExpandedRelationships() {
+    return Math.min(relationships.get(), maxRelationships);
+  }
+
+  public long getNodes() {
+    return nodes.get();
+  }
+
+}
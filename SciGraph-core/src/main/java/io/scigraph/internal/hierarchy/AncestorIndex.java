@@ -0,0 +1,427 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal.hierarchy;
+
+import static java.lang.String.format;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+
+/***
+ * An immutable ancestor index over the hierarchy formed by one relationship type.
+ *
+ * <p>
+ * Relationships are read as <em>child -[type]-&gt; parent</em> (ie: subClassOf). Cycles are
+ * collapsed into their strongly connected component and every component is numbered in the post
+ * order of a depth first traversal towards the children. The descendants of a component are then
+ * stored as a short list of disjoint intervals of those numbers: a single interval for a tree and
+ * a few more for each additional parent. {@link #isAncestor(long, long)} is a binary search in
+ * that list and {@link #descendants(long)} enumerates it.
+ */
+@ThreadSafe
+public final class AncestorIndex {
+
+  private static final Logger logger = Logger.getLogger(AncestorIndex.class.getName());
+
+  private static final long[] EMPTY = new long[0];
+
+  private final RelationshipType type;
+
+  /*** Sorted ids of the nodes taking part in the hierarchy */
+  private final long[] nodeIds;
+  /*** Component of each node */
+  private final int[] component;
+  /*** Members of each component, as indices into nodeIds */
+  private final int[] memberStart;
+  private final int[] members;
+  /*** Flattened, sorted and disjoint [low, high] component intervals of each component */
+  private final int[][] intervals;
+  /*** Whether a component contains a cycle (and is therefore its own descendant) */
+  private final boolean[] cyclic;
+  /*** Shortest distance of each node to a node without parent */
+  private final int[] depth;
+
+  private AncestorIndex(RelationshipType type, long[] nodeIds, int[] component, int[] memberStart,
+      int[] members, int[][] intervals, boolean[] cyclic, int[] depth) {
+    this.type = type;
+    this.nodeIds = nodeIds;
+    this.component = component;
+    this.memberStart = memberStart;
+    this.members = members;
+    this.intervals = intervals;
+    this.cyclic = cyclic;
+    this.depth = depth;
+  }
+
+  /***
+   * Read every relationship of type and build the index.
+   *
+   * @param graphDb
+   * @param type
+   *          a relationship type pointing from child to parent
+   * @return the index
+   */
+  public static AncestorIndex build(GraphDatabaseService graphDb, RelationshipType type) {
+    long startTime = System.currentTimeMillis();
+    long[] children = new long[1024];
+    long[] parents = new long[1024];
+    int edgeCount = 0;
+    try (Transaction tx = graphDb.beginTx()) {
+      for (Relationship relationship : graphDb.getAllRelationships()) {
+        if (relationship.isType(type)) {
+          if (edgeCount == children.length) {
+            children = Arrays.copyOf(children, edgeCount * 2);
+            parents = Arrays.copyOf(parents, edgeCount * 2);
+          }
+          children[edgeCount] = relationship.getStartNodeId();
+          parents[edgeCount] = relationship.getEndNodeId();
+          edgeCount++;
+        }
+      }
+      tx.success();
+    }
+    AncestorIndex index = build(type, Arrays.copyOf(children, edgeCount),
+        Arrays.copyOf(parents, edgeCount));
+    logger.info(format("Built the %s ancestor index over %d nodes in %d ms", type.name(),
+        index.size(), System.currentTimeMillis() - startTime));
+    return index;
+  }
+
+  /***
+   * @param type
+   * @param children
+   *          the start node ids of the hierarchy relationships
+   * @param parents
+   *          the end node ids of the hierarchy relationships
+   * @return the index
+   */
+  static AncestorIndex build(RelationshipType type, long[] children, long[] parents) {
+    long[] nodeIds = distinct(children, parents);
+    int n = nodeIds.length;
+    int edgeCount = children.length;
+
+    // parent -> children adjacency
+    int[] childStart = new int[n + 1];
+    int[] child = new int[edgeCount];
+    int[] parent = new int[edgeCount];
+    for (int e = 0; e < edgeCount; e++) {
+      child[e] = Arrays.binarySearch(nodeIds, children[e]);
+      parent[e] = Arrays.binarySearch(nodeIds, parents[e]);
+      childStart[parent[e] + 1]++;
+    }
+    for (int v = 0; v < n; v++) {
+      childStart[v + 1] += childStart[v];
+    }
+    int[] childList = new int[edgeCount];
+    int[] fill = Arrays.copyOf(childStart, n);
+    for (int e = 0; e < edgeCount; e++) {
+      childList[fill[parent[e]]++] = child[e];
+    }
+
+    int[] depth = depths(childStart, childList, child);
+
+    // Tarjan's components are numbered in post order: descendants always come first
+    int[] component = new int[n];
+    int componentCount = stronglyConnectedComponents(childStart, childList, component);
+
+    boolean[] cyclic = new boolean[componentCount];
+    int[] memberStart = new int[componentCount + 1];
+    for (int v = 0; v < n; v++) {
+      memberStart[component[v] + 1]++;
+    }
+    for (int c = 0; c < componentCount; c++) {
+      memberStart[c + 1] += memberStart[c];
+      cyclic[c] = memberStart[c + 1] - memberStart[c] > 1;
+    }
+    int[] members = new int[n];
+    fill = Arrays.copyOf(memberStart, componentCount);
+    for (int v = 0; v < n; v++) {
+      members[fill[component[v]]++] = v;
+    }
+
+    // component -> child components adjacency
+    int[] componentChildStart = new int[componentCount + 1];
+    for (int e = 0; e < edgeCount; e++) {
+      if (component[parent[e]] != component[child[e]]) {
+        componentChildStart[component[parent[e]] + 1]++;
+      } else if (parent[e] == child[e]) {
+        cyclic[component[parent[e]]] = true;
+      }
+    }
+    for (int c = 0; c < componentCount; c++) {
+      componentChildStart[c + 1] += componentChildStart[c];
+    }
+    int[] componentChildren = new int[componentChildStart[componentCount]];
+    fill = Arrays.copyOf(componentChildStart, componentCount);
+    for (int e = 0; e < edgeCount; e++) {
+      if (component[parent[e]] != component[child[e]]) {
+        componentChildren[fill[component[parent[e]]]++] = component[child[e]];
+      }
+    }
+
+    int[][] intervals = new int[componentCount][];
+    for (int c = 0; c < componentCount; c++) {
+      int size = 1;
+      for (int i = componentChildStart[c]; i < componentChildStart[c + 1]; i++) {
+        size += intervals[componentChildren[i]].length / 2;
+      }
+      long[] packed = new long[size];
+      int count = 0;
+      packed[count++] = pack(c, c);
+      for (int i = componentChildStart[c]; i < componentChildStart[c + 1]; i++) {
+        int[] childIntervals = intervals[componentChildren[i]];
+        for (int j = 0; j < childIntervals.length; j += 2) {
+          packed[count++] = pack(childIntervals[j], childIntervals[j + 1]);
+        }
+      }
+      intervals[c] = coalesce(packed);
+    }
+
+    return new AncestorIndex(type, nodeIds, component, memberStart, members, intervals, cyclic,
+        depth);
+  }
+
+  /***
+   * A breadth first search from every node without parent.
+   *
+   * @return the depth of each node, -1 for nodes only reachable from a cycle
+   */
+  static int[] depths(int[] childStart, int[] childList, int[] child) {
+    int n = childStart.length - 1;
+    int[] depth = new int[n];
+    Arrays.fill(depth, -1);
+    boolean[] hasParent = new boolean[n];
+    for (int c : child) {
+      hasParent[c] = true;
+    }
+    int[] queue = new int[n];
+    int head = 0, tail = 0;
+    for (int v = 0; v < n; v++) {
+      if (!hasParent[v]) {
+        depth[v] = 0;
+        queue[tail++] = v;
+      }
+    }
+    while (head < tail) {
+      int v = queue[head++];
+      for (int i = childStart[v]; i < childStart[v + 1]; i++) {
+        int w = childList[i];
+        if (depth[w] == -1) {
+          depth[w] = depth[v] + 1;
+          queue[tail++] = w;
+        }
+      }
+    }
+    return depth;
+  }
+
+  static long[] distinct(long[] a, long[] b) {
+    long[] all = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, all, a.length, b.length);
+    Arrays.sort(all);
+    int size = 0;
+    for (int i = 0; i < all.length; i++) {
+      if (0 == size || all[size - 1] != all[i]) {
+        all[size++] = all[i];
+      }
+    }
+    return Arrays.copyOf(all, size);
+  }
+
+  /***
+   * An iterative version of Tarjan's algorithm.
+   *
+   * @return the number of components
+   */
+  static int stronglyConnectedComponents(int[] start, int[] adjacency, int[] component) {
+    int n = component.length;
+    int[] index = new int[n];
+    int[] low = new int[n];
+    int[] stack = new int[n];
+    int[] callStack = new int[n];
+    int[] position = new int[n];
+    boolean[] onStack = new boolean[n];
+    Arrays.fill(index, -1);
+    int counter = 0, componentCount = 0, stackSize = 0;
+    for (int root = 0; root < n; root++) {
+      if (index[root] != -1) {
+        continue;
+      }
+      int callSize = 0;
+      index[root] = low[root] = counter++;
+      stack[stackSize++] = root;
+      onStack[root] = true;
+      callStack[callSize++] = root;
+      position[root] = start[root];
+      while (callSize > 0) {
+        int v = callStack[callSize - 1];
+        if (position[v] < start[v + 1]) {
+          int w = adjacency[position[v]++];
+          if (index[w] == -1) {
+            index[w] = low[w] = counter++;
+            stack[stackSize++] = w;
+            onStack[w] = true;
+            callStack[callSize++] = w;
+            position[w] = start[w];
+          } else if (onStack[w]) {
+            low[v] = Math.min(low[v], index[w]);
+          }
+        } else {
+          callSize--;
+          if (callSize > 0) {
+            int u = callStack[callSize - 1];
+            low[u] = Math.min(low[u], low[v]);
+          }
+          if (low[v] == index[v]) {
+            int w;
+            do {
+              w = stack[--stackSize];
+              onStack[w] = false;
+              component[w] = componentCount;
+            } while (w != v);
+            componentCount++;
+          }
+        }
+      }
+    }
+    return componentCount;
+  }
+
+  private static long pack(int low, int high) {
+    return ((long) low << 32) | high;
+  }
+
+  /***
+   * @param packed
+   *          [low, high] intervals packed as longs
+   * @return the sorted, merged intervals flattened into low, high pairs
+   */
+  static int[] coalesce(long[] packed) {
+    Arrays.sort(packed);
+    int[] merged = new int[packed.length * 2];
+    int size = 0;
+    for (long interval : packed) {
+      int low = (int) (interval >>> 32);
+      int high = (int) interval;
+      if (size > 0 && low <= merged[size - 1] + 1) {
+        merged[size - 1] = Math.max(merged[size - 1], high);
+      } else {
+        merged[size++] = low;
+        merged[size++] = high;
+      }
+    }
+    return Arrays.copyOf(merged, size);
+  }
+
+  static boolean contains(int[] intervals, int value) {
+    int low = 0, high = intervals.length / 2 - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (intervals[2 * middle + 1] < value) {
+        low = middle + 1;
+      } else if (intervals[2 * middle] > value) {
+        high = middle - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public RelationshipType getRelationshipType() {
+    return type;
+  }
+
+  /***
+   * @return the number of nodes taking part in the hierarchy
+   */
+  public int size() {
+    return nodeIds.length;
+  }
+
+  public boolean contains(long nodeId) {
+    return Arrays.binarySearch(nodeIds, nodeId) >= 0;
+  }
+
+  /***
+   * @param ancestor
+   * @param descendant
+   * @return true if descendant reaches ancestor through one or more relationships
+   */
+  public boolean isAncestor(long ancestor, long descendant) {
+    int a = Arrays.binarySearch(nodeIds, ancestor);
+    int d = Arrays.binarySearch(nodeIds, descendant);
+    if (a < 0 || d < 0) {
+      return false;
+    }
+    int ancestorComponent = component[a];
+    int descendantComponent = component[d];
+    if (ancestorComponent == descendantComponent) {
+      return cyclic[ancestorComponent];
+    }
+    return contains(intervals[ancestorComponent], descendantComponent);
+  }
+
+  /***
+   * @param nodeId
+   * @return the number of relationships between nodeId and its closest root, 0 for nodes outside
+   *         of the hierarchy and -1 for nodes whose ancestors all sit in a cycle
+   */
+  public int depth(long nodeId) {
+    int v = Arrays.binarySearch(nodeIds, nodeId);
+    return (v < 0) ? 0 : depth[v];
+  }
+
+  /***
+   * @param nodeId
+   * @return the sorted ids of the nodes reaching nodeId through one or more relationships
+   */
+  public long[] descendants(long nodeId) {
+    int v = Arrays.binarySearch(nodeIds, nodeId);
+    if (v < 0) {
+      return EMPTY;
+    }
+    int own = component[v];
+    int[] ranges = intervals[own];
+    int size = 0;
+    for (int i = 0; i < ranges.length; i += 2) {
+      size += memberStart[ranges[i + 1] + 1] - memberStart[ranges[i]];
+    }
+    long[] descendants = new long[size];
+    size = 0;
+    for (int i = 0; i < ranges.length; i += 2) {
+      for (int c = ranges[i]; c <= ranges[i + 1]; c++) {
+        if (c == own && !cyclic[c]) {
+          continue;
+        }
+        for (int m = memberStart[c]; m < memberStart[c + 1]; m++) {
+          descendants[size++] = nodeIds[members[m]];
+        }
+      }
+    }
+    descendants = Arrays.copyOf(descendants, size);
+    Arrays.sort(descendants);
+    return descendants;
+  }
+
+}
@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal.hierarchy;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.lang.String.format;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/***
+ * A read only, in memory view of the hierarchies formed by a configured set of child to parent
+ * relationship types (ie: subClassOf, subPropertyOf).
+ *
+ * <p>
+ * All hierarchies are read with a single pass over the relationships when the cache is
+ * {@link #load() loaded}. Queries for a type that is not cached return an empty result so callers
+ * can fall back to a traversal. Queries for covered and uncovered types, and query latencies, are
+ * reported to the metric registry.
+ */
+@ThreadSafe
+public final class HierarchyCache {
+
+  private static final Logger logger = Logger.getLogger(HierarchyCache.class.getName());
+
+  private final GraphDatabaseService graphDb;
+  private final Set<String> types;
+
+  private final Meter covered;
+  private final Meter uncovered;
+  private final Timer ancestorsTimer;
+  private final Timer descendantsTimer;
+  private final Timer depthTimer;
+
+  private volatile Map<String, Hierarchy> hierarchies;
+
+  public HierarchyCache(GraphDatabaseService graphDb, Collection<String> types,
+      MetricRegistry metrics) {
+    this.graphDb = graphDb;
+    this.types = new LinkedHashSet<>(types);
+    this.covered = metrics.meter(name(HierarchyCache.class, "covered"));
+    this.uncovered = metrics.meter(name(HierarchyCache.class, "uncovered"));
+    this.ancestorsTimer = metrics.timer(name(HierarchyCache.class, "ancestors"));
+    this.descendantsTimer = metrics.timer(name(HierarchyCache.class, "descendants"));
+    this.depthTimer = metrics.timer(name(HierarchyCache.class, "depth"));
+  }
+
+  /***
+   * Read the configured hierarchies from the graph. Calling this more than once has no effect.
+   */
+  public void load() {
+    getHierarchies();
+  }
+
+  private Map<String, Hierarchy> getHierarchies() {
+    Map<String, Hierarchy> current = hierarchies;
+    if (null == current) {
+      synchronized (this) {
+        current = hierarchies;
+        if (null == current) {
+          current = readHierarchies();
+          hierarchies = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  Map<String, Hierarchy> readHierarchies() {
+    long startTime = System.currentTimeMillis();
+    Map<String, EdgeList> edges = new HashMap<>();
+    for (String type : types) {
+      edges.put(type, new EdgeList());
+    }
+    try (Transaction tx = graphDb.beginTx()) {
+      for (Relationship relationship : graphDb.getAllRelationships()) {
+        EdgeList list = edges.get(relationship.getType().name());
+        if (null != list) {
+          list.add(relationship.getStartNodeId(), relationship.getEndNodeId());
+        }
+      }
+      tx.success();
+    }
+    Map<String, Hierarchy> loaded = new HashMap<>();
+    for (String type : types) {
+      EdgeList list = edges.get(type);
+      long[] children = Arrays.copyOf(list.children, list.size);
+      long[] parents = Arrays.copyOf(list.parents, list.size);
+      RelationshipType relationshipType = RelationshipType.withName(type);
+      loaded.put(type, new Hierarchy(AncestorIndex.build(relationshipType, children, parents),
+          AncestorIndex.build(relationshipType, parents, children)));
+    }
+    logger.info(format("Loaded %d hierarchies in %d ms", loaded.size(),
+        System.currentTimeMillis() - startTime));
+    return loaded;
+  }
+
+  /***
+   * @param type
+   * @return true if the hierarchy of type is cached
+   */
+  public boolean covers(RelationshipType type) {
+    return types.contains(type.name());
+  }
+
+  private Optional<Hierarchy> get(RelationshipType type) {
+    if (!covers(type)) {
+      uncovered.mark();
+      return Optional.empty();
+    }
+    covered.mark();
+    return Optional.of(getHierarchies().get(type.name()));
+  }
+
+  /***
+   * @return the down (descendant) index of type if it is cached
+   */
+  public Optional<AncestorIndex> getIndex(RelationshipType type) {
+    return get(type).map(h -> h.down);
+  }
+
+  /***
+   * @param type
+   * @param nodeId
+   * @return the sorted ids of the nodes that nodeId reaches through type, or empty if type is not
+   *         cached
+   */
+  public Optional<long[]> getAncestors(RelationshipType type, long nodeId) {
+    try (Timer.Context context = ancestorsTimer.time()) {
+      return get(type).map(h -> h.up.descendants(nodeId));
+    }
+  }
+
+  /***
+   * @param type
+   * @param nodeId
+   * @return the sorted ids of the nodes reaching nodeId through type, or empty if type is not
+   *         cached
+   */
+  public Optional<long[]> getDescendants(RelationshipType type, long nodeId) {
+    try (Timer.Context context = descendantsTimer.time()) {
+      return get(type).map(h -> h.down.descendants(nodeId));
+    }
+  }
+
+  /***
+   * @param type
+   * @param nodeId
+   * @return the depth of nodeId as defined by {@link AncestorIndex#depth(long)}, or empty if type
+   *         is not cached
+   */
+  public OptionalInt getDepth(RelationshipType type, long nodeId) {
+    try (Timer.Context context = depthTimer.time()) {
+      Optional<Hierarchy> hierarchy = get(type);
+      return hierarchy.isPresent() ? OptionalInt.of(hierarchy.get().down.depth(nodeId))
+          : OptionalInt.empty();
+    }
+  }
+
+  static final class Hierarchy {
+
+    /*** The hierarchy read from parent to children */
+    final AncestorIndex down;
+    /*** The hierarchy read from child to parents */
+    final AncestorIndex up;
+
+    Hierarchy(AncestorIndex down, AncestorIndex up) {
+      this.down = down;
+      this.up = up;
+    }
+
+  }
+
+  static final class EdgeList {
+
+    long[] children = new long[1024];
+    long[] parents = new long[1024];
+    int size = 0;
+
+    void add(long child, long parent) {
+      if (size == children.length) {
+        children = Arrays.copyOf(children, size * 2);
+        parents = Arrays.copyOf(parents, size * 2);
+      }
+      children[size] = child;
+      parents[size] = parent;
+      size++;
+    }
+
+  }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal.hierarchy;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import javax.inject.Inject;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
+
+import io.scigraph.neo4j.GraphVersion;
+import io.scigraph.owlapi.OwlRelationships;
+
+/***
+ * The closure of the relationship property hierarchy.
+ *
+ * <p>
+ * Maps each property IRI to the IRIs of all its sub properties and equivalent properties, direct
+ * or not. The table is built with a single query the first time it is needed and rebuilt when
+ * the {@link GraphVersion} changes, so entailment is an in-memory lookup. Unlike
+ * {@link HierarchyCache} it is keyed by IRI and follows sub properties and equivalent properties
+ * as a single hierarchy.
+ */
+public class PropertyHierarchy {
+
+  private static final Logger logger = Logger.getLogger(PropertyHierarchy.class.getName());
+
+  private static final String HIERARCHY_QUERY = "MATCH (sub)-[:`"
+      + OwlRelationships.RDFS_SUB_PROPERTY_OF.name() + "`|`"
+      + OwlRelationships.OWL_EQUIVALENT_OBJECT_PROPERTY.name() + "`]->(parent) "
+      + "WHERE exists(sub.iri) AND exists(parent.iri) "
+      + "RETURN sub.iri AS sub, parent.iri AS parent";
+
+  private final GraphDatabaseService graphDb;
+  private final GraphVersion graphVersion;
+
+  private volatile Closure closure = new Closure(-1, Collections.<String, Set<String>>emptyMap());
+
+  @Inject
+  public PropertyHierarchy(GraphDatabaseService graphDb, GraphVersion graphVersion) {
+    this.graphDb = graphDb;
+    this.graphVersion = graphVersion;
+  }
+
+  /***
+   * @param property a property IRI
+   * @return the IRIs of the sub properties and equivalent properties of property, not including
+   *         property itself unless the hierarchy has a cycle through it
+   */
+  public Set<String> getSubProperties(String property) {
+    Set<String> subProperties = getClosure().table.get(property);
+    return (null == subProperties) ? Collections.<String>emptySet() : subProperties;
+  }
+
+  Closure getClosure() {
+    Closure current = closure;
+    long version = graphVersion.get();
+    if (current.version != version) {
+      synchronized (this) {
+        current = closure;
+        if (current.version != version) {
+          current = new Closure(version, computeClosure());
+          closure = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  Map<String, Set<String>> computeClosure() {
+    SetMultimap<String, String> children = HashMultimap.create();
+    try (Transaction tx = graphDb.beginTx()) {
+      Result result = graphDb.execute(HIERARCHY_QUERY);
+      while (result.hasNext()) {
+        Map<String, Object> row = result.next();
+        children.put((String) row.get("parent"), (String) row.get("sub"));
+      }
+      tx.success();
+    }
+    ImmutableMap.Builder<String, Set<String>> table = ImmutableMap.builder();
+    for (String property : children.keySet()) {
+      Set<String> descendants = new HashSet<>();
+      Deque<String> queue = new ArrayDeque<>(children.get(property));
+      while (!queue.isEmpty()) {
+        String child = queue.pop();
+        if (descendants.add(child)) {
+          queue.addAll(children.get(child));
+        }
+      }
+      table.put(property, ImmutableSet.copyOf(descendants));
+    }
+    Map<String, Set<String>> closure = table.build();
+    logger.fine("Computed the closure of " + closure.size() + " properties");
+    return closure;
+  }
+
+  static final class Closure {
+
+    final long version;
+    final Map<String, Set<String>> table;
+
+    Closure(long version, Map<String, Set<String>> table) {
+      this.version = version;
+      this.table = table;
+    }
+
+  }
+
+}
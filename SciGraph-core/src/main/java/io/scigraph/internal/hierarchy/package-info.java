@@ -0,0 +1,21 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * In memory indexes over hierarchical relationships (ie: subClassOf) based on the interval
+ * labelling of <a href="https://doi.org/10.1145/67544.66950">"Efficient management of transitive
+ * relationships in large data and knowledge bases"</a>
+ */
+package io.scigraph.internal.hierarchy;
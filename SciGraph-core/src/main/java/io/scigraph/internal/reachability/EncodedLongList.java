@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal.reachability;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/***
+ * Delta-varint encoding of sorted node id lists.
+ *
+ * <p>
+ * The first value is written as an unsigned LEB128 varint and every following value as the
+ * varint of its (strictly positive) difference to the previous one. Node ids in a label are
+ * clustered so most deltas fit in one or two bytes instead of eight.
+ */
+final class EncodedLongList {
+
+  private EncodedLongList() {}
+
+  /***
+   * @param sorted strictly increasing, non negative values
+   * @return the encoded list
+   */
+  static byte[] encode(long[] sorted) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(sorted.length * 2);
+    long previous = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      long delta = sorted[i] - previous;
+      checkArgument(sorted[i] >= 0 && (i == 0 || delta > 0),
+          "Values must be non negative and strictly increasing");
+      writeVarLong(out, delta);
+      previous = sorted[i];
+    }
+    return out.toByteArray();
+  }
+
+  static long[] decode(byte[] encoded) {
+    long[] values = new long[encoded.length];
+    int size = 0;
+    Cursor cursor = new Cursor(encoded);
+    while (cursor.hasNext()) {
+      values[size++] = cursor.next();
+    }
+    return Arrays.copyOf(values, size);
+  }
+
+  /***
+   * Merge two encoded lists without materializing either of them.
+   *
+   * @return true if both lists share at least one value
+   */
+  static boolean intersects(byte[] a, byte[] b) {
+    Cursor i = new Cursor(a);
+    Cursor j = new Cursor(b);
+    if (!i.hasNext() || !j.hasNext()) {
+      return false;
+    }
+    long x = i.next();
+    long y = j.next();
+    while (true) {
+      if (x < y) {
+        if (!i.hasNext()) {
+          return false;
+        }
+        x = i.next();
+      } else if (y < x) {
+        if (!j.hasNext()) {
+          return false;
+        }
+        y = j.next();
+      } else {
+        return true;
+      }
+    }
+  }
+
+  static void writeVarLong(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  /***
+   * A forward only reader over an encoded list.
+   */
+  static final class Cursor {
+
+    private final byte[] bytes;
+    private int position = 0;
+    private long current = 0;
+
+    Cursor(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    boolean hasNext() {
+      return position < bytes.length;
+    }
+
+    long next() {
+      long delta = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = bytes[position++];
+        delta |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      current += delta;
+      return current;
+    }
+
+  }
+
+}
@@ -15,10 +15,6 @@
  */
 package io.scigraph.internal.reachability;
 
-import java.util.Collections;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-
 import javax.annotation.concurrent.ThreadSafe;
 
 import com.google.common.base.MoreObjects;
@@ -26,14 +22,14 @@ import com.google.common.base.MoreObjects;
 @ThreadSafe
 class InOutList {
 
-  Set<Long> inList = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
-  Set<Long> outList = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+  final SortedLongArray inList = new SortedLongArray();
+  final SortedLongArray outList = new SortedLongArray();
 
-  Set<Long> getInList() {
+  SortedLongArray getInList() {
     return inList;
   }
 
-  Set<Long> getOutList() {
+  SortedLongArray getOutList() {
     return outList;
   }
 
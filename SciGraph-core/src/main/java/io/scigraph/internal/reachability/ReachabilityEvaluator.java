@@ -15,9 +15,6 @@
  */
 package io.scigraph.internal.reachability;
 
-import java.util.Collections;
-import java.util.Set;
-
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Path;
@@ -77,9 +74,9 @@ final class ReachabilityEvaluator implements Evaluator {
   }
 
   boolean nodesAreConnected(long nodeIdOut, long nodeIdIn) {
-    Set<Long> outList = inMemoryIndex.get(nodeIdOut).getOutList();
-    Set<Long> inList = inMemoryIndex.get(nodeIdIn).getInList();
-    return !Collections.disjoint(outList, inList);
+    SortedLongArray outList = inMemoryIndex.get(nodeIdOut).getOutList();
+    SortedLongArray inList = inMemoryIndex.get(nodeIdIn).getInList();
+    return outList.intersects(inList);
   }
 
 }
@@ -16,19 +16,25 @@
 package io.scigraph.internal.reachability;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Iterators.getOnlyElement;
+import static com.google.common.collect.Iterators.getNext;
 import static com.google.common.collect.Iterables.size;
 import static java.lang.String.format;
 
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
 import javax.inject.Inject;
 
@@ -38,14 +44,15 @@ import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.traversal.Evaluation;
 import org.neo4j.graphdb.traversal.TraversalDescription;
 import org.neo4j.graphdb.traversal.Uniqueness;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
-import com.google.common.primitives.Longs;
 
 /***
  * A Neo4j implementation of the <a href="http://www.vldb.org/pvldb/vol6/p1978-jin.pdf">
@@ -61,9 +68,17 @@ public final class ReachabilityIndex {
   private static final String INDEX_EXISTS_PROPERTY = "ReachablilityIndexExists";
   private static final String IN_LIST_PROPERTY = "ReachablilityIndexInList";
   private static final String OUT_LIST_PROPERTY = "ReachablilityIndexOutList";
+  private static final String VERSION_PROPERTY = "ReachablilityIndexVersion";
+  private static final String FORMAT_PROPERTY = "ReachablilityIndexFormat";
+  private static final String UPDATED_PROPERTY = "ReachablilityIndexUpdated";
+
+  /***
+   * Labels are stored as delta-varint encoded byte arrays.
+   */
+  static final int LABEL_FORMAT = 2;
 
   private final GraphDatabaseService graphDb;
-  private final Node metaDataNode;
+  private Node metaDataNode;
 
   private int transactionBatchSize = 500000; // default transaction size.
 
@@ -78,20 +93,56 @@ public final class ReachabilityIndex {
     this.graphDb = graphDb;
     try (Transaction tx = graphDb.beginTx()) {
       ResourceIterator<Node> nodes = graphDb.findNodes(REACHABILITY_METADATA);
-      metaDataNode = getOnlyElement(nodes, graphDb.createNode(REACHABILITY_METADATA));
+      metaDataNode = getNext(nodes, null);
       tx.success();
     }
   }
 
+  /***
+   * The metadata node is only created when an index is committed so that read only graphs can
+   * still be queried.
+   */
+  private Node getOrCreateMetaDataNode() {
+    if (null == metaDataNode) {
+      metaDataNode = graphDb.createNode(REACHABILITY_METADATA);
+    }
+    return metaDataNode;
+  }
+
   /***
    * @return if a reachability index has already been created on this graph.
    */
   public boolean indexExists() {
+    if (null == metaDataNode) {
+      return false;
+    }
     try (Transaction tx = graphDb.beginTx()) {
       return (boolean) metaDataNode.getProperty(INDEX_EXISTS_PROPERTY, false);
     }
   }
 
+  /***
+   * The version is incremented every time the index is created, updated or dropped. Callers
+   * caching reachability results can use it to detect stale entries.
+   * 
+   * @return the current index version, 0 if no index was ever created on this graph.
+   */
+  public long getIndexVersion() {
+    if (null == metaDataNode) {
+      return 0;
+    }
+    try (Transaction tx = graphDb.beginTx()) {
+      return (long) metaDataNode.getProperty(VERSION_PROPERTY, 0L);
+    }
+  }
+
+  private void bumpVersion() {
+    Node metaData = getOrCreateMetaDataNode();
+    metaData.setProperty(VERSION_PROPERTY, (long) metaData.getProperty(VERSION_PROPERTY, 0L) + 1);
+    metaData.setProperty(FORMAT_PROPERTY, LABEL_FORMAT);
+    metaData.setProperty(UPDATED_PROPERTY, System.currentTimeMillis());
+  }
+
   public void createIndex() throws InterruptedException {
     createIndex(Predicates.<Node> alwaysTrue());
   }
@@ -174,12 +225,13 @@ public final class ReachabilityIndex {
     int operationCount = 0;
     for (Entry<Long, InOutList> e : inMemoryIndex.entrySet()) {
       Node node = graphDb.getNodeById(e.getKey());
-      node.setProperty(IN_LIST_PROPERTY, Longs.toArray(e.getValue().getInList()));
-      node.setProperty(OUT_LIST_PROPERTY, Longs.toArray(e.getValue().getOutList()));
+      node.setProperty(IN_LIST_PROPERTY, EncodedLongList.encode(e.getValue().getInList().toArray()));
+      node.setProperty(OUT_LIST_PROPERTY, EncodedLongList.encode(e.getValue().getOutList().toArray()));
       tx = batchTransactions(tx, operationCount++);
     }
 
-    metaDataNode.setProperty(INDEX_EXISTS_PROPERTY, true);
+    getOrCreateMetaDataNode().setProperty(INDEX_EXISTS_PROPERTY, true);
+    bumpVersion();
     tx.success();
     tx.close();
   }
@@ -198,6 +250,7 @@ public final class ReachabilityIndex {
 
       // reset the flag.
       metaDataNode.setProperty(INDEX_EXISTS_PROPERTY, false);
+      bumpVersion();
 
       tx.success();
       tx.close();
@@ -207,6 +260,113 @@ public final class ReachabilityIndex {
     }
   }
 
+  /***
+   * Add a node to an existing index. The node is labelled with itself and each of its
+   * relationships is added with {@link #addRelationship(Relationship)}.
+   * 
+   * @param node
+   *          a node created after the index was built
+   */
+  public void addNode(Node node) {
+    checkIndexExists();
+    try (Transaction tx = graphDb.beginTx()) {
+      initializeLabels(node);
+      for (Relationship relationship : node.getRelationships()) {
+        updateLabels(relationship);
+      }
+      bumpVersion();
+      tx.success();
+    }
+  }
+
+  /***
+   * Update an existing index after a relationship was added to the graph.
+   * 
+   * <p>
+   * For a new relationship u -&gt; v the start node u is used as the landmark of every newly
+   * connected pair: it is added to the out-list of the ancestors of u and to the in-list of the
+   * descendants of v. Both searches stop at nodes whose pairs were already covered before the
+   * update so only the affected part of the graph is visited. Nodes excluded from the index (ie:
+   * with empty labels) are not traversed.
+   * 
+   * @param relationship
+   *          a relationship created after the index was built
+   */
+  public void addRelationship(Relationship relationship) {
+    checkIndexExists();
+    try (Transaction tx = graphDb.beginTx()) {
+      updateLabels(relationship);
+      bumpVersion();
+      tx.success();
+    }
+  }
+
+  void updateLabels(Relationship relationship) {
+    Node start = relationship.getStartNode();
+    Node end = relationship.getEndNode();
+    initializeLabels(start);
+    initializeLabels(end);
+    if (isExcluded(start) || isExcluded(end)
+        || intersects(start.getProperty(OUT_LIST_PROPERTY), end.getProperty(IN_LIST_PROPERTY))) {
+      return;
+    }
+    long landmark = start.getId();
+    // Ancestors of start: prune where the ancestor could already reach end.
+    Object endInList = end.getProperty(IN_LIST_PROPERTY);
+    traverseAffected(start, Direction.INCOMING, OUT_LIST_PROPERTY, landmark,
+        n -> intersects(n.getProperty(OUT_LIST_PROPERTY), endInList));
+    // Descendants of end: prune where start could already reach the descendant.
+    Object startOutList = start.getProperty(OUT_LIST_PROPERTY);
+    traverseAffected(end, Direction.OUTGOING, IN_LIST_PROPERTY, landmark,
+        n -> intersects(startOutList, n.getProperty(IN_LIST_PROPERTY)));
+  }
+
+  void traverseAffected(Node from, Direction direction, String property, long landmark,
+      Predicate<Node> covered) {
+    TraversalDescription description = graphDb.traversalDescription().breadthFirst()
+        .uniqueness(Uniqueness.NODE_GLOBAL).expand(new DirectionalPathExpander(direction))
+        .evaluator(path -> {
+          Node node = path.endNode();
+          initializeLabels(node);
+          if (isExcluded(node) || covered.apply(node)) {
+            return Evaluation.EXCLUDE_AND_PRUNE;
+          }
+          addToLabel(node, property, landmark);
+          return Evaluation.INCLUDE_AND_CONTINUE;
+        });
+    for (Path path : description.traverse(from)) {
+      logger.finest(path.toString());
+    }
+  }
+
+  /***
+   * Nodes created after the index was built have no labels yet: they only reach themselves.
+   */
+  static void initializeLabels(Node node) {
+    if (!node.hasProperty(IN_LIST_PROPERTY)) {
+      byte[] self = EncodedLongList.encode(new long[] {node.getId()});
+      node.setProperty(IN_LIST_PROPERTY, self);
+      node.setProperty(OUT_LIST_PROPERTY, self);
+    }
+  }
+
+  static boolean isExcluded(Node node) {
+    return toLongArray(node.getProperty(IN_LIST_PROPERTY)).length == 0;
+  }
+
+  static void addToLabel(Node node, String property, long landmark) {
+    long[] label = toLongArray(node.getProperty(property));
+    int index = Arrays.binarySearch(label, landmark);
+    if (index < 0) {
+      int insertion = -(index + 1);
+      long[] updated = new long[label.length + 1];
+      System.arraycopy(label, 0, updated, 0, insertion);
+      updated[insertion] = landmark;
+      System.arraycopy(label, insertion, updated, insertion + 1, label.length - insertion);
+      node.setProperty(property, EncodedLongList.encode(updated));
+    }
+  }
+
   /**
    * @return The hop coverage for each node sorted in descending order.
    */
@@ -238,69 +398,117 @@ public final class ReachabilityIndex {
    * @return Return true if startNode can reach endNode
    */
   public boolean canReach(Node startNode, Node endNode) {
+    checkIndexExists();
+
+    try (Transaction tx = graphDb.beginTx()) {
+      return intersects(startNode.getProperty(OUT_LIST_PROPERTY),
+          endNode.getProperty(IN_LIST_PROPERTY));
+    }
+  }
+
+  /***
+   * Labels are stored delta-varint encoded. Indexes built before the encoding was introduced
+   * stored raw sorted <code>long[]</code>s and are still supported.
+   */
+  static boolean intersects(Object outList, Object inList) {
+    if (outList instanceof byte[] && inList instanceof byte[]) {
+      return EncodedLongList.intersects((byte[]) outList, (byte[]) inList);
+    }
+    return SortedLongArray.intersects(toLongArray(outList), toLongArray(inList));
+  }
+
+  static long[] toLongArray(Object list) {
+    return list instanceof byte[] ? EncodedLongList.decode((byte[]) list) : (long[]) list;
+  }
+
+  void checkIndexExists() {
     if (!indexExists()) {
       throw new IllegalStateException("Reachability index must be created first.");
     }
+  }
 
+  /***
+   * Load one label per node in a single transaction. Nodes without a label (ie: nodes excluded
+   * from the index) get an empty label.
+   */
+  long[][] loadLabels(List<Node> nodes, String property) {
+    long[][] labels = new long[nodes.size()][];
     try (Transaction tx = graphDb.beginTx()) {
-      long[] outList = (long[]) startNode.getProperty(OUT_LIST_PROPERTY);
-      long[] inList = (long[]) endNode.getProperty(IN_LIST_PROPERTY);
-      int i = 0, j = 0;
-
-      while (i < outList.length && j < inList.length) {
-        if (outList[i] < inList[j]) {
-          i++;
-        } else if (inList[j] < outList[i]) {
-          j++;
-        } else {
-          return true;
-        }
+      for (int i = 0; i < nodes.size(); i++) {
+        Object label = nodes.get(i).getProperty(property, null);
+        labels[i] = (null == label) ? new long[0] : toLongArray(label);
       }
-      return false;
+      tx.success();
     }
+    return labels;
   }
 
-  Set<Pair<Node, Node>> evaluatePairs(Set<Node> sources, Set<Node> targets,
-      Predicate<Pair<Node, Node>> predicate) {
-    Set<Pair<Node, Node>> pairs = new HashSet<>();
-    for (Node source : sources) {
-      for (Node target : targets) {
-        Pair<Node, Node> pair = Pair.of(source, target);
-        if (predicate.apply(pair)) {
-          pairs.add(pair);
-        }
+  /***
+   * @return the indices of the targets reachable with outLabel
+   */
+  static int[] reachableTargets(long[] outLabel, long[][] inLabels) {
+    int[] connected = new int[inLabels.length];
+    int count = 0;
+    for (int j = 0; j < inLabels.length; j++) {
+      if (SortedLongArray.intersects(outLabel, inLabels[j])) {
+        connected[count++] = j;
       }
     }
-    return pairs;
+    return Arrays.copyOf(connected, count);
   }
 
-  public Set<Pair<Node, Node>> getConnectedPairs(Set<Node> sources, Set<Node> targets) {
-    return evaluatePairs(sources, targets, new Predicate<Pair<Node, Node>>() {
-      @Override
-      public boolean apply(Pair<Node, Node> pair) {
-        return canReach(pair.getLeft(), pair.getRight());
-      }
-    });
+  /***
+   * Evaluate the full sources x targets matrix.
+   * 
+   * <p>
+   * Each source out-list and each target in-list is read once, rows are evaluated in parallel and
+   * connected pairs are handed to the consumer in source order as soon as their row is done.
+   * 
+   * @param sources
+   * @param targets
+   * @param consumer
+   *          receives every connected (source, target) pair
+   */
+  public void forEachConnectedPair(Collection<Node> sources, Collection<Node> targets,
+      BiConsumer<Node, Node> consumer) {
+    checkIndexExists();
+    List<Node> sourceList = new ArrayList<>(sources);
+    List<Node> targetList = new ArrayList<>(targets);
+    long[][] outLabels = loadLabels(sourceList, OUT_LIST_PROPERTY);
+    long[][] inLabels = loadLabels(targetList, IN_LIST_PROPERTY);
+    IntStream.range(0, outLabels.length).parallel()
+        .mapToObj(i -> Pair.of(i, reachableTargets(outLabels[i], inLabels)))
+        .forEachOrdered(row -> {
+          Node source = sourceList.get(row.getLeft());
+          for (int j : row.getRight()) {
+            consumer.accept(source, targetList.get(j));
+          }
+        });
   }
 
-  public Set<Pair<Node, Node>> getDisconnectedPairs(Set<Node> sources, Set<Node> targets) {
-    return evaluatePairs(sources, targets, new Predicate<Pair<Node, Node>>() {
-      @Override
-      public boolean apply(Pair<Node, Node> pair) {
-        return !canReach(pair.getLeft(), pair.getRight());
-      }
-    });
+  public Set<Pair<Node, Node>> getConnectedPairs(Set<Node> sources, Set<Node> targets) {
+    Set<Pair<Node, Node>> pairs = new HashSet<>();
+    forEachConnectedPair(sources, targets, (source, target) -> pairs.add(Pair.of(source, target)));
+    return pairs;
   }
 
-  public boolean allReachable(Set<Node> sources, Set<Node> targets) {
+  public Set<Pair<Node, Node>> getDisconnectedPairs(Set<Node> sources, Set<Node> targets) {
+    Set<Pair<Node, Node>> pairs = new HashSet<>();
     for (Node source : sources) {
       for (Node target : targets) {
-        if (!canReach(source, target)) {
-          return false;
-        }
+        pairs.add(Pair.of(source, target));
       }
     }
-    return true;
+    pairs.removeAll(getConnectedPairs(sources, targets));
+    return pairs;
+  }
+
+  public boolean allReachable(Set<Node> sources, Set<Node> targets) {
+    checkIndexExists();
+    long[][] outLabels = loadLabels(new ArrayList<>(sources), OUT_LIST_PROPERTY);
+    long[][] inLabels = loadLabels(new ArrayList<>(targets), IN_LIST_PROPERTY);
+    return IntStream.range(0, outLabels.length).parallel()
+        .allMatch(i -> reachableTargets(outLabels[i], inLabels).length == inLabels.length);
   }
 
   static class InOutListTraverser extends Thread {
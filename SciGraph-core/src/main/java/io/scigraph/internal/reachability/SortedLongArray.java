@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal.reachability;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/***
+ * A sorted, duplicate free set of primitive longs.
+ *
+ * <p>
+ * Writes are serialized and copy the backing array so that readers can merge two lists without
+ * holding any lock. Reachability labels are small and written once per landmark so the copy is
+ * cheap compared to boxing every id.
+ */
+@ThreadSafe
+final class SortedLongArray {
+
+  private static final long[] EMPTY = new long[0];
+
+  private volatile long[] values = EMPTY;
+
+  /***
+   * @param value
+   * @return true if the value was not already present
+   */
+  synchronized boolean add(long value) {
+    long[] current = values;
+    int index = Arrays.binarySearch(current, value);
+    if (index >= 0) {
+      return false;
+    }
+    int insertion = -(index + 1);
+    long[] copy = new long[current.length + 1];
+    System.arraycopy(current, 0, copy, 0, insertion);
+    copy[insertion] = value;
+    System.arraycopy(current, insertion, copy, insertion + 1, current.length - insertion);
+    values = copy;
+    return true;
+  }
+
+  boolean contains(long value) {
+    return Arrays.binarySearch(values, value) >= 0;
+  }
+
+  int size() {
+    return values.length;
+  }
+
+  /***
+   * @return a snapshot of the sorted values
+   */
+  long[] toArray() {
+    return values;
+  }
+
+  /***
+   * @param other
+   * @return true if this set and other share at least one value
+   */
+  boolean intersects(SortedLongArray other) {
+    return intersects(values, other.values);
+  }
+
+  static boolean intersects(long[] a, long[] b) {
+    int i = 0, j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) {
+        i++;
+      } else if (b[j] < a[i]) {
+        j++;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(values);
+  }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.lucene;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.spell.LuceneDictionary;
+import org.apache.lucene.search.spell.SpellChecker;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.RAMDirectory;
+
+import io.scigraph.frames.NodeProperties;
+
+/***
+ * The spelling suggestion index of a graph.
+ *
+ * <p>
+ * The index is built from the exact labels of the node auto index once, when the graph is
+ * loaded, and stored next to it. Services open it read only and memory mapped so that startup
+ * does not depend on the size of the graph and the graph directory is never written to.
+ */
+public final class SpellCheckerIndex {
+
+  private static final Logger logger = Logger.getLogger(SpellCheckerIndex.class.getName());
+
+  static final String NODE_INDEX = "index/lucene/node/node_auto_index";
+  static final String SPELLCHECKER_INDEX = "index/lucene/spellchecker";
+
+  private SpellCheckerIndex() {}
+
+  static Path getNodeIndex(File graphLocation) {
+    return new File(graphLocation, NODE_INDEX).toPath();
+  }
+
+  static Path getSpellCheckerIndex(File graphLocation) {
+    return new File(graphLocation, SPELLCHECKER_INDEX).toPath();
+  }
+
+  static void indexDictionary(File graphLocation, SpellChecker spellChecker) throws IOException {
+    try (Directory indexDirectory = FSDirectory.open(getNodeIndex(graphLocation));
+        IndexReader reader = DirectoryReader.open(indexDirectory)) {
+      spellChecker.indexDictionary(
+          new LuceneDictionary(reader, NodeProperties.LABEL + LuceneUtils.EXACT_SUFFIX),
+          new IndexWriterConfig(new KeywordAnalyzer()), true);
+    }
+  }
+
+  /***
+   * Build the spell checker index of a graph, replacing any previous one. The graph must not be
+   * open.
+   * 
+   * @param graphLocation
+   *          the location of the graph
+   */
+  public static void build(File graphLocation) throws IOException {
+    try (Directory spellDirectory = FSDirectory.open(getSpellCheckerIndex(graphLocation));
+        SpellChecker spellChecker = new SpellChecker(spellDirectory)) {
+      indexDictionary(graphLocation, spellChecker);
+    }
+  }
+
+  /***
+   * Open the spell checker of a graph without writing to the graph directory. Graphs loaded
+   * before the index was built at load time get an index built in memory instead.
+   * 
+   * @param graphLocation
+   *          the location of the graph
+   * @return a spell checker
+   */
+  public static SpellChecker open(File graphLocation) throws IOException {
+    Path spellIndex = getSpellCheckerIndex(graphLocation);
+    if (Files.isDirectory(spellIndex)) {
+      Directory spellDirectory = new MMapDirectory(spellIndex);
+      if (DirectoryReader.indexExists(spellDirectory)) {
+        return new SpellChecker(spellDirectory);
+      }
+      spellDirectory.close();
+    }
+    logger.warning("No spell checker index found in " + graphLocation
+        + ", building one in memory. Reload the graph to build it once.");
+    SpellChecker spellChecker = new SpellChecker(new RAMDirectory());
+    indexDictionary(graphLocation, spellChecker);
+    return spellChecker;
+  }
+
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.neo4j;
+
+import javax.inject.Inject;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+/***
+ * A version stamp for the graph.
+ *
+ * <p>
+ * The stamp is the id of the last committed transaction: it changes whenever the graph is
+ * written to and is stable while a built graph is served read only. Anything derived from the
+ * graph can be cached against it.
+ */
+public class GraphVersion {
+
+  private final TransactionIdStore transactionIdStore;
+
+  @Inject
+  public GraphVersion(GraphDatabaseService graphDb) {
+    this.transactionIdStore = ((GraphDatabaseAPI) graphDb).getDependencyResolver()
+        .resolveDependency(TransactionIdStore.class);
+  }
+
+  /***
+   * @return the current version of the graph
+   */
+  public long get() {
+    return transactionIdStore.getLastCommittedTransactionId();
+  }
+
+}
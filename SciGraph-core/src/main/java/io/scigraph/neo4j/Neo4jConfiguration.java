@@ -15,6 +15,8 @@
  */
 package io.scigraph.neo4j;
 
+import static com.google.common.collect.Sets.newHashSet;
+
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -38,6 +40,10 @@ public class Neo4jConfiguration {
   
   private Map<String, Set<String>> schemaIndexes = new HashMap<>();
 
+  private String hierarchyRelationship = "subClassOf";
+
+  private Set<String> hierarchyRelationships = newHashSet("subClassOf", "subPropertyOf");
+
   public String getLocation() {
     return location;
   }
@@ -70,4 +76,27 @@ public class Neo4jConfiguration {
     return schemaIndexes;
   }
 
+  /***
+   * @return the child to parent relationship type of the ancestor index
+   */
+  public String getHierarchyRelationship() {
+    return hierarchyRelationship;
+  }
+
+  public void setHierarchyRelationship(String hierarchyRelationship) {
+    this.hierarchyRelationship = hierarchyRelationship;
+  }
+
+  /***
+   * @return the child to parent relationship types kept in the hierarchy cache, in addition to
+   *         {@link #getHierarchyRelationship()}
+   */
+  public Set<String> getHierarchyRelationships() {
+    return hierarchyRelationships;
+  }
+
+  public void setHierarchyRelationships(Set<String> hierarchyRelationships) {
+    this.hierarchyRelationships = hierarchyRelationships;
+  }
+
 }
@@ -23,8 +23,11 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Singleton;
@@ -33,6 +36,7 @@ import org.mapdb.DB;
 import org.mapdb.DBMaker;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.factory.GraphDatabaseBuilder;
 import org.neo4j.graphdb.factory.GraphDatabaseFactory;
@@ -44,6 +48,7 @@ import org.neo4j.graphdb.schema.Schema;
 import org.neo4j.helpers.collection.MapUtil;
 import org.neo4j.kernel.configuration.Settings;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Function;
 import com.google.common.base.Throwables;
 import com.google.inject.AbstractModule;
@@ -51,10 +56,15 @@ import com.google.inject.Provides;
 import com.google.inject.TypeLiteral;
 
 import io.scigraph.frames.CommonProperties;
+import io.scigraph.internal.GraphApi;
+import io.scigraph.internal.hierarchy.AncestorIndex;
+import io.scigraph.internal.hierarchy.HierarchyCache;
+import io.scigraph.internal.hierarchy.PropertyHierarchy;
 import io.scigraph.lucene.LuceneUtils;
 import io.scigraph.lucene.VocabularyIndexAnalyzer;
 import io.scigraph.neo4j.bindings.IndicatesCurieMapping;
 import io.scigraph.neo4j.bindings.IndicatesNeo4jGraphLocation;
+import io.scigraph.neo4j.bindings.IndicatesTraversalExecutor;
 import io.scigraph.vocabulary.Vocabulary;
 import io.scigraph.vocabulary.VocabularyNeo4jImpl;
 import org.prefixcommons.CurieUtil;
@@ -63,6 +73,7 @@ public class Neo4jModule extends AbstractModule {
 
   private final Neo4jConfiguration configuration;
   private boolean readOnly = false;
+  private ExecutorService traversalExecutor = ForkJoinPool.commonPool();
 
   public Neo4jModule(Neo4jConfiguration configuration) {
     this.configuration = configuration;
@@ -74,6 +85,17 @@ public class Neo4jModule extends AbstractModule {
 
   }
 
+  /***
+   * @param traversalExecutor
+   *          runs the parallel traversals of {@link GraphApi}, its lifecycle is owned by the
+   *          caller. The common fork join pool is used otherwise.
+   */
+  public Neo4jModule(Neo4jConfiguration configuration, boolean readOnly,
+      ExecutorService traversalExecutor) {
+    this(configuration, readOnly);
+    this.traversalExecutor = traversalExecutor;
+  }
+
   @Override
   protected void configure() {
     bind(String.class).annotatedWith(IndicatesNeo4jGraphLocation.class)
@@ -83,6 +105,11 @@ public class Neo4jModule extends AbstractModule {
         .toInstance(configuration.getCuries());
     bind(Vocabulary.class).to(VocabularyNeo4jImpl.class).in(Singleton.class);
     bind(new TypeLiteral<ConcurrentMap<String, Long>>() {}).to(IdMap.class).in(Singleton.class);
+    bind(GraphVersion.class).in(Singleton.class);
+    bind(ExecutorService.class).annotatedWith(IndicatesTraversalExecutor.class)
+        .toInstance(traversalExecutor);
+    bind(GraphApi.class).in(Singleton.class);
+    bind(PropertyHierarchy.class).in(Singleton.class);
   }
 
   private static final Map<String, String> INDEX_CONFIG = MapUtil.stringMap(IndexManager.PROVIDER,
@@ -141,6 +168,29 @@ public class Neo4jModule extends AbstractModule {
         .make();
   }
 
+  /***
+   * The cache is read once from the graph as it is when first loaded (the services load it when
+   * they start, with one pass over the relationships): it is meant for read only graphs.
+   */
+  @Provides
+  @Singleton
+  HierarchyCache getHierarchyCache(GraphDatabaseService graphDb, MetricRegistry metrics) {
+    Set<String> types = new LinkedHashSet<>();
+    types.add(configuration.getHierarchyRelationship());
+    types.addAll(configuration.getHierarchyRelationships());
+    return new HierarchyCache(graphDb, types, metrics);
+  }
+
+  /***
+   * The index of the configured hierarchy relationship, shared with the hierarchy cache.
+   */
+  @Provides
+  @Singleton
+  AncestorIndex getAncestorIndex(HierarchyCache hierarchyCache) {
+    return hierarchyCache
+        .getIndex(RelationshipType.withName(configuration.getHierarchyRelationship())).get();
+  }
+
   @Provides
   @Singleton
   GraphDatabaseService getGraphDatabaseService() throws IOException {
@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.owlapi;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+
+/***
+ * The categories of a graph and the number of nodes in each of them.
+ *
+ * <p>
+ * The catalog is stored on a single metadata node when categories are processed at load time so
+ * that serving graphs can list categories without scanning every node. Counts are taken from the
+ * category labels. All methods must be called within a transaction.
+ */
+public final class CategoryCatalog {
+
+  static final Label CATEGORY_CATALOG = Label.label("CategoryCatalog");
+
+  static final String CATEGORIES_PROPERTY = "CategoryCatalogCategories";
+  static final String COUNTS_PROPERTY = "CategoryCatalogCounts";
+  static final String UPDATED_PROPERTY = "CategoryCatalogUpdated";
+
+  private CategoryCatalog() {}
+
+  static Optional<Node> getCatalogNode(GraphDatabaseService graphDb) {
+    try (ResourceIterator<Node> nodes = graphDb.findNodes(CATEGORY_CATALOG)) {
+      return nodes.hasNext() ? Optional.of(nodes.next()) : Optional.empty();
+    }
+  }
+
+  /***
+   * @return the number of nodes in each category, if the graph has a catalog
+   */
+  public static Optional<Map<String, Long>> read(GraphDatabaseService graphDb) {
+    Optional<Node> catalog = getCatalogNode(graphDb);
+    if (!catalog.isPresent()) {
+      return Optional.empty();
+    }
+    String[] categories = (String[]) catalog.get().getProperty(CATEGORIES_PROPERTY);
+    long[] counts = (long[]) catalog.get().getProperty(COUNTS_PROPERTY);
+    Map<String, Long> catalogCounts = new TreeMap<>();
+    for (int i = 0; i < categories.length; i++) {
+      catalogCounts.put(categories[i], counts[i]);
+    }
+    return Optional.of(Collections.unmodifiableMap(catalogCounts));
+  }
+
+  static long count(GraphDatabaseService graphDb, String category) {
+    long count = 0;
+    try (ResourceIterator<Node> nodes = graphDb.findNodes(Label.label(category))) {
+      for (; nodes.hasNext(); nodes.next()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /***
+   * Recount categories and store them in the catalog along with the categories already in it.
+   * No catalog is created for graphs without categories.
+   *
+   * @param categories
+   *          the categories that were processed
+   * @return the updated catalog
+   */
+  public static Map<String, Long> update(GraphDatabaseService graphDb,
+      Collection<String> categories) {
+    Optional<Node> existing = getCatalogNode(graphDb);
+    Set<String> allCategories = new TreeSet<>(categories);
+    if (existing.isPresent()) {
+      Collections.addAll(allCategories,
+          (String[]) existing.get().getProperty(CATEGORIES_PROPERTY, new String[0]));
+    } else if (allCategories.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, Long> catalogCounts = new TreeMap<>();
+    for (String category : allCategories) {
+      catalogCounts.put(category, count(graphDb, category));
+    }
+    long[] counts = new long[catalogCounts.size()];
+    int i = 0;
+    for (long count : catalogCounts.values()) {
+      counts[i++] = count;
+    }
+    Node catalog = existing.orElseGet(() -> graphDb.createNode(CATEGORY_CATALOG));
+    catalog.setProperty(CATEGORIES_PROPERTY, catalogCounts.keySet().toArray(new String[0]));
+    catalog.setProperty(COUNTS_PROPERTY, counts);
+    catalog.setProperty(UPDATED_PROPERTY, System.currentTimeMillis());
+    return Collections.unmodifiableMap(catalogCounts);
+  }
+
+}
@@ -179,6 +179,8 @@ public class OwlPostprocessor {
       taggingPool.shutdown();
       taggingPool.awaitTermination(10, TimeUnit.DAYS);
     }
+    logger.info("Updating the category catalog");
+    CategoryCatalog.update(graphDb, toTag.keySet());
 
     tx.success();
     tx.close();
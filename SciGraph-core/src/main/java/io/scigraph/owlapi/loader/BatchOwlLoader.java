@@ -19,6 +19,8 @@ import static com.google.common.collect.Iterables.size;
 import static java.lang.String.format;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -51,8 +53,10 @@ import com.google.common.base.Stopwatch;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 
+import io.scigraph.lucene.SpellCheckerIndex;
 import io.scigraph.neo4j.Graph;
 import io.scigraph.neo4j.Neo4jModule;
+import io.scigraph.owlapi.CategoryCatalog;
 import io.scigraph.owlapi.OwlApiUtils;
 import io.scigraph.owlapi.OwlPostprocessor;
 import io.scigraph.owlapi.loader.OwlLoadConfiguration.MappedProperty;
@@ -186,6 +190,7 @@ public class BatchOwlLoader {
       postprocessorProvider.runAllNodesLabeler(allNodesLabel.get());
     }
 
+    postprocessorProvider.updateCategoryCatalog();
     postprocessorProvider.shutdown();
 
   }
@@ -226,6 +231,16 @@ public class BatchOwlLoader {
       anonymousNodeTagger.run();
     }
 
+    /***
+     * Recount the category catalog as the clique merge may have removed categorized nodes.
+     */
+    public void updateCategoryCatalog() {
+      try (Transaction tx = graphDb.beginTx()) {
+        CategoryCatalog.update(graphDb, Collections.<String>emptySet());
+        tx.success();
+      }
+    }
+
     public void shutdown() {
       try (Transaction tx = graphDb.beginTx()) {
         logger.info(size(graphDb.getAllNodes()) + " nodes");
@@ -238,7 +253,7 @@ public class BatchOwlLoader {
   }
 
   public static void load(OwlLoadConfiguration config)
-      throws InterruptedException, ExecutionException {
+      throws InterruptedException, ExecutionException, IOException {
     Injector i = Guice.createInjector(new OwlLoaderModule(config),
         new Neo4jModule(config.getGraphConfiguration()));
     BatchOwlLoader loader = i.getInstance(BatchOwlLoader.class);
@@ -248,6 +263,8 @@ public class BatchOwlLoader {
     loader.loadOntology();
     DB mapDb = i.getInstance(DB.class);
     mapDb.close();
+    logger.info("Building the spell checker index...");
+    SpellCheckerIndex.build(new File(config.getGraphConfiguration().getLocation()));
     logger.info(format("Loading took %d minutes", timer.elapsed(TimeUnit.MINUTES)));
   }
 
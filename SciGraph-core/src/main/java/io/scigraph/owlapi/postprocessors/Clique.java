@@ -118,6 +118,10 @@ public class Clique implements Postprocessor {
         tx = graphDb.beginTx();
       }
 
+      if (!baseNode.hasProperty(NodeProperties.IRI)) {
+        continue; // metadata nodes, such as the category catalog, are not concepts
+      }
+
       logger.fine("Processing Node - " + baseNode.getProperty(NodeProperties.IRI));
 
       if (!processedNodes.contains(baseNode.getId())) {
@@ -20,6 +20,8 @@ import static com.google.common.collect.Sets.newHashSet;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
@@ -87,6 +89,11 @@ public interface Vocabulary {
    */
   Set<String> getAllCategories();
 
+  /***
+   * @return the number of concepts in each category of the vocabulary
+   */
+  Map<String, Long> getCategoryCounts();
+
   /*** 
    * @return a collection of all known CURIE prefixes
    */
@@ -223,6 +230,27 @@ public interface Vocabulary {
       return categories;
     }
 
+    @Override
+    public int hashCode() {
+      return Objects.hash(input, limit, includeDeprecated, includeSynonyms, includeAcronyms,
+          includeAbbreviations, prefixes, categories);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Query)) {
+        return false;
+      }
+      Query other = (Query) obj;
+      return Objects.equals(input, other.input) && limit == other.limit
+          && includeDeprecated == other.includeDeprecated
+          && includeSynonyms == other.includeSynonyms
+          && includeAcronyms == other.includeAcronyms
+          && includeAbbreviations == other.includeAbbreviations
+          && Objects.equals(prefixes, other.prefixes)
+          && Objects.equals(categories, other.categories);
+    }
+
   }
 
 }
@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -37,10 +38,6 @@ import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.lucene.analysis.core.KeywordAnalyzer;
-import org.apache.lucene.index.DirectoryReader;
-import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.analyzing.AnalyzingQueryParser;
 import org.apache.lucene.queryparser.classic.ParseException;
@@ -51,10 +48,7 @@ import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.BooleanQuery.Builder;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.WildcardQuery;
-import org.apache.lucene.search.spell.LuceneDictionary;
 import org.apache.lucene.search.spell.SpellChecker;
-import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Result;
@@ -64,17 +58,19 @@ import org.prefixcommons.CurieUtil;
 
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
-import com.google.common.base.Supplier;
-import com.google.common.base.Suppliers;
 import com.google.common.collect.Iterables;
 
+import io.scigraph.cache.Cacheable;
 import io.scigraph.frames.CommonProperties;
 import io.scigraph.frames.Concept;
 import io.scigraph.frames.NodeProperties;
 import io.scigraph.lucene.LuceneUtils;
+import io.scigraph.lucene.SpellCheckerIndex;
 import io.scigraph.lucene.VocabularyQueryAnalyzer;
+import io.scigraph.neo4j.GraphVersion;
 import io.scigraph.neo4j.NodeTransformer;
 import io.scigraph.neo4j.bindings.IndicatesNeo4jGraphLocation;
+import io.scigraph.owlapi.CategoryCatalog;
 
 public class VocabularyNeo4jImpl implements Vocabulary {
 
@@ -84,27 +80,19 @@ public class VocabularyNeo4jImpl implements Vocabulary {
   private final SpellChecker spellChecker;
   private final CurieUtil curieUtil;
   private final NodeTransformer transformer;
+  private final GraphVersion version;
+  private volatile CategoryCounts categoryCounts;
 
   @Inject
   public VocabularyNeo4jImpl(GraphDatabaseService graph,
       @Nullable @IndicatesNeo4jGraphLocation String neo4jLocation, CurieUtil curieUtil,
-      NodeTransformer transformer) throws IOException {
+      NodeTransformer transformer, GraphVersion version) throws IOException {
     this.graph = graph;
+    this.version = version;
     this.curieUtil = curieUtil;
     this.transformer = transformer;
     if (null != neo4jLocation) {
-      Directory indexDirectory =
-          FSDirectory.open((new File(new File(neo4jLocation), "index/lucene/node/node_auto_index"))
-              .toPath());
-      Directory spellDirectory =
-          FSDirectory.open((new File(new File(neo4jLocation), "index/lucene/spellchecker"))
-              .toPath());
-      spellChecker = new SpellChecker(spellDirectory);
-      try (IndexReader reader = DirectoryReader.open(indexDirectory)) {
-        IndexWriterConfig config = new IndexWriterConfig(new KeywordAnalyzer());
-        spellChecker.indexDictionary(new LuceneDictionary(reader, NodeProperties.LABEL
-            + LuceneUtils.EXACT_SUFFIX), config, true);
-      }
+      spellChecker = SpellCheckerIndex.open(new File(neo4jLocation));
     } else {
       spellChecker = null;
     }
@@ -165,6 +153,7 @@ public class VocabularyNeo4jImpl implements Vocabulary {
   }
 
   @Override
+  @Cacheable
   public Optional<Concept> getConceptFromId(Query query) {
     String idQuery = StringUtils.strip(query.getInput(), "\"");
     idQuery = curieUtil.getIri(idQuery).orElse(idQuery);
@@ -182,6 +171,7 @@ public class VocabularyNeo4jImpl implements Vocabulary {
   }
 
   @Override
+  @Cacheable
   public List<Concept> getConceptsFromPrefix(Query query) {
     QueryParser parser = getQueryParser();
     // BooleanQuery finalQuery = new BooleanQuery();
@@ -228,6 +218,7 @@ public class VocabularyNeo4jImpl implements Vocabulary {
   }
 
   @Override
+  @Cacheable
   public List<Concept> searchConcepts(Query query) {
     QueryParser parser = getQueryParser();
     // BooleanQuery finalQuery = new BooleanQuery();
@@ -267,6 +258,7 @@ public class VocabularyNeo4jImpl implements Vocabulary {
   }
 
   @Override
+  @Cacheable
   public List<Concept> getConceptsFromTerm(Query query) {
     QueryParser parser = getQueryParser();
     // String exactQuery = String.format("\"\\^ %s $\"", query.getInput());
@@ -310,26 +302,57 @@ public class VocabularyNeo4jImpl implements Vocabulary {
 
   @Override
   public Set<String> getAllCategories() {
-    return Suppliers.memoize(new Supplier<Set<String>>() {
-      @Override
-      public Set<String> get() {
-        Result result =
-            graph.execute("START n = node(*) WHERE exists(n.category) RETURN distinct(n.category)");
-        Set<String> categories = new HashSet<>();
-        while (result.hasNext()) {
-          Map<String, Object> col = result.next();
-          Object category = col.get("(n.category)");
-          if (category.getClass().isArray()) {
-            for (String cat : (String[]) category) {
-              categories.add(cat);
-            }
-          } else {
-            categories.add((String) col.get("(n.category)"));
-          }
+    return getCategoryCounts().keySet();
+  }
+
+  /***
+   * Category counts are read from the {@link CategoryCatalog} written at load time, or counted
+   * once for graphs loaded without one, and cached until the graph changes.
+   */
+  @Override
+  public Map<String, Long> getCategoryCounts() {
+    long currentVersion = version.get();
+    CategoryCounts counts = categoryCounts;
+    if (null == counts || counts.version != currentVersion) {
+      try (Transaction tx = graph.beginTx()) {
+        Optional<Map<String, Long>> catalog = CategoryCatalog.read(graph);
+        counts = new CategoryCounts(currentVersion,
+            catalog.isPresent() ? catalog.get() : countCategories());
+        tx.success();
+      }
+      categoryCounts = counts;
+    }
+    return counts.counts;
+  }
+
+  Map<String, Long> countCategories() {
+    logger.info("No category catalog found, counting categories");
+    Result result =
+        graph.execute("MATCH (n) WHERE exists(n.category) RETURN n.category AS category");
+    Map<String, Long> counts = new TreeMap<>();
+    while (result.hasNext()) {
+      Object category = result.next().get("category");
+      if (category.getClass().isArray()) {
+        for (String cat : (String[]) category) {
+          counts.merge(cat, 1L, Long::sum);
         }
-        return categories;
+      } else {
+        counts.merge((String) category, 1L, Long::sum);
       }
-    }).get();
+    }
+    return Collections.unmodifiableMap(counts);
+  }
+
+  private static final class CategoryCounts {
+
+    final long version;
+    final Map<String, Long> counts;
+
+    CategoryCounts(long version, Map<String, Long> counts) {
+      this.version = version;
+      this.counts = counts;
+    }
+
   }
 
   @Override
@@ -338,6 +361,7 @@ public class VocabularyNeo4jImpl implements Vocabulary {
   }
 
   @Override
+  @Cacheable
   public List<String> getSuggestions(String query) {
     try {
       return newArrayList(spellChecker.suggestSimilar(query, 5));
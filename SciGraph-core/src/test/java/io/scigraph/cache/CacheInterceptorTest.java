@@ -17,6 +17,15 @@ package io.scigraph.cache;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Singleton;
 
@@ -25,63 +34,155 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.CacheBuilderSpec;
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Provides;
 
+import io.scigraph.neo4j.GraphVersion;
+
 public class CacheInterceptorTest {
 
   @Rule
   public ExpectedException exception = ExpectedException.none();
 
   Foo foo;
-  Cache<CacheableMethodInvocation, Object> cache;
+  MetricRegistry metrics = new MetricRegistry();
 
   @Before
   public void setup() {
-    cache = CacheBuilder.newBuilder().build();
-    Injector i = Guice.createInjector(new CacheModule(), new AbstractModule() {
+    Injector i = Guice.createInjector(
+        new CacheModule(ImmutableMap.of("Foo.slow", CacheBuilderSpec.parse("maximumSize=1"))),
+        new AbstractModule() {
 
-      @Override
-      protected void configure() {}
+          @Override
+          protected void configure() {}
 
-      @Provides
-      @Singleton
-      Cache<CacheableMethodInvocation, Object> getCache() {
-        return cache;
-      }
-    });
+          @Provides
+          @Singleton
+          MetricRegistry getMetrics() {
+            return metrics;
+          }
+        });
 
     foo = i.getInstance(Foo.class);
   }
 
+  long getCount(String method, String metric) {
+    return (Long) metrics.getGauges()
+        .get(MetricRegistry.name(CacheInterceptor.class, "Foo." + method, metric)).getValue();
+  }
+
   @Test
   public void cacheBehaves() {
-    assertThat(cache.size(), is(0L));
-    foo.multiply(3, 2);
-    assertThat(cache.size(), is(1L));
     foo.multiply(3, 2);
-    assertThat(cache.size(), is(1L));
+    assertThat(getCount("multiply(int,int)", "size"), is(1L));
+    assertThat(foo.multiply(3, 2), is(6));
+    assertThat(getCount("multiply(int,int)", "size"), is(1L));
+    assertThat(getCount("multiply(int,int)", "hits"), is(1L));
+    assertThat(foo.calls.get(), is(1));
+  }
+
+  @Test
+  public void specsArePerMethod() throws Exception {
+    foo.latch.countDown();
+    foo.slow(1);
+    foo.slow(2);
+    assertThat(getCount("slow(int)", "size"), is(1L));
+  }
+
+  @Test
+  public void nullResultsAreCached() {
+    foo.nothing();
+    foo.nothing();
+    assertThat(foo.calls.get(), is(1));
+  }
+
+  @Test
+  public void concurrentMissesAreCollapsed() throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    Future<?>[] futures = new Future<?>[4];
+    for (int j = 0; j < futures.length; j++) {
+      futures[j] = pool.submit(() -> foo.slow(1));
+    }
+    foo.latch.countDown();
+    for (Future<?> future : futures) {
+      future.get(10, TimeUnit.SECONDS);
+    }
+    pool.shutdown();
+    assertThat(foo.calls.get(), is(1));
+    assertThat(metrics.timer(MetricRegistry.name(CacheInterceptor.class, "Foo.slow(int)", "loads"))
+        .getCount(), is(1L));
+  }
+
+  @Test
+  public void overloadsAreCachedSeparately() {
+    assertThat(foo.multiply(3, 2), is(6));
+    assertThat(foo.multiply(3L, 2L), is(6L));
+    assertThat(getCount("multiply(int,int)", "size"), is(1L));
+    assertThat(getCount("multiply(long,long)", "size"), is(1L));
+  }
+
+  @Test
+  public void resultsAreDroppedWhenTheGraphChanges() {
+    GraphVersion version = mock(GraphVersion.class);
+    when(version.get()).thenReturn(1L, 1L, 2L);
+    Foo versioned = Guice.createInjector(new CacheModule(), new AbstractModule() {
+      @Override
+      protected void configure() {
+        bind(GraphVersion.class).toInstance(version);
+      }
+    }).getInstance(Foo.class);
+    versioned.multiply(3, 2);
+    versioned.multiply(3, 2);
+    assertThat(versioned.calls.get(), is(1));
+    versioned.multiply(3, 2);
+    assertThat(versioned.calls.get(), is(2));
   }
 
   @Test
   public void throwExceptionsAreNotCached() throws Exception {
-    assertThat(cache.size(), is(0L));
     exception.expect(Exception.class);
-    foo.thower();
-    assertThat(cache.size(), is(0L));
+    try {
+      foo.thower();
+    } finally {
+      assertThat(getCount("thower()", "size"), is(0L));
+    }
   }
 
   static class Foo {
 
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch latch = new CountDownLatch(1);
+
     @Cacheable
     int multiply(int a, int b) {
+      calls.incrementAndGet();
       return a * b;
     }
 
+    @Cacheable
+    long multiply(long a, long b) {
+      calls.incrementAndGet();
+      return a * b;
+    }
+
+    @Cacheable
+    int slow(int a) throws InterruptedException {
+      calls.incrementAndGet();
+      latch.await();
+      return a;
+    }
+
+    @Cacheable
+    Object nothing() {
+      calls.incrementAndGet();
+      return null;
+    }
+
     @Cacheable
     int thower() throws Exception {
       throw new Exception();
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.cache;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+
+import io.scigraph.neo4j.GraphVersion;
+
+public class GraphResultCacheTest {
+
+  GraphVersion version = mock(GraphVersion.class);
+  MetricRegistry metrics = new MetricRegistry();
+  GraphResultCache cache;
+  AtomicInteger loads = new AtomicInteger();
+
+  @Before
+  public void setup() {
+    when(version.get()).thenReturn(1L);
+    cache = new GraphResultCache(version, 100, metrics);
+  }
+
+  Graph load() {
+    loads.incrementAndGet();
+    return new TinkerGraph();
+  }
+
+  @Test
+  public void keys_areNormalized() {
+    assertThat(GraphResultCache.key("foo", newHashSet("b", "a"), 1),
+        is(GraphResultCache.key("foo", newHashSet("a", "b"), 1)));
+  }
+
+  @Test
+  public void results_areCached() {
+    List<Object> key = GraphResultCache.key("foo", 1);
+    Graph graph = cache.get(key, this::load);
+    assertThat(cache.get(key, this::load), is(sameInstance(graph)));
+    assertThat(loads.get(), is(1));
+    assertThat(metrics.getGauges().get(MetricRegistry.name(GraphResultCache.class, "hitRate"))
+        .getValue(), is((Object) 0.5));
+  }
+
+  @Test
+  public void versionChanges_clearTheCache() {
+    List<Object> key = GraphResultCache.key("foo", 1);
+    cache.get(key, this::load);
+    when(version.get()).thenReturn(2L);
+    cache.get(key, this::load);
+    assertThat(loads.get(), is(2));
+  }
+
+  @Test
+  public void uncacheableResults_areNotCached() {
+    List<Object> key = GraphResultCache.key("foo", 1);
+    Graph graph = cache.get(key, this::load, () -> false);
+    assertThat(cache.get(key, this::load, () -> false), is(not(sameInstance(graph))));
+    assertThat(loads.get(), is(2));
+  }
+
+  @Test
+  public void heavyResults_areEvicted() {
+    Graph heavy = new TinkerGraph();
+    for (int i = 0; i < 200; i++) {
+      heavy.addVertex(i);
+    }
+    cache.get(GraphResultCache.key("heavy"), () -> heavy);
+    @SuppressWarnings("unchecked")
+    Gauge<Long> size =
+        metrics.getGauges().get(MetricRegistry.name(GraphResultCache.class, "size"));
+    assertThat(size.getValue(), is(0L));
+  }
+
+}
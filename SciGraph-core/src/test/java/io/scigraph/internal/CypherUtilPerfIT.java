@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import java.util.Collections;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+import org.prefixcommons.CurieUtil;
+
+import com.carrotsearch.junitbenchmarks.AbstractBenchmark;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+import io.scigraph.frames.NodeProperties;
+import io.scigraph.owlapi.OwlRelationships;
+
+/***
+ * Compares rewriting a relationship template for every request with the resolved query cache.
+ */
+@BenchmarkOptions(benchmarkRounds = 20, warmupRounds = 5)
+public class CypherUtilPerfIT extends AbstractBenchmark {
+
+  @ClassRule
+  public static ImpermanentDatabaseRule graphDb = new ImpermanentDatabaseRule();
+
+  static final int PROPERTY_COUNT = 50;
+  static final int REQUESTS = 10_000;
+  static final String QUERY = "START n=node:node_auto_index(iri={id}) "
+      + "MATCH (n)-[r:${rel}!]-(m)-[:X:p1|X:p2*1..2]-(o) RETURN n, r, m, o";
+
+  static CypherUtil cypherUtil;
+  static Multimap<String, Object>[] params;
+
+  @BeforeClass
+  @SuppressWarnings("unchecked")
+  public static void setup() {
+    try (Transaction tx = graphDb.beginTx()) {
+      Node root = graphDb.createNode();
+      root.setProperty(NodeProperties.IRI, "http://x.org/p0");
+      for (int i = 1; i < PROPERTY_COUNT; i++) {
+        Node property = graphDb.createNode();
+        property.setProperty(NodeProperties.IRI, "http://x.org/p" + i);
+        property.createRelationshipTo(root, OwlRelationships.RDFS_SUB_PROPERTY_OF);
+      }
+      tx.success();
+    }
+    CurieUtil curieUtil = new CurieUtil(Collections.singletonMap("X", "http://x.org/"));
+    cypherUtil = new CypherUtil(graphDb, curieUtil);
+    params = new Multimap[REQUESTS];
+    for (int i = 0; i < REQUESTS; i++) {
+      params[i] = HashMultimap.create();
+      params[i].put("id", "http://x.org/n" + i);
+      params[i].put("rel", "X:p" + (i % 4));
+    }
+  }
+
+  @Test
+  public void rewriteEveryRequest() {
+    for (Multimap<String, Object> param : params) {
+      cypherUtil.resolveRelationships(cypherUtil.substituteRelationships(QUERY, param));
+    }
+  }
+
+  @Test
+  public void resolvedQueryCache() {
+    for (Multimap<String, Object> param : params) {
+      cypherUtil.resolveQuery(QUERY, param);
+    }
+  }
+
+}
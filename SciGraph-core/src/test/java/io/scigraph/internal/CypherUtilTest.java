@@ -19,6 +19,7 @@ import static com.google.common.collect.Collections2.transform;
 import static com.google.common.collect.Sets.newHashSet;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.isOneOf;
 import static org.mockito.Matchers.anyString;
@@ -232,4 +233,26 @@ public class CypherUtilTest extends GraphTestBase {
     String cypher = "foo";
     assertThat(util.resolveNodeIris(cypher), IsEqual.equalTo("foo"));
   }
+
+  @Test
+  public void resolvedQueries_onlyDependOnTemplateValues() {
+    String query = "MATCH (n {iri: {id}})-[:${rel_id}!]-(m) RETURN m";
+    Multimap<String, Object> params = HashMultimap.create();
+    params.put("rel_id", "FOO:foo");
+    params.put("id", "http://x.org/#1");
+    String resolved = util.resolveQuery(query, params);
+    assertThat(resolved, is(util.resolveRelationships(util.substituteRelationships(query, params))));
+    params.replaceValues("id", newHashSet("http://x.org/#2"));
+    assertThat(util.resolveQuery(query, params), is(resolved));
+    params.replaceValues("rel_id", newHashSet("http://x.org/#bar"));
+    assertThat(util.resolveQuery(query, params),
+        is("MATCH (n {iri: {id}})-[:`http://x.org/#bar`|`http://x.org/#baz`]-(m) RETURN m"));
+  }
+
+  @Test
+  public void templateVariables_areExtracted() {
+    assertThat(CypherUtil.getTemplateVariables("(a)-[:${x}]-(b)-[:${y:-foo}|${x}]-(c) {z}"),
+        contains("x", "y"));
+  }
+
 }
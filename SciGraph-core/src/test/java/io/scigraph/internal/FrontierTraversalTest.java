@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+import org.prefixcommons.CurieUtil;
+
+import io.scigraph.frames.NodeProperties;
+import io.scigraph.owlapi.OwlRelationships;
+
+public class FrontierTraversalTest {
+
+  @ClassRule
+  public static ImpermanentDatabaseRule graphDb = new ImpermanentDatabaseRule();
+
+  static final RelationshipType type = RelationshipType.withName("foo");
+  static final int WIDTH = FrontierTraversal.PARALLEL_FRONTIER_SIZE + 500;
+
+  static long root, leaf, part, whole, component;
+  static CypherUtil cypherUtil;
+  static final AtomicInteger executorThreads = new AtomicInteger();
+  static final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+    executorThreads.incrementAndGet();
+    return new Thread(runnable);
+  });
+
+  @BeforeClass
+  public static void setup() {
+    cypherUtil = new CypherUtil(graphDb,
+        new CurieUtil(Collections.singletonMap("X", "http://x.org/")));
+    try (Transaction tx = graphDb.beginTx()) {
+      Node rootNode = graphDb.createNode();
+      Node leafNode = graphDb.createNode();
+      for (int i = 0; i < WIDTH; i++) {
+        Node child = graphDb.createNode();
+        rootNode.createRelationshipTo(child, type);
+        child.createRelationshipTo(leafNode, type);
+      }
+      root = rootNode.getId();
+      leaf = leafNode.getId();
+      Node partOf = graphDb.createNode();
+      partOf.setProperty(NodeProperties.IRI, "http://x.org/part_of");
+      Node componentOf = graphDb.createNode();
+      componentOf.setProperty(NodeProperties.IRI, "http://x.org/component_of");
+      componentOf.createRelationshipTo(partOf, OwlRelationships.RDFS_SUB_PROPERTY_OF);
+      Node partNode = graphDb.createNode();
+      Node wholeNode = graphDb.createNode();
+      Node componentNode = graphDb.createNode();
+      partNode.createRelationshipTo(wholeNode, RelationshipType.withName("http://x.org/part_of"));
+      partNode.createRelationshipTo(componentNode,
+          RelationshipType.withName("http://x.org/component_of"));
+      part = partNode.getId();
+      whole = wholeNode.getId();
+      component = componentNode.getId();
+      tx.success();
+    }
+  }
+
+  @AfterClass
+  public static void teardown() {
+    executor.shutdown();
+  }
+
+  /***
+   * @return the nodes reached by step the way Cypher does it
+   */
+  static long[] followCypher(long id, String step) {
+    return new FrontierTraversal(graphDb, cypherUtil, executor, Integer.MAX_VALUE)
+        .followCypher(new long[] {id}, step);
+  }
+
+  @Test
+  public void stepsAreParsed() {
+    FrontierTraversal.Step step = FrontierTraversal.Step.parse(":foo|`bar`*").get();
+    assertThat(step.types, contains("foo", "bar"));
+    assertThat(step.entailed, is(false));
+    assertThat(step.repeated, is(true));
+    assertThat(FrontierTraversal.Step.parse("X:foo!").get().entailed, is(true));
+    assertThat(FrontierTraversal.Step.parse("foo*1..2"), is(Optional.empty()));
+  }
+
+  @Test
+  public void wideFrontiers_areExpandedInParallel() {
+    FrontierTraversal traversal =
+        new FrontierTraversal(graphDb, cypherUtil, executor, Integer.MAX_VALUE);
+    try (Transaction tx = graphDb.beginTx()) {
+      long[] frontier = traversal.follow(new long[] {root}, newArrayList("foo"));
+      assertThat(frontier.length, is(WIDTH));
+      assertThat(traversal.follow(frontier, newArrayList("foo")), is(new long[] {leaf}));
+    }
+    assertThat(executorThreads.get(), is(2));
+  }
+
+  @Test
+  public void repeatedSteps_reachEveryDescendant() {
+    FrontierTraversal traversal =
+        new FrontierTraversal(graphDb, cypherUtil, executor, Integer.MAX_VALUE);
+    try (Transaction tx = graphDb.beginTx()) {
+      assertThat(traversal.follow(new long[] {root}, newArrayList("foo*")).length, is(WIDTH + 1));
+    }
+  }
+
+  @Test
+  public void curieSteps_areResolved() {
+    FrontierTraversal traversal =
+        new FrontierTraversal(graphDb, cypherUtil, executor, Integer.MAX_VALUE);
+    try (Transaction tx = graphDb.beginTx()) {
+      long[] reached = traversal.follow(new long[] {part}, newArrayList("X:part_of"));
+      assertThat(reached, is(new long[] {whole}));
+      assertThat(reached, is(followCypher(part, "X:part_of")));
+    }
+  }
+
+  @Test
+  public void entailedSteps_followSubProperties() {
+    FrontierTraversal traversal =
+        new FrontierTraversal(graphDb, cypherUtil, executor, Integer.MAX_VALUE);
+    try (Transaction tx = graphDb.beginTx()) {
+      long[] reached = traversal.follow(new long[] {part}, newArrayList("X:part_of!"));
+      assertThat(reached.length, is(2));
+      assertThat(reached, is(followCypher(part, "X:part_of!")));
+    }
+  }
+
+  @Test(expected = TraversalBudgetExceededException.class)
+  public void budget_isEnforced() {
+    FrontierTraversal traversal =
+        new FrontierTraversal(graphDb, cypherUtil, executor, WIDTH);
+    try (Transaction tx = graphDb.beginTx()) {
+      traversal.follow(new long[] {root}, newArrayList("foo", "foo"));
+    }
+  }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+import org.prefixcommons.CurieUtil;
+
+import com.carrotsearch.junitbenchmarks.AbstractBenchmark;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+
+import io.scigraph.frames.NodeProperties;
+import io.scigraph.neo4j.Neo4jConfiguration;
+import io.scigraph.neo4j.Neo4jModule;
+
+/***
+ * Compares the unlabelled Cypher IRI match that getNode used to run with the auto index and
+ * cached lookups.
+ */
+@BenchmarkOptions(benchmarkRounds = 20, warmupRounds = 5)
+public class GraphApiGetNodePerfIT extends AbstractBenchmark {
+
+  @ClassRule
+  public static ImpermanentDatabaseRule graphDb = new ImpermanentDatabaseRule();
+
+  static final int NODE_COUNT = 20_000;
+  static final int LOOKUPS = 200;
+
+  static GraphApi graphApi;
+  static String[] iris = new String[LOOKUPS];
+
+  @BeforeClass
+  public static void setup() {
+    Neo4jModule.setupAutoIndexing(graphDb, new Neo4jConfiguration());
+    try (Transaction tx = graphDb.beginTx()) {
+      for (int i = 0; i < NODE_COUNT; i++) {
+        Node node = graphDb.createNode();
+        node.setProperty(NodeProperties.IRI, "http://example.org/" + i);
+      }
+      tx.success();
+    }
+    Random random = new Random(0);
+    for (int i = 0; i < LOOKUPS; i++) {
+      iris[i] = "http://example.org/" + random.nextInt(NODE_COUNT);
+    }
+    CurieUtil curieUtil = new CurieUtil(Collections.<String, String>emptyMap());
+    graphApi = new GraphApi(graphDb, new CypherUtil(graphDb, curieUtil), curieUtil);
+  }
+
+  @Test
+  public void unlabelledCypherMatch() {
+    try (Transaction tx = graphDb.beginTx()) {
+      for (String iri : iris) {
+        graphDb.execute("MATCH (n {" + NodeProperties.IRI + ": \"" + iri + "\"}) RETURN n")
+            .hasNext();
+      }
+      tx.success();
+    }
+  }
+
+  @Test
+  public void autoIndexLookup() {
+    try (Transaction tx = graphDb.beginTx()) {
+      for (String iri : iris) {
+        graphApi.findNodeByIri(iri);
+      }
+      tx.success();
+    }
+  }
+
+  @Test
+  public void cachedLookup() {
+    try (Transaction tx = graphDb.beginTx()) {
+      for (String iri : iris) {
+        graphApi.getNode(iri, Optional.empty());
+      }
+      tx.success();
+    }
+  }
+
+}
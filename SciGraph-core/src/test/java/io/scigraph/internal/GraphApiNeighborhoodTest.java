@@ -15,17 +15,24 @@
  */
 package io.scigraph.internal;
 
+import static com.google.common.collect.Iterables.size;
 import static com.google.common.collect.Sets.newHashSet;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.hamcrest.collection.IsIterableWithSize;
 import org.junit.Before;
 import org.junit.Test;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.RelationshipType;
 
 import com.google.common.base.Predicate;
@@ -124,4 +131,83 @@ public class GraphApiNeighborhoodTest extends GraphTestBase {
     assertThat(graph.getEdges(), IsIterableWithSize.<Edge>iterableWithSize(4));
   }
 
+  @Test
+  public void relationshipBudget_truncatesTheNeighborhood() {
+    TraversalBudget budget = new TraversalBudget(2, Long.MAX_VALUE, Long.MAX_VALUE);
+    Graph graph = graphApi.getNeighbors(newHashSet(b), 10,
+        Collections.<DirectedRelationshipType>emptySet(), absent, budget);
+    assertThat(graph.getEdges(), IsIterableWithSize.<Edge>iterableWithSize(2));
+    assertThat(budget.getExceededLimit(), is(Optional.of(TraversalBudget.Limit.RELATIONSHIPS)));
+  }
+
+  @Test
+  public void nodeBudget_truncatesTheNeighborhood() {
+    TraversalBudget budget = new TraversalBudget(Long.MAX_VALUE, 3, Long.MAX_VALUE);
+    Graph graph = graphApi.getNeighbors(newHashSet(b), 10,
+        Collections.<DirectedRelationshipType>emptySet(), absent, budget);
+    assertThat(graph.getVertices(), IsIterableWithSize.<Vertex>iterableWithSize(3));
+    assertThat(budget.getExceededLimit(), is(Optional.of(TraversalBudget.Limit.NODES)));
+  }
+
+  @Test
+  public void deadline_truncatesTheNeighborhood() {
+    TraversalBudget budget = new TraversalBudget(Long.MAX_VALUE, Long.MAX_VALUE, -1);
+    Graph graph = graphApi.getNeighbors(newHashSet(b), 10,
+        Collections.<DirectedRelationshipType>emptySet(), absent, budget);
+    assertThat(graph.getEdges(), IsIterableWithSize.<Edge>iterableWithSize(0));
+    assertThat(budget.getExceededLimit(), is(Optional.of(TraversalBudget.Limit.DEADLINE)));
+  }
+
+  @Test
+  public void sufficientBudgets_areNotExceeded() {
+    TraversalBudget budget = new TraversalBudget(100, 100, 60_000);
+    graphApi.getNeighbors(newHashSet(b), 10, Collections.<DirectedRelationshipType>emptySet(),
+        absent, budget);
+    assertThat(budget.isExhausted(), is(false));
+  }
+
+  @Test
+  public void streamedNeighborhoods_matchTheGraph() {
+    final Set<Long> nodes = new HashSet<>();
+    final List<Long> edges = new ArrayList<>();
+    graphApi.streamNeighbors(newHashSet(b, i), 10,
+        Collections.<DirectedRelationshipType>emptySet(), absent, TraversalBudget.unlimited(),
+        SupernodePolicy.NONE, new GraphSink() {
+          @Override
+          public void node(Node node) {
+            assertThat(nodes.add(node.getId()), is(true));
+          }
+
+          @Override
+          public void edge(Relationship relationship) {
+            assertThat(nodes.contains(relationship.getStartNodeId()), is(true));
+            assertThat(nodes.contains(relationship.getEndNodeId()), is(true));
+            edges.add(relationship.getId());
+          }
+        });
+    Graph graph = graphApi.getNeighbors(newHashSet(b, i), 10,
+        Collections.<DirectedRelationshipType>emptySet(), absent);
+    assertThat(nodes.size(), is(size(graph.getVertices())));
+    assertThat(new HashSet<>(edges).size(), is(edges.size()));
+    assertThat(edges.size(), is(size(graph.getEdges())));
+  }
+
+  @Test
+  public void streamedRoots_areSentWithoutRelationships() {
+    final List<Node> nodes = new ArrayList<>();
+    graphApi.streamNeighbors(newHashSet(f), 1, Collections.<DirectedRelationshipType>emptySet(),
+        absent, TraversalBudget.unlimited(), SupernodePolicy.NONE, new GraphSink() {
+          @Override
+          public void node(Node node) {
+            nodes.add(node);
+          }
+
+          @Override
+          public void edge(Relationship relationship) {
+            throw new AssertionError();
+          }
+        });
+    assertThat(nodes, is(Collections.singletonList(f)));
+  }
+
 }
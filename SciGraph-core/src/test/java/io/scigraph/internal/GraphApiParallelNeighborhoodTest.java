@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import static com.google.common.collect.Iterables.size;
+import static com.google.common.collect.Sets.newHashSet;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+import org.prefixcommons.CurieUtil;
+
+import com.google.common.base.Predicate;
+import com.tinkerpop.blueprints.Graph;
+
+import io.scigraph.frames.NodeProperties;
+import io.scigraph.neo4j.DirectedRelationshipType;
+import io.scigraph.neo4j.Neo4jConfiguration;
+import io.scigraph.neo4j.Neo4jModule;
+import io.scigraph.owlapi.OwlRelationships;
+
+public class GraphApiParallelNeighborhoodTest {
+
+  @ClassRule
+  public static ImpermanentDatabaseRule graphDb = new ImpermanentDatabaseRule();
+
+  static final int ROOTS = 40;
+
+  static GraphApi graphApi;
+  static CurieUtil curieUtil;
+  static Set<Long> roots = new HashSet<>();
+  static Optional<Predicate<Node>> absent = Optional.empty();
+  static Set<DirectedRelationshipType> allTypes = Collections.emptySet();
+
+  @BeforeClass
+  public static void setup() {
+    Neo4jModule.setupAutoIndexing(graphDb, new Neo4jConfiguration());
+    try (Transaction tx = graphDb.beginTx()) {
+      Node shared = graphDb.createNode();
+      for (int i = 0; i < ROOTS; i++) {
+        Node root = graphDb.createNode();
+        root.setProperty(NodeProperties.IRI, "http://example.org/" + i);
+        Node child = graphDb.createNode();
+        child.createRelationshipTo(root, OwlRelationships.RDFS_SUBCLASS_OF);
+        root.createRelationshipTo(shared, OwlRelationships.RDFS_SUBCLASS_OF);
+        roots.add(root.getId());
+      }
+      tx.success();
+    }
+    curieUtil = new CurieUtil(Collections.<String, String>emptyMap());
+    graphApi = new GraphApi(graphDb, new CypherUtil(graphDb, curieUtil), curieUtil);
+  }
+
+  static Set<Node> getRoots() {
+    Set<Node> nodes = new HashSet<>();
+    for (long id : roots) {
+      nodes.add(graphDb.getNodeById(id));
+    }
+    return nodes;
+  }
+
+  @Test
+  public void parallelNeighborhood_isTheSequentialNeighborhood() {
+    try (Transaction tx = graphDb.beginTx()) {
+      Graph sequential = graphApi.getNeighbors(getRoots(), 2, allTypes, absent);
+      Graph parallel = graphApi.getNeighborsInParallel(getRoots(), 2, allTypes, absent,
+          TraversalBudget.unlimited(), SupernodePolicy.NONE);
+      assertThat(size(parallel.getVertices()), is(size(sequential.getVertices())));
+      assertThat(size(parallel.getEdges()), is(size(sequential.getEdges())));
+      assertThat(size(parallel.getEdges()), is(2 * ROOTS));
+      assertThat(size(parallel.getVertices()), is(2 * ROOTS + 1));
+    }
+  }
+
+  @Test
+  public void partitions_runOnTheTraversalExecutor() {
+    AtomicInteger threads = new AtomicInteger();
+    ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+      threads.incrementAndGet();
+      return new Thread(runnable);
+    });
+    GraphApi api = new GraphApi(graphDb, new CypherUtil(graphDb, curieUtil), curieUtil,
+        Optional.empty(), executor);
+    try (Transaction tx = graphDb.beginTx()) {
+      Graph graph = api.getNeighborsInParallel(getRoots(), 2, allTypes, absent,
+          TraversalBudget.unlimited(), SupernodePolicy.NONE);
+      assertThat(size(graph.getEdges()), is(2 * ROOTS));
+      assertThat(threads.get(), is(1));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void relationshipBudget_truncatesTheNeighborhood() {
+    try (Transaction tx = graphDb.beginTx()) {
+      TraversalBudget budget = new TraversalBudget(ROOTS, Long.MAX_VALUE, Long.MAX_VALUE);
+      Graph graph = graphApi.getNeighborsInParallel(getRoots(), 1, allTypes, absent, budget,
+          SupernodePolicy.NONE);
+      assertThat(budget.getExceededLimit(), is(Optional.of(TraversalBudget.Limit.RELATIONSHIPS)));
+      assertThat(size(graph.getEdges()), is(lessThanOrEqualTo(ROOTS)));
+    }
+  }
+
+  @Test
+  public void nodeBudget_truncatesTheNeighborhood() {
+    try (Transaction tx = graphDb.beginTx()) {
+      TraversalBudget budget = new TraversalBudget(Long.MAX_VALUE, ROOTS, Long.MAX_VALUE);
+      Graph graph = graphApi.getNeighborsInParallel(getRoots(), 1, allTypes, absent, budget,
+          SupernodePolicy.NONE);
+      assertThat(budget.getExceededLimit(), is(Optional.of(TraversalBudget.Limit.NODES)));
+      assertThat(size(graph.getVertices()), is(lessThanOrEqualTo(ROOTS)));
+    }
+  }
+
+  @Test
+  public void rootsAreResolvedInBulk() {
+    assertThat(graphApi.getNodes(newHashSet("http://example.org/0", "http://example.org/none"))
+        .keySet(), contains("http://example.org/0"));
+  }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+import org.prefixcommons.CurieUtil;
+
+import com.carrotsearch.junitbenchmarks.AbstractBenchmark;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.google.common.base.Predicate;
+
+import io.scigraph.internal.SupernodePolicy.Behaviour;
+import io.scigraph.neo4j.DirectedRelationshipType;
+import io.scigraph.owlapi.OwlRelationships;
+
+/***
+ * Compares neighborhood expansions around hubs with and without a supernode policy.
+ */
+@BenchmarkOptions(benchmarkRounds = 10, warmupRounds = 3)
+public class GraphApiSupernodePerfIT extends AbstractBenchmark {
+
+  @ClassRule
+  public static ImpermanentDatabaseRule graphDb = new ImpermanentDatabaseRule();
+
+  static final int HUBS = 5;
+  static final int HUB_DEGREE = 50_000;
+  static final int ROOTS_PER_HUB = 4;
+  static final int THRESHOLD = 1_000;
+  static final RelationshipType TYPE = RelationshipType.withName("type");
+
+  static GraphApi graphApi;
+  static Set<Long> roots = new HashSet<>();
+  static Optional<Predicate<Node>> absent = Optional.empty();
+  static Set<DirectedRelationshipType> allTypes = Collections.emptySet();
+
+  @BeforeClass
+  public static void setup() {
+    try (Transaction tx = graphDb.beginTx()) {
+      Node top = graphDb.createNode();
+      for (int i = 0; i < HUBS; i++) {
+        Node hub = graphDb.createNode();
+        hub.createRelationshipTo(top, OwlRelationships.RDFS_SUBCLASS_OF);
+        for (int j = 0; j < HUB_DEGREE; j++) {
+          graphDb.createNode().createRelationshipTo(hub, TYPE);
+        }
+        for (int j = 0; j < ROOTS_PER_HUB; j++) {
+          Node root = graphDb.createNode();
+          root.createRelationshipTo(hub, OwlRelationships.RDFS_SUBCLASS_OF);
+          roots.add(root.getId());
+        }
+      }
+      tx.success();
+    }
+    CurieUtil curieUtil = new CurieUtil(Collections.<String, String>emptyMap());
+    graphApi = new GraphApi(graphDb, new CypherUtil(graphDb, curieUtil), curieUtil);
+  }
+
+  void expand(SupernodePolicy policy) {
+    try (Transaction tx = graphDb.beginTx()) {
+      for (long id : roots) {
+        graphApi.getNeighbors(Collections.singleton(graphDb.getNodeById(id)), 2, allTypes,
+            absent, TraversalBudget.unlimited(), policy);
+      }
+      tx.success();
+    }
+  }
+
+  @Test
+  public void expandSupernodes() {
+    expand(SupernodePolicy.NONE);
+  }
+
+  @Test
+  public void skipSupernodes() {
+    expand(new SupernodePolicy(Behaviour.SKIP, THRESHOLD, 0, allTypes));
+  }
+
+  @Test
+  public void sampleSupernodes() {
+    expand(new SupernodePolicy(Behaviour.SAMPLE, THRESHOLD, 100, allTypes));
+  }
+
+  @Test
+  public void typedSupernodes() {
+    expand(new SupernodePolicy(Behaviour.TYPED, THRESHOLD, 0, Collections.singleton(
+        new DirectedRelationshipType(OwlRelationships.RDFS_SUBCLASS_OF, Direction.OUTGOING))));
+  }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import static com.google.common.collect.Iterables.size;
+import static com.google.common.collect.Sets.newHashSet;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+
+import com.google.common.base.Predicate;
+import com.tinkerpop.blueprints.Graph;
+
+import io.scigraph.internal.SupernodePolicy.Behaviour;
+import io.scigraph.neo4j.DirectedRelationshipType;
+import io.scigraph.owlapi.OwlRelationships;
+import io.scigraph.util.GraphTestBase;
+
+public class GraphApiSupernodeTest extends GraphTestBase {
+
+  static final int INSTANCES = 20;
+  static final RelationshipType TYPE = RelationshipType.withName("type");
+
+  GraphApi graphApi;
+  Node root, hub;
+  Optional<Predicate<Node>> absent = Optional.empty();
+  Set<DirectedRelationshipType> allTypes = Collections.emptySet();
+  Set<DirectedRelationshipType> superClasses = Collections.singleton(
+      new DirectedRelationshipType(OwlRelationships.RDFS_SUBCLASS_OF, Direction.OUTGOING));
+
+  @Before
+  public void setup() {
+    root = graphDb.createNode();
+    hub = graphDb.createNode();
+    Node top = graphDb.createNode();
+    root.createRelationshipTo(hub, OwlRelationships.RDFS_SUBCLASS_OF);
+    hub.createRelationshipTo(top, OwlRelationships.RDFS_SUBCLASS_OF);
+    for (int i = 0; i < INSTANCES; i++) {
+      graphDb.createNode().createRelationshipTo(hub, TYPE);
+    }
+    graphApi = new GraphApi(graphDb, cypherUtil, curieUtil);
+  }
+
+  Graph neighbors(Node start, Set<DirectedRelationshipType> types, SupernodePolicy policy) {
+    return graphApi.getNeighbors(newHashSet(start), 2, types, absent,
+        TraversalBudget.unlimited(), policy);
+  }
+
+  @Test
+  public void supernodes_areExpandedByDefault() {
+    assertThat(size(neighbors(root, allTypes, SupernodePolicy.NONE).getEdges()),
+        is(INSTANCES + 2));
+  }
+
+  @Test
+  public void supernodes_areSkipped() {
+    SupernodePolicy policy = new SupernodePolicy(Behaviour.SKIP, 10, 0, allTypes);
+    assertThat(size(neighbors(root, allTypes, policy).getEdges()), is(1));
+  }
+
+  @Test
+  public void supernodeRoots_areNotSkipped() {
+    SupernodePolicy policy = new SupernodePolicy(Behaviour.SKIP, 10, 0, allTypes);
+    assertThat(size(neighbors(hub, allTypes, policy).getEdges()), is(INSTANCES + 2));
+  }
+
+  @Test
+  public void supernodes_areSampled() {
+    SupernodePolicy policy = new SupernodePolicy(Behaviour.SAMPLE, 10, 5, allTypes);
+    Graph graph = neighbors(root, allTypes, policy);
+    assertThat(size(graph.getEdges()) > 1 && size(graph.getEdges()) <= 6, is(true));
+  }
+
+  @Test
+  public void supernodes_areOnlyExpandedAlongSupernodeTypes() {
+    SupernodePolicy policy = new SupernodePolicy(Behaviour.TYPED, 10, 0, superClasses);
+    assertThat(size(neighbors(root, allTypes, policy).getEdges()), is(2));
+  }
+
+  @Test
+  public void degrees_onlyCountFollowedTypes() {
+    assertThat(SupernodePolicy.degree(hub, allTypes), is(INSTANCES + 2));
+    assertThat(SupernodePolicy.degree(hub, superClasses), is(1));
+    SupernodePolicy policy = new SupernodePolicy(Behaviour.SKIP, 10, 0, allTypes);
+    assertThat(size(neighbors(root, superClasses, policy).getEdges()), is(2));
+  }
+
+}
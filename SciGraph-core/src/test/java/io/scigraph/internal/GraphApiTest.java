@@ -17,14 +17,21 @@ package io.scigraph.internal;
 
 import static com.google.common.collect.Iterables.getFirst;
 import static com.google.common.collect.Iterables.getLast;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Iterables.size;
+import static com.google.common.collect.Sets.newHashSet;
 import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Before;
 import org.junit.Ignore;
@@ -32,10 +39,15 @@ import org.junit.Test;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.prefixcommons.CurieUtil;
 
+import com.codahale.metrics.MetricRegistry;
 import com.tinkerpop.blueprints.Graph;
 
 import io.scigraph.frames.NodeProperties;
+import io.scigraph.internal.hierarchy.HierarchyCache;
 import io.scigraph.neo4j.DirectedRelationshipType;
 import io.scigraph.owlapi.OwlRelationships;
 import io.scigraph.util.GraphTestBase;
@@ -69,6 +81,20 @@ public class GraphApiTest extends GraphTestBase {
     assertThat(entailment, contains(a, b));
   }
 
+  @Test
+  public void indexedEntailment_isReturned() {
+    HierarchyCache cache = new HierarchyCache(graphDb,
+        newHashSet(OwlRelationships.RDFS_SUBCLASS_OF.name()), new MetricRegistry());
+    GraphApi indexedApi = new GraphApi(graphDb, cypherUtil, curieUtil, Optional.of(cache),
+        ForkJoinPool.commonPool());
+    Collection<Node> entailment = indexedApi.getEntailment(a,
+        new DirectedRelationshipType(OwlRelationships.RDFS_SUBCLASS_OF, Direction.INCOMING), false);
+    assertThat(entailment, containsInAnyOrder(a, b));
+    entailment = indexedApi.getEntailment(b,
+        new DirectedRelationshipType(OwlRelationships.RDFS_SUBCLASS_OF, Direction.OUTGOING), false);
+    assertThat(entailment, containsInAnyOrder(a, b));
+  }
+
   @Test
   public void equivalentEntailment_isReturned() {
     Collection<Node> entailment = graphApi.getEntailment(a,
@@ -104,6 +130,52 @@ public class GraphApiTest extends GraphTestBase {
     assertThat(size(graph.getEdges()), is(1));
   }
 
+  @Test
+  public void edges_arePagedByRelationshipId() {
+    Node d = graphDb.createNode();
+    d.setProperty(NodeProperties.IRI, "d");
+    Relationship second = d.createRelationshipTo(a, OwlRelationships.RDFS_SUBCLASS_OF);
+    List<Relationship> visited = new ArrayList<>();
+    long cursor = graphApi.forEachEdge(OwlRelationships.RDFS_SUBCLASS_OF, false, -1L, 1L,
+        visited::add);
+    assertThat(visited, contains(b.getSingleRelationship(OwlRelationships.RDFS_SUBCLASS_OF,
+        Direction.OUTGOING)));
+    graphApi.forEachEdge(OwlRelationships.RDFS_SUBCLASS_OF, false, cursor, 1L, visited::add);
+    assertThat(getLast(visited), is(second));
+    assertThat(graphApi.forEachEdge(OwlRelationships.RDFS_SUBCLASS_OF, false, second.getId(), 1L,
+        visited::add), is(GraphApi.NO_MORE_EDGES));
+    assertThat(visited.size(), is(2));
+  }
+
+  @Test
+  public void edgePages_skipDeletedRelationships() {
+    RelationshipType type = RelationshipType.withName("gap");
+    Relationship first = b.createRelationshipTo(a, type);
+    Relationship second = c.createRelationshipTo(a, type);
+    // ids may be reused, so creation order does not tell which one is lower
+    Relationship deleted = (first.getId() < second.getId()) ? first : second;
+    Relationship kept = (deleted == first) ? second : first;
+    deleted.delete();
+    List<Relationship> visited = new ArrayList<>();
+    long cursor = graphApi.forEachEdge(type, false, deleted.getId() - 1, 1L, visited::add);
+    assertThat(visited, contains(kept));
+    assertThat(cursor, is(kept.getId()));
+    assertThat(graphApi.forEachEdge(type, false, cursor, 1L, visited::add),
+        is(GraphApi.NO_MORE_EDGES));
+  }
+
+  @Test
+  public void curieEdgeTypes_areResolvedByBothPagingModes() {
+    CurieUtil curies = new CurieUtil(Collections.singletonMap("X", "http://x.org/"));
+    GraphApi curieApi = new GraphApi(graphDb, new CypherUtil(graphDb, curies), curies);
+    Relationship edge = b.createRelationshipTo(c, RelationshipType.withName("http://x.org/foo"));
+    Graph graph = curieApi.getEdges(RelationshipType.withName("X:foo"), false, 0L, 10L);
+    assertThat(getOnlyElement(graph.getEdges()).getId(), is((Object) Long.toString(edge.getId())));
+    List<Relationship> visited = new ArrayList<>();
+    curieApi.forEachEdge(RelationshipType.withName("X:foo"), false, -1L, 10L, visited::add);
+    assertThat(visited, contains(edge));
+  }
+
   @Test
   public void getReachableNodes_areReturned() {
     Graph graph = graphApi.getReachableNodes(b,
@@ -149,6 +221,41 @@ public class GraphApiTest extends GraphTestBase {
     assertThat(size(graph.getEdges()), is(0));
   }
   
+  @Test
+  public void getReachableNodes_followsRepeatedSteps() {
+    Graph graph = graphApi.getReachableNodes(c,
+        Lists.newArrayList(OwlRelationships.OWL_EQUIVALENT_CLASS.name() + "|"
+            + OwlRelationships.RDFS_SUBCLASS_OF.name() + "*"),
+        Sets.newHashSet());
+    assertThat(size(graph.getVertices()), is(2));
+  }
+
+  @Test
+  public void getReachableNodes_delegatesBoundedStepsToCypher() {
+    Graph graph = graphApi.getReachableNodes(c, Lists.newArrayList("*1..1"), Sets.newHashSet());
+    assertThat(size(graph.getVertices()), is(1));
+  }
+
+  @Test(expected = TraversalBudgetExceededException.class)
+  public void getReachableNodes_respectsTheNodeBudget() {
+    graphApi.getReachableNodes(c, Lists.newArrayList("*"), Sets.newHashSet(), 1);
+  }
+
+  @Test
+  public void paths_areReturned() {
+    Graph graph = graphApi.getPaths(c, a, Sets.newHashSet(), 1, 5, Integer.MAX_VALUE);
+    assertThat(size(graph.getVertices()), is(3));
+    assertThat(size(graph.getEdges()), is(2));
+  }
+
+  @Test
+  public void unreachableEnds_haveNoPaths() {
+    Graph graph = graphApi.getPaths(c, a, Sets.newHashSet(
+        new DirectedRelationshipType(OwlRelationships.RDFS_SUBCLASS_OF, Direction.OUTGOING)), 1, 5,
+        Integer.MAX_VALUE);
+    assertThat(size(graph.getVertices()), is(0));
+  }
+
   @Test
   public void getNode_isReturned() {
     Optional<String> empty = Optional.empty();
@@ -157,6 +264,27 @@ public class GraphApiTest extends GraphTestBase {
     assertThat(node.get(), is(a));
   }
 
+  @Test
+  public void getNode_isCached() {
+    graphApi.getNode("a", Optional.empty());
+    Optional<Node> node = graphApi.getNode("a", Optional.empty());
+    assertThat(node.get(), is(a));
+    assertThat(graphApi.getNodeCacheStats().hitCount(), is(1L));
+  }
+
+  @Test
+  public void unknownNodes_areNotReturned() {
+    assertThat(graphApi.getNode("http://example.org/unknown", Optional.empty()).isPresent(),
+        is(false));
+  }
+
+  @Test
+  public void warmedNodes_areCached() {
+    graphApi.warmNodeCache(Lists.newArrayList("b", "z"));
+    assertThat(graphApi.getNode("b", Optional.empty()).get(), is(b));
+    assertThat(graphApi.getNodeCacheStats().hitCount(), is(1L));
+  }
+
   @Test
   public void getNode_nothingReturnedForFakeLabel() {
     Optional<Node> node = graphApi.getNode("a", Optional.of("fakeLabel"));
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import static java.util.Collections.singleton;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+
+import io.scigraph.neo4j.DirectedRelationshipType;
+import io.scigraph.util.GraphTestBase;
+
+public class PathFinderTest extends GraphTestBase {
+
+  static final RelationshipType LINK = RelationshipType.withName("link");
+  static final RelationshipType OTHER = RelationshipType.withName("other");
+
+  Node s, a, b, c, d, t;
+  Set<DirectedRelationshipType> outgoing = singleton(new DirectedRelationshipType(LINK, Direction.OUTGOING));
+
+  @Before
+  public void setup() {
+    s = graphDb.createNode();
+    a = graphDb.createNode();
+    b = graphDb.createNode();
+    c = graphDb.createNode();
+    d = graphDb.createNode();
+    t = graphDb.createNode();
+    s.createRelationshipTo(a, LINK);
+    a.createRelationshipTo(t, LINK);
+    s.createRelationshipTo(b, LINK);
+    b.createRelationshipTo(t, LINK);
+    s.createRelationshipTo(c, LINK);
+    c.createRelationshipTo(d, LINK);
+    d.createRelationshipTo(t, LINK);
+    s.createRelationshipTo(t, OTHER);
+  }
+
+  List<Integer> lengths(List<PathFinder.Route> routes) {
+    return routes.stream().map(PathFinder.Route::length).collect(Collectors.toList());
+  }
+
+  @Test
+  public void shortestPath_isFound() {
+    PathFinder finder = new PathFinder(graphDb, outgoing, 10, Integer.MAX_VALUE);
+    List<PathFinder.Route> paths = finder.kShortestPaths(s.getId(), t.getId(), 1);
+    assertThat(lengths(paths), contains(2));
+    assertThat(paths.get(0).nodes[0], is(s.getId()));
+    assertThat(paths.get(0).nodes[2], is(t.getId()));
+  }
+
+  @Test
+  public void kShortestPaths_areSimpleAndOrdered() {
+    PathFinder finder = new PathFinder(graphDb, outgoing, 10, Integer.MAX_VALUE);
+    List<PathFinder.Route> paths = finder.kShortestPaths(s.getId(), t.getId(), 5);
+    assertThat(lengths(paths), contains(2, 2, 3));
+    assertThat(new HashSet<>(paths).size(), is(3));
+  }
+
+  @Test
+  public void directions_areRespected() {
+    PathFinder finder = new PathFinder(graphDb, outgoing, 10, Integer.MAX_VALUE);
+    assertThat(finder.kShortestPaths(t.getId(), s.getId(), 1), is(empty()));
+    finder = new PathFinder(graphDb,
+        singleton(new DirectedRelationshipType(LINK, Direction.INCOMING)), 10, Integer.MAX_VALUE);
+    assertThat(lengths(finder.kShortestPaths(t.getId(), s.getId(), 1)), contains(2));
+  }
+
+  @Test
+  public void anyRelationship_isFollowedWithoutTypes() {
+    PathFinder finder = new PathFinder(graphDb, Collections.<DirectedRelationshipType>emptySet(),
+        10, Integer.MAX_VALUE);
+    assertThat(lengths(finder.kShortestPaths(t.getId(), s.getId(), 1)), contains(1));
+  }
+
+  @Test
+  public void depth_isBounded() {
+    PathFinder finder = new PathFinder(graphDb, outgoing, 2, Integer.MAX_VALUE);
+    assertThat(lengths(finder.kShortestPaths(s.getId(), t.getId(), 5)), contains(2, 2));
+    finder = new PathFinder(graphDb, outgoing, 1, Integer.MAX_VALUE);
+    assertThat(finder.kShortestPaths(s.getId(), t.getId(), 1), is(empty()));
+  }
+
+  @Test(expected = TraversalBudgetExceededException.class)
+  public void expansions_areBounded() {
+    new PathFinder(graphDb, outgoing, 10, 2).kShortestPaths(s.getId(), t.getId(), 1);
+  }
+
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Result;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import io.scigraph.internal.SlowQueryLog.SlowQuery;
+import io.scigraph.internal.hierarchy.PropertyHierarchy;
+import io.scigraph.neo4j.GraphVersion;
+import io.scigraph.util.GraphTestBase;
+
+public class SlowQueryLogTest extends GraphTestBase {
+
+  Multimap<String, Object> params = ArrayListMultimap.create();
+
+  @Before
+  public void setup() {
+    createNode("http://x.org/a");
+    createNode("http://x.org/b");
+    params.put("iri", "http://x.org/a");
+  }
+
+  CypherUtil cypherUtil(SlowQueryLog log) {
+    GraphVersion version = new GraphVersion(graphDb);
+    return new CypherUtil(graphDb, curieUtil, version, new PropertyHierarchy(graphDb, version),
+        log);
+  }
+
+  void exhaust(Result result) {
+    while (result.hasNext()) {
+      result.next();
+    }
+  }
+
+  @Test
+  public void slowQueries_areRecordedOnceExhausted() {
+    SlowQueryLog log = new SlowQueryLog(-1, Long.MAX_VALUE, 10);
+    Result result = cypherUtil(log).execute("MATCH (n) WHERE n.iri = {iri} RETURN n", params);
+    assertThat(log.getEntries(), is(empty()));
+    exhaust(result);
+    result.close();
+    assertThat(log.getEntries(), hasSize(1));
+    SlowQuery entry = log.getEntries().get(0);
+    assertThat(entry.getQuery(), is("MATCH (n) WHERE n.iri = {iri} RETURN n"));
+    assertThat(entry.getParameters().get("iri"), is((Object) "http://x.org/a"));
+    assertThat(entry.getRows(), is(1L));
+    assertThat(entry.getPlan(), is(nullValue()));
+  }
+
+  @Test
+  public void slowReaders_doNotMakeQueriesSlow() throws InterruptedException {
+    SlowQueryLog log = new SlowQueryLog(100, 100, 10);
+    Result result = cypherUtil(log).execute("MATCH (n) RETURN n", params);
+    while (result.hasNext()) {
+      result.next();
+      Thread.sleep(200);
+    }
+    assertThat(log.getEntries(), is(empty()));
+  }
+
+  @Test
+  public void slowWriters_doNotMakeQueriesSlow() {
+    SlowQueryLog log = new SlowQueryLog(100, 100, 10);
+    Writer slowWriter = new StringWriter() {
+      boolean blocked;
+
+      @Override
+      public void write(char[] buffer, int offset, int length) {
+        if (!blocked) {
+          blocked = true;
+          Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+        }
+        super.write(buffer, offset, length);
+      }
+    };
+    cypherUtil(log).execute("MATCH (n) RETURN n", params)
+        .writeAsStringTo(new PrintWriter(slowWriter));
+    assertThat(log.getEntries(), is(empty()));
+  }
+
+  @Test
+  public void fastQueries_areNotRecorded() {
+    SlowQueryLog log = new SlowQueryLog(60_000, 60_000, 10);
+    exhaust(cypherUtil(log).execute("MATCH (n) RETURN n", params));
+    assertThat(log.getEntries(), is(empty()));
+  }
+
+  @Test
+  public void entries_areBounded() {
+    SlowQueryLog log = new SlowQueryLog(-1, Long.MAX_VALUE, 2);
+    CypherUtil cypherUtil = cypherUtil(log);
+    for (int i = 0; i < 3; i++) {
+      exhaust(cypherUtil.execute("MATCH (n) RETURN n LIMIT " + i, params));
+    }
+    assertThat(log.getEntries(), hasSize(2));
+    assertThat(log.getEntries().get(1).getQuery(), containsString("LIMIT 2"));
+  }
+
+  @Test
+  public void verySlowQueries_areProfiledNextTime() {
+    SlowQueryLog log = new SlowQueryLog(-1, -1, 10);
+    CypherUtil cypherUtil = cypherUtil(log);
+    exhaust(cypherUtil.execute("MATCH (n) RETURN n", params));
+    exhaust(cypherUtil.execute("MATCH (n) RETURN n", params));
+    SlowQuery first = log.getEntries().get(0);
+    SlowQuery second = log.getEntries().get(1);
+    assertThat(first.getPlan(), containsString("estimatedRows="));
+    assertThat(first.getDbHits(), is(-1L));
+    assertThat(second.getQuery(), is("MATCH (n) RETURN n"));
+    assertThat(second.getPlan(), containsString("dbHits="));
+    assertThat(second.getDbHits(), is(greaterThan(0L)));
+    assertThat(second.getRows(), is(first.getRows()));
+  }
+
+  @Test
+  public void disabledLogs_doNotWrapResults() {
+    Result result = graphDb.execute("RETURN 1");
+    assertThat(new SlowQueryLog().wrap(result, "RETURN 1", Collections.emptyMap(), 0),
+        is(sameInstance(result)));
+  }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal.hierarchy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+
+import io.scigraph.owlapi.OwlRelationships;
+import io.scigraph.util.GraphTestBase;
+
+public class AncestorIndexTest extends GraphTestBase {
+
+  static final RelationshipType type = RelationshipType.withName("parent");
+
+  @Test
+  public void tree_isIndexed() {
+    // 1 <- 2 <- 3, 1 <- 4
+    AncestorIndex index =
+        AncestorIndex.build(type, new long[] {2, 3, 4}, new long[] {1, 2, 1});
+    assertThat(index.isAncestor(1, 3), is(true));
+    assertThat(index.isAncestor(2, 3), is(true));
+    assertThat(index.isAncestor(3, 1), is(false));
+    assertThat(index.isAncestor(2, 4), is(false));
+    assertThat(index.isAncestor(1, 1), is(false));
+    assertThat(index.descendants(1), is(new long[] {2, 3, 4}));
+    assertThat(index.descendants(3), is(new long[0]));
+    assertThat(index.descendants(42), is(new long[0]));
+  }
+
+  @Test
+  public void multipleParents_areIndexed() {
+    // 4 is a child of both 2 and 3
+    AncestorIndex index =
+        AncestorIndex.build(type, new long[] {2, 3, 4, 4}, new long[] {1, 1, 2, 3});
+    assertThat(index.isAncestor(2, 4), is(true));
+    assertThat(index.isAncestor(3, 4), is(true));
+    assertThat(index.isAncestor(2, 3), is(false));
+    assertThat(index.descendants(3), is(new long[] {4}));
+  }
+
+  @Test
+  public void cycles_areCollapsed() {
+    // 2 <-> 3 both under 1, 4 under 3
+    AncestorIndex index =
+        AncestorIndex.build(type, new long[] {2, 3, 2, 4}, new long[] {1, 2, 3, 3});
+    assertThat(index.isAncestor(2, 3), is(true));
+    assertThat(index.isAncestor(3, 2), is(true));
+    assertThat(index.isAncestor(2, 2), is(true));
+    assertThat(index.isAncestor(2, 4), is(true));
+    assertThat(index.isAncestor(4, 2), is(false));
+    assertThat(index.descendants(2), is(new long[] {2, 3, 4}));
+  }
+
+  @Test
+  public void randomDags_matchTheClosure() {
+    Random random = new Random(7);
+    int n = 200;
+    long[] children = new long[600];
+    long[] parents = new long[600];
+    for (int i = 0; i < children.length; i++) {
+      long child = 1 + random.nextInt(n - 1);
+      children[i] = child;
+      parents[i] = random.nextInt((int) child);
+    }
+    AncestorIndex index = AncestorIndex.build(type, children, parents);
+    for (long ancestor = 0; ancestor < n; ancestor++) {
+      TreeSet<Long> expected = new TreeSet<>();
+      Queue<Long> queue = new ArrayDeque<>();
+      queue.add(ancestor);
+      while (!queue.isEmpty()) {
+        long current = queue.remove();
+        for (int i = 0; i < children.length; i++) {
+          if (parents[i] == current && expected.add(children[i])) {
+            queue.add(children[i]);
+          }
+        }
+      }
+      long[] descendants = index.descendants(ancestor);
+      assertThat(descendants, is(expected.stream().mapToLong(Long::longValue).toArray()));
+      for (long descendant = 0; descendant < n; descendant++) {
+        assertThat(index.isAncestor(ancestor, descendant),
+            is(Arrays.binarySearch(descendants, descendant) >= 0));
+      }
+    }
+  }
+
+  @Test
+  public void graph_isIndexed() {
+    Node a = graphDb.createNode();
+    Node b = graphDb.createNode();
+    Node c = graphDb.createNode();
+    b.createRelationshipTo(a, OwlRelationships.RDFS_SUBCLASS_OF);
+    c.createRelationshipTo(b, OwlRelationships.RDFS_SUBCLASS_OF);
+    c.createRelationshipTo(a, OwlRelationships.OWL_EQUIVALENT_CLASS);
+    AncestorIndex index = AncestorIndex.build(graphDb, OwlRelationships.RDFS_SUBCLASS_OF);
+    assertThat(index.size(), is(3));
+    assertThat(index.isAncestor(a.getId(), c.getId()), is(true));
+    assertThat(index.descendants(b.getId()), is(new long[] {c.getId()}));
+  }
+
+}
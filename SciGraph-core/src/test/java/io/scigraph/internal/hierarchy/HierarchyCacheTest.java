@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal.hierarchy;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+
+import com.codahale.metrics.MetricRegistry;
+
+import io.scigraph.owlapi.OwlRelationships;
+import io.scigraph.util.GraphTestBase;
+
+public class HierarchyCacheTest extends GraphTestBase {
+
+  MetricRegistry metrics = new MetricRegistry();
+  HierarchyCache cache;
+  Node a, b, c, d;
+
+  @Before
+  public void setup() {
+    a = graphDb.createNode();
+    b = graphDb.createNode();
+    c = graphDb.createNode();
+    d = graphDb.createNode();
+    b.createRelationshipTo(a, OwlRelationships.RDFS_SUBCLASS_OF);
+    c.createRelationshipTo(b, OwlRelationships.RDFS_SUBCLASS_OF);
+    c.createRelationshipTo(a, OwlRelationships.RDFS_SUBCLASS_OF);
+    d.createRelationshipTo(a, OwlRelationships.RDFS_SUB_PROPERTY_OF);
+    cache = new HierarchyCache(graphDb, newHashSet(OwlRelationships.RDFS_SUBCLASS_OF.name(),
+        OwlRelationships.RDFS_SUB_PROPERTY_OF.name()), metrics);
+    cache.load();
+  }
+
+  @Test
+  public void ancestors_areCached() {
+    assertThat(cache.getAncestors(OwlRelationships.RDFS_SUBCLASS_OF, c.getId()).get(),
+        is(new long[] {a.getId(), b.getId()}));
+    assertThat(cache.getAncestors(OwlRelationships.RDFS_SUBCLASS_OF, a.getId()).get(),
+        is(new long[0]));
+  }
+
+  @Test
+  public void descendants_areCached() {
+    assertThat(cache.getDescendants(OwlRelationships.RDFS_SUBCLASS_OF, a.getId()).get(),
+        is(new long[] {b.getId(), c.getId()}));
+    assertThat(cache.getDescendants(OwlRelationships.RDFS_SUB_PROPERTY_OF, a.getId()).get(),
+        is(new long[] {d.getId()}));
+  }
+
+  @Test
+  public void depth_isTheShortestPathToARoot() {
+    assertThat(cache.getDepth(OwlRelationships.RDFS_SUBCLASS_OF, a.getId()), is(OptionalInt.of(0)));
+    assertThat(cache.getDepth(OwlRelationships.RDFS_SUBCLASS_OF, b.getId()), is(OptionalInt.of(1)));
+    assertThat(cache.getDepth(OwlRelationships.RDFS_SUBCLASS_OF, c.getId()), is(OptionalInt.of(1)));
+    assertThat(cache.getDepth(OwlRelationships.RDFS_SUBCLASS_OF, d.getId()), is(OptionalInt.of(0)));
+  }
+
+  @Test
+  public void uncachedTypes_areUncovered() {
+    assertThat(cache.getDescendants(OwlRelationships.OWL_EQUIVALENT_CLASS, a.getId()),
+        is(Optional.empty()));
+    cache.getDescendants(OwlRelationships.RDFS_SUBCLASS_OF, a.getId());
+    assertThat(metrics.meter(MetricRegistry.name(HierarchyCache.class, "uncovered")).getCount(),
+        is(1L));
+    assertThat(metrics.meter(MetricRegistry.name(HierarchyCache.class, "covered")).getCount(),
+        is(1L));
+  }
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal.hierarchy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.scigraph.neo4j.GraphVersion;
+import io.scigraph.owlapi.OwlRelationships;
+import io.scigraph.util.GraphTestBase;
+
+public class PropertyHierarchyTest extends GraphTestBase {
+
+  GraphVersion version = mock(GraphVersion.class);
+  PropertyHierarchy hierarchy;
+
+  @Before
+  public void setup() {
+    when(version.get()).thenReturn(1L);
+    addRelationship("http://x.org/#a", "http://x.org/#b", OwlRelationships.RDFS_SUB_PROPERTY_OF);
+    addRelationship("http://x.org/#b", "http://x.org/#c", OwlRelationships.RDFS_SUB_PROPERTY_OF);
+    addRelationship("http://x.org/#c", "http://x.org/#c_equiv",
+        OwlRelationships.OWL_EQUIVALENT_OBJECT_PROPERTY);
+    addRelationship("http://x.org/#a", "http://x.org/#d", OwlRelationships.RDFS_SUBCLASS_OF);
+    hierarchy = new PropertyHierarchy(graphDb, version);
+  }
+
+  @Test
+  public void subProperties_areClosed() {
+    assertThat(hierarchy.getSubProperties("http://x.org/#a"),
+        containsInAnyOrder("http://x.org/#b", "http://x.org/#c", "http://x.org/#c_equiv"));
+    assertThat(hierarchy.getSubProperties("http://x.org/#c"),
+        containsInAnyOrder("http://x.org/#c_equiv"));
+  }
+
+  @Test
+  public void leaves_haveNoSubProperties() {
+    assertThat(hierarchy.getSubProperties("http://x.org/#c_equiv"), empty());
+    assertThat(hierarchy.getSubProperties("http://x.org/#unknown"), empty());
+  }
+
+  @Test
+  public void closure_isRefreshedWhenTheGraphChanges() {
+    assertThat(hierarchy.getSubProperties("http://x.org/#c_equiv"), empty());
+    addRelationship("http://x.org/#c_equiv", "http://x.org/#e",
+        OwlRelationships.RDFS_SUB_PROPERTY_OF);
+    assertThat(hierarchy.getSubProperties("http://x.org/#c_equiv"), empty());
+    when(version.get()).thenReturn(2L);
+    assertThat(hierarchy.getSubProperties("http://x.org/#c_equiv"),
+        containsInAnyOrder("http://x.org/#e"));
+  }
+
+}
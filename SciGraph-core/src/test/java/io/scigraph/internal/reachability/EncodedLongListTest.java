@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal.reachability;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import org.junit.Test;
+
+public class EncodedLongListTest {
+
+  @Test
+  public void emptyList_roundTrips() {
+    assertThat(EncodedLongList.decode(EncodedLongList.encode(new long[0])), is(new long[0]));
+  }
+
+  @Test
+  public void sortedList_roundTrips() {
+    long[] values = new long[] {0, 1, 127, 128, 16_384, 1L << 40, Long.MAX_VALUE};
+    assertThat(EncodedLongList.decode(EncodedLongList.encode(values)), is(values));
+  }
+
+  @Test
+  public void clusteredIds_areCompact() {
+    long[] values = new long[] {1_000_000, 1_000_001, 1_000_010, 1_000_100};
+    assertThat(EncodedLongList.encode(values).length, is(lessThan(values.length * 8)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unsortedList_isRejected() {
+    EncodedLongList.encode(new long[] {2, 1});
+  }
+
+  @Test
+  public void intersection_isDetected() {
+    byte[] a = EncodedLongList.encode(new long[] {1, 5, 300});
+    byte[] b = EncodedLongList.encode(new long[] {2, 300, 400});
+    byte[] c = EncodedLongList.encode(new long[] {2, 6, 299});
+    assertThat(EncodedLongList.intersects(a, b), is(true));
+    assertThat(EncodedLongList.intersects(a, c), is(false));
+    assertThat(EncodedLongList.intersects(a, new byte[0]), is(false));
+  }
+
+  @Test
+  public void sortedLongArray_staysSorted() {
+    SortedLongArray array = new SortedLongArray();
+    array.add(5);
+    array.add(1);
+    array.add(3);
+    assertThat(array.add(3), is(false));
+    assertThat(array.toArray(), is(new long[] {1, 3, 5}));
+  }
+
+  @Test
+  public void legacyLongArrays_areSupported() {
+    assertThat(ReachabilityIndex.intersects(new long[] {1, 2}, new long[] {2, 3}), is(true));
+    assertThat(ReachabilityIndex.intersects(EncodedLongList.encode(new long[] {1, 2}),
+        new long[] {3}), is(false));
+  }
+
+}
@@ -23,7 +23,9 @@ import io.scigraph.internal.reachability.ReachabilityIndex;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -145,6 +147,27 @@ public class ReachabilityIndexTest {
     assertThat(result, is(r));
   }
 
+  @Test
+  public void testForEachConnectedPair_preservesSourceOrder() {
+    List<Pair<Node, Node>> pairs = new ArrayList<>();
+    index.forEachConnectedPair(newArrayList(c, d, a), newArrayList(b, e, c),
+        (source, target) -> pairs.add(Pair.of(source, target)));
+    List<Pair<Node, Node>> expected = new ArrayList<>();
+    expected.add(Pair.of(c, b));
+    expected.add(Pair.of(c, c));
+    expected.add(Pair.of(a, b));
+    expected.add(Pair.of(a, c));
+    assertThat(pairs, is(expected));
+  }
+
+  @Test
+  public void testGetDisconnectedPairs() {
+    Set<Pair<Node, Node>> r = new HashSet<>();
+    r.add(Pair.of(d, b));
+    r.add(Pair.of(d, c));
+    assertThat(index.getDisconnectedPairs(newHashSet(a, d), newHashSet(b, c)), is(r));
+  }
+
   @Test
   public void testAllReachable() {
     Set<Node> dest = newHashSet(b, c);
@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.internal.reachability;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+public class ReachabilityIndexUpdateTest {
+
+  @Rule
+  public ImpermanentDatabaseRule graphDb = new ImpermanentDatabaseRule();
+
+  static final RelationshipType type = RelationshipType.withName("foo");
+
+  ReachabilityIndex index;
+  Node a, b, c, d;
+
+  @Before
+  public void setup() throws InterruptedException {
+    try (Transaction tx = graphDb.beginTx()) {
+      graphDb.createNode(); // node 0 is never indexed
+      a = graphDb.createNode();
+      b = graphDb.createNode();
+      c = graphDb.createNode();
+      d = graphDb.createNode();
+      a.createRelationshipTo(b, type);
+      c.createRelationshipTo(d, type);
+      tx.success();
+    }
+    index = new ReachabilityIndex(graphDb);
+    index.createIndex();
+  }
+
+  @Test
+  public void addedRelationship_connectsBothComponents() {
+    assertThat(index.canReach(a, d), is(false));
+    Relationship relationship;
+    try (Transaction tx = graphDb.beginTx()) {
+      relationship = b.createRelationshipTo(c, type);
+      tx.success();
+    }
+    index.addRelationship(relationship);
+    assertThat(index.canReach(a, d), is(true));
+    assertThat(index.canReach(b, c), is(true));
+    assertThat(index.canReach(d, a), is(false));
+  }
+
+  @Test
+  public void addedNode_isIndexed() {
+    Node e;
+    try (Transaction tx = graphDb.beginTx()) {
+      e = graphDb.createNode();
+      b.createRelationshipTo(e, type);
+      e.createRelationshipTo(c, type);
+      tx.success();
+    }
+    index.addNode(e);
+    assertThat(index.canReach(e, e), is(true));
+    assertThat(index.canReach(a, d), is(true));
+    assertThat(index.canReach(e, b), is(false));
+  }
+
+  @Test
+  public void updates_bumpTheVersion() {
+    long version = index.getIndexVersion();
+    Relationship relationship;
+    try (Transaction tx = graphDb.beginTx()) {
+      relationship = d.createRelationshipTo(a, type);
+      tx.success();
+    }
+    index.addRelationship(relationship);
+    assertThat(index.getIndexVersion(), is(greaterThan(version)));
+  }
+
+  @Test
+  public void incrementalUpdates_matchTheGraph() {
+    Random random = new Random(42);
+    List<Node> nodes = new ArrayList<>();
+    List<Relationship> added = new ArrayList<>();
+    try (Transaction tx = graphDb.beginTx()) {
+      for (int i = 0; i < 30; i++) {
+        nodes.add(graphDb.createNode());
+      }
+      tx.success();
+    }
+    for (Node node : nodes) {
+      index.addNode(node);
+    }
+    for (int i = 0; i < 60; i++) {
+      try (Transaction tx = graphDb.beginTx()) {
+        Node start = nodes.get(random.nextInt(nodes.size()));
+        Node end = nodes.get(random.nextInt(nodes.size()));
+        added.add(start.createRelationshipTo(end, type));
+        tx.success();
+      }
+      index.addRelationship(added.get(added.size() - 1));
+    }
+    try (Transaction tx = graphDb.beginTx()) {
+      for (Node source : nodes) {
+        Set<Node> reachable = reachableFrom(source);
+        for (Node target : nodes) {
+          assertThat(source + " -> " + target, index.canReach(source, target),
+              is(reachable.contains(target)));
+        }
+      }
+    }
+  }
+
+  static Set<Node> reachableFrom(Node source) {
+    Set<Node> visited = new HashSet<>();
+    Queue<Node> queue = new ArrayDeque<>();
+    queue.add(source);
+    visited.add(source);
+    while (!queue.isEmpty()) {
+      for (Relationship r : queue.remove().getRelationships(Direction.OUTGOING)) {
+        if (visited.add(r.getEndNode())) {
+          queue.add(r.getEndNode());
+        }
+      }
+    }
+    return visited;
+  }
+
+}
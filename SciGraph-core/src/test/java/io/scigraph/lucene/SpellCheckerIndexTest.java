@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.lucene;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItemInArray;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.spell.SpellChecker;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.scigraph.frames.NodeProperties;
+
+public class SpellCheckerIndexTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  File graphLocation;
+
+  @Before
+  public void setup() throws IOException {
+    graphLocation = folder.getRoot();
+    try (IndexWriter writer =
+        new IndexWriter(FSDirectory.open(SpellCheckerIndex.getNodeIndex(graphLocation)),
+            new IndexWriterConfig(new KeywordAnalyzer()))) {
+      for (String label : new String[] {"hippocampus", "cerebellum"}) {
+        Document document = new Document();
+        document.add(new StringField(NodeProperties.LABEL + LuceneUtils.EXACT_SUFFIX, label,
+            Store.NO));
+        writer.addDocument(document);
+      }
+    }
+  }
+
+  @Test
+  public void builtIndex_isOpened() throws IOException {
+    SpellCheckerIndex.build(graphLocation);
+    try (SpellChecker spellChecker = SpellCheckerIndex.open(graphLocation)) {
+      assertThat(spellChecker.suggestSimilar("hipocampus", 1), hasItemInArray("hippocampus"));
+    }
+  }
+
+  @Test
+  public void missingIndex_isBuiltInMemory() throws IOException {
+    try (SpellChecker spellChecker = SpellCheckerIndex.open(graphLocation)) {
+      assertThat(spellChecker.suggestSimilar("cerebelum", 1), hasItemInArray("cerebellum"));
+    }
+    assertThat(Files.exists(SpellCheckerIndex.getSpellCheckerIndex(graphLocation)), is(false));
+  }
+
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.neo4j;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+public class GraphVersionTest {
+
+  @Rule
+  public ImpermanentDatabaseRule graphDb = new ImpermanentDatabaseRule();
+
+  @Test
+  public void versionChanges_onlyWithWrites() {
+    GraphVersion version = new GraphVersion(graphDb);
+    long initial = version.get();
+    try (Transaction tx = graphDb.beginTx()) {
+      graphDb.getAllNodes().stream().count();
+      tx.success();
+    }
+    assertThat(version.get(), is(initial));
+    try (Transaction tx = graphDb.beginTx()) {
+      graphDb.createNode();
+      tx.success();
+    }
+    assertThat(version.get(), is(greaterThan(initial)));
+  }
+
+}
@@ -17,6 +17,11 @@ package io.scigraph.neo4j;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -24,11 +29,18 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.security.WriteOperationsNotAllowedException;
 
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.google.inject.Key;
+
+import io.scigraph.internal.GraphApi;
+import io.scigraph.internal.hierarchy.AncestorIndex;
+import io.scigraph.internal.hierarchy.HierarchyCache;
+import io.scigraph.neo4j.bindings.IndicatesTraversalExecutor;
 
 public class Neo4jModuleTest {
 
@@ -37,10 +49,11 @@ public class Neo4jModuleTest {
 
   Injector injector;
   Injector injectorReadOnly;
+  Neo4jConfiguration configuration;
 
   @Before
   public void setupModule() {
-    Neo4jConfiguration configuration = new Neo4jConfiguration();
+    configuration = new Neo4jConfiguration();
     configuration.setLocation(graphPath.getRoot().getAbsolutePath());
 
     injector = Guice.createInjector(new Neo4jModule(configuration));
@@ -53,6 +66,44 @@ public class Neo4jModuleTest {
         is(injector.getInstance(GraphDatabaseService.class)));
   }
 
+  @Test
+  public void graphApi_isSingleton() {
+    assertThat(injector.getInstance(GraphApi.class),
+        is(sameInstance(injector.getInstance(GraphApi.class))));
+  }
+
+  @Test
+  public void ancestorIndex_isTheCachedHierarchy() {
+    configuration.setHierarchyRelationship("partOf");
+    Injector partOfInjector = Guice.createInjector(new Neo4jModule(configuration));
+    HierarchyCache cache = partOfInjector.getInstance(HierarchyCache.class);
+    assertThat(cache.covers(RelationshipType.withName("partOf")), is(true));
+    assertThat(partOfInjector.getInstance(AncestorIndex.class),
+        is(sameInstance(cache.getIndex(RelationshipType.withName("partOf")).get())));
+    partOfInjector.getInstance(GraphDatabaseService.class).shutdown();
+  }
+
+  @Test
+  public void traversalExecutor_defaultsToTheCommonPool() {
+    assertThat(injector.getInstance(
+        Key.get(ExecutorService.class, IndicatesTraversalExecutor.class)),
+        is(sameInstance(ForkJoinPool.commonPool())));
+  }
+
+  @Test
+  public void traversalExecutor_isBound() {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Injector executorInjector =
+          Guice.createInjector(new Neo4jModule(configuration, true, executor));
+      assertThat(executorInjector.getInstance(
+          Key.get(ExecutorService.class, IndicatesTraversalExecutor.class)),
+          is(sameInstance(executor)));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Test(expected = WriteOperationsNotAllowedException.class)
   public void graphDbReadOnlyWithApi() {
     GraphDatabaseService graphDb = injectorReadOnly.getInstance(GraphDatabaseService.class);
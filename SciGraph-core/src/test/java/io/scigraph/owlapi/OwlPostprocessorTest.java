@@ -16,6 +16,7 @@
 package io.scigraph.owlapi;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.is;
 
 import java.util.Collections;
@@ -115,4 +116,9 @@ public class OwlPostprocessorTest {
     assertThat(instance.hasLabel(Label.label("foo")), is(true));
   }
 
+  @Test
+  public void categoryCatalog_isWritten() {
+    assertThat(CategoryCatalog.read(graphDb).get(), hasEntry("foo", 6L));
+  }
+
 }
@@ -22,6 +22,8 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
@@ -29,12 +31,15 @@ import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Transaction;
 import org.prefixcommons.CurieUtil;
@@ -44,7 +49,9 @@ import io.scigraph.frames.Concept;
 import io.scigraph.frames.NodeProperties;
 import io.scigraph.lucene.LuceneUtils;
 import io.scigraph.neo4j.GraphUtil;
+import io.scigraph.neo4j.GraphVersion;
 import io.scigraph.neo4j.NodeTransformer;
+import io.scigraph.owlapi.CategoryCatalog;
 import io.scigraph.util.GraphTestBase;
 import io.scigraph.vocabulary.Vocabulary.Query;
 
@@ -126,7 +133,8 @@ public class VocabularyNeo4jImplTest extends GraphTestBase {
     when(curieUtil.getExpansion("S")).thenReturn("http://example.org/#s");
     when(curieUtil.getIri(anyString())).thenReturn(Optional.<String>empty());
     when(curieUtil.getIri("HP:0008")).thenReturn(Optional.of("http://example.org/#hippocampus"));
-    vocabulary = new VocabularyNeo4jImpl(graphDb, null, curieUtil, new NodeTransformer());
+    vocabulary = new VocabularyNeo4jImpl(graphDb, null, curieUtil, new NodeTransformer(),
+        new GraphVersion(graphDb));
   }
 
   @Test
@@ -309,6 +317,27 @@ public class VocabularyNeo4jImplTest extends GraphTestBase {
     assertThat(categories, hasItems("foo", "fizz", "baz"));
   }
 
+  @Test
+  public void categoryCounts_areCounted() {
+    Map<String, Long> counts = vocabulary.getCategoryCounts();
+    assertThat(counts, hasEntry("foo", 3L));
+    assertThat(counts, hasEntry("baz", 6L));
+    assertThat(counts, hasEntry("foo bar", 1L));
+  }
+
+  @Test
+  public void categoryCounts_areCached() {
+    assertThat(vocabulary.getCategoryCounts(), is(sameInstance(vocabulary.getCategoryCounts())));
+  }
+
+  @Test
+  public void categoryCatalog_isUsedWhenPresent() {
+    graphDb.getNodeById(hippocampus.getId()).addLabel(Label.label("foo"));
+    CategoryCatalog.update(graphDb, Collections.singleton("foo"));
+    assertThat(vocabulary.getAllCategories(), contains("foo"));
+    assertThat(vocabulary.getCategoryCounts(), hasEntry("foo", 1L));
+  }
+
   @Test
   public void testPossessives() {
     Query query = new Vocabulary.Query.Builder("parkinsons disease").build();
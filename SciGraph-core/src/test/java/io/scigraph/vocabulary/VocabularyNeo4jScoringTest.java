@@ -22,6 +22,7 @@ import io.scigraph.frames.Concept;
 import io.scigraph.frames.NodeProperties;
 import io.scigraph.lucene.LuceneUtils;
 import io.scigraph.neo4j.GraphUtil;
+import io.scigraph.neo4j.GraphVersion;
 import io.scigraph.neo4j.NodeTransformer;
 import io.scigraph.util.GraphTestBase;
 import io.scigraph.vocabulary.Vocabulary.Query;
@@ -61,7 +62,8 @@ public class VocabularyNeo4jScoringTest extends GraphTestBase {
     cell = buildConcept("http://x.org/#birnlex5", "Cell cell", "BL:5");
     onCell = buildConcept("http://x.org/#birnlex6", "Something on cell", "HP:0008");
     vocabulary =
-        new VocabularyNeo4jImpl(graphDb, null, mock(CurieUtil.class), new NodeTransformer());
+        new VocabularyNeo4jImpl(graphDb, null, mock(CurieUtil.class), new NodeTransformer(),
+            new GraphVersion(graphDb));
   }
 
   @Test
@@ -22,6 +22,9 @@ import io.dropwizard.jersey.setup.JerseyEnvironment;
 import io.dropwizard.setup.Bootstrap;
 import io.dropwizard.setup.Environment;
 import io.dropwizard.views.ViewBundle;
+import io.scigraph.internal.SlowQueryLog;
+import io.scigraph.services.admin.SlowQueryServlet;
+import io.scigraph.services.admission.AdmissionControlFilter;
 import io.scigraph.services.configuration.ApplicationConfiguration;
 import io.scigraph.services.jersey.MediaTypeMappings;
 import io.scigraph.services.jersey.dynamic.DynamicCypherResourceFactory;
@@ -37,6 +40,7 @@ import java.util.Map;
 
 import javax.servlet.DispatcherType;
 import javax.servlet.FilterRegistration;
+import javax.ws.rs.ext.MessageBodyWriter;
 
 import io.swagger.jaxrs.config.BeanConfig;
 import io.swagger.jaxrs.listing.ApiListingResource;
@@ -109,9 +113,26 @@ public class MainApplication extends Application<ApplicationConfiguration> {
     cors.addMappingForUrlPatterns(EnumSet.allOf(DispatcherType.class), true, "/*");
   }
 
+  void configureAdmissionControl(ApplicationConfiguration configuration, Environment environment) {
+    if (configuration.getBulkheads().isEmpty()) {
+      return;
+    }
+    environment.servlets()
+        .addFilter("admissionControl",
+            new AdmissionControlFilter(configuration.getBulkheads(), environment.metrics()))
+        .addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), true, "/*");
+  }
+
+  void configureAdmin(Environment environment) {
+    environment.admin().addServlet("slowQueries", new SlowQueryServlet(
+        factory.getInjector().getInstance(SlowQueryLog.class), environment.getObjectMapper()))
+    .addMapping("/slow-queries");
+  }
+
   void addWriters(JerseyEnvironment environment) throws Exception {
     for (ClassInfo classInfo: ClassPath.from(getClass().getClassLoader()).getTopLevelClasses("io.scigraph.services.jersey.writers")) {
-      if (!Modifier.isAbstract(classInfo.load().getModifiers())) {
+      if (!Modifier.isAbstract(classInfo.load().getModifiers())
+          && MessageBodyWriter.class.isAssignableFrom(classInfo.load())) {
         environment.register(factory.getInjector().getInstance(classInfo.load()));
       }
     }
@@ -125,6 +146,8 @@ public class MainApplication extends Application<ApplicationConfiguration> {
     environment.jersey().getResourceConfig().addProperties(props);
     addWriters(environment.jersey());
     configureCors(environment);
+    configureAdmissionControl(configuration, environment);
+    configureAdmin(environment);
 
     //TODO: This path should not be hard coded.
     configureSwagger(environment, "scigraph");
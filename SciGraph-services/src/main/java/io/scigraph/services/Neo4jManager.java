@@ -23,20 +23,29 @@ import javax.inject.Inject;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 
+import io.scigraph.internal.hierarchy.HierarchyCache;
+
 public class Neo4jManager implements Managed {
 
   private final Logger logger = Logger.getLogger(Neo4jManager.class.getName());
   
   private final GraphDatabaseService graphDb;
+  private final HierarchyCache hierarchyCache;
+  private final Warmup warmup;
 
   @Inject
-  public Neo4jManager(GraphDatabaseService graphDb) {
+  public Neo4jManager(GraphDatabaseService graphDb, HierarchyCache hierarchyCache, Warmup warmup) {
     this.graphDb = graphDb;
+    this.hierarchyCache = hierarchyCache;
+    this.warmup = warmup;
   }
 
   @Override
   public void start() throws Exception {
     logger.info("Starting Neo4j graph manager");
+    hierarchyCache.load();
+    // Managed objects start before the connectors so requests only arrive once this is done
+    warmup.warm();
   }
 
   @Override
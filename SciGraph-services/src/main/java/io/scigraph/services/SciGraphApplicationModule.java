@@ -16,36 +16,57 @@
 package io.scigraph.services;
 
 import io.scigraph.annotation.EntityModule;
+import io.scigraph.cache.CacheModule;
+import io.scigraph.cache.GraphResultCache;
+import io.scigraph.internal.SlowQueryLog;
 import io.scigraph.lexical.LexicalLibModule;
 import io.scigraph.neo4j.Graph;
 import io.scigraph.neo4j.GraphTransactionalImpl;
+import io.scigraph.neo4j.GraphVersion;
 import io.scigraph.neo4j.Neo4jModule;
 import io.scigraph.opennlp.OpenNlpModule;
 import io.scigraph.owlapi.curies.CurieModule;
 import io.scigraph.services.configuration.ApplicationConfiguration;
+import io.scigraph.services.configuration.SlowQueryLogConfiguration;
+import io.scigraph.services.configuration.TraversalBudgetConfiguration;
+import io.scigraph.services.configuration.WarmupConfiguration;
 import io.scigraph.services.jersey.dynamic.DynamicResourceModule;
 import io.scigraph.services.refine.RefineModule;
 
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
+import javax.inject.Singleton;
+
+import io.dropwizard.setup.Environment;
 import io.swagger.models.Path;
 import ru.vyarus.dropwizard.guice.module.support.ConfigurationAwareModule;
+import ru.vyarus.dropwizard.guice.module.support.EnvironmentAwareModule;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 
-class SciGraphApplicationModule extends AbstractModule implements ConfigurationAwareModule<ApplicationConfiguration> {
+class SciGraphApplicationModule extends AbstractModule
+    implements ConfigurationAwareModule<ApplicationConfiguration>, EnvironmentAwareModule {
 
   ApplicationConfiguration configuration;
+  Environment environment;
 
   @Override
   public void setConfiguration(ApplicationConfiguration configuration) {
     this.configuration = configuration;
   }
 
+  @Override
+  public void setEnvironment(Environment environment) {
+    this.environment = environment;
+  }
+
   @Override
   protected void configure() {
-    install(new Neo4jModule(configuration.getGraphConfiguration(), true));
+    install(new Neo4jModule(configuration.getGraphConfiguration(), true,
+        getTraversalExecutor()));
     bind(Graph.class).to(GraphTransactionalImpl.class);
     install(new EntityModule());
     install(new LexicalLibModule());
@@ -53,6 +74,16 @@ class SciGraphApplicationModule extends AbstractModule implements ConfigurationA
     install(new RefineModule(configuration.getServiceMetadata()));
     install(new DynamicResourceModule());
     install(new CurieModule());
+    install(new CacheModule(configuration.getMethodCaches()));
+  }
+
+  /***
+   * @return an executor that is shut down with the application
+   */
+  ExecutorService getTraversalExecutor() {
+    int threads = configuration.getTraversalBudgetConfiguration().getThreads();
+    return environment.lifecycle().executorService("traversal-%d").minThreads(threads)
+        .maxThreads(threads).build();
   }
 
   @Provides
@@ -60,4 +91,34 @@ class SciGraphApplicationModule extends AbstractModule implements ConfigurationA
     return configuration.getCypherResources();
   }
 
+  @Provides
+  TraversalBudgetConfiguration getTraversalBudgetConfiguration() {
+    return configuration.getTraversalBudgetConfiguration();
+  }
+
+  @Provides
+  @Singleton
+  SlowQueryLog getSlowQueryLog() {
+    SlowQueryLogConfiguration slowQueries = configuration.getSlowQueryLogConfiguration();
+    return new SlowQueryLog(slowQueries.getThreshold(), slowQueries.getPlanThreshold(),
+        slowQueries.getCapacity());
+  }
+
+  @Provides
+  WarmupConfiguration getWarmupConfiguration() {
+    return configuration.getWarmupConfiguration();
+  }
+
+  @Provides
+  MetricRegistry getMetricRegistry(Environment environment) {
+    return environment.metrics();
+  }
+
+  @Provides
+  @Singleton
+  GraphResultCache getGraphResultCache(GraphVersion graphVersion, MetricRegistry metrics) {
+    return new GraphResultCache(graphVersion,
+        configuration.getResultCacheConfiguration().getMaximumWeight(), metrics);
+  }
+
 }
\ No newline at end of file
@@ -0,0 +1,353 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services;
+
+import static com.google.common.collect.Iterables.getFirst;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.prefixcommons.CurieUtil;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+
+import io.scigraph.internal.CypherUtil;
+import io.scigraph.internal.GraphApi;
+import io.scigraph.services.configuration.WarmupConfiguration;
+import io.swagger.models.Path;
+
+/***
+ * Warms the service up before it accepts requests.
+ *
+ * <p>
+ * The configured store files are read into Neo4j's page cache, the query of every cypher
+ * resource is planned and a sample of past requests is replayed: requests to cypher resources
+ * run their query, the ids of other requests are resolved into the node cache. The sample is a
+ * file of request URIs, one per line; access log lines work too as the first token starting
+ * with a slash is used. Warmup failures are logged and never prevent the service from starting.
+ */
+public class Warmup {
+
+  private static final Logger logger = Logger.getLogger(Warmup.class.getName());
+
+  private static final Pattern PATH_PARAMETER = Pattern.compile("\\{([^}]+)\\}");
+
+  private final GraphDatabaseService graphDb;
+  private final CypherUtil cypherUtil;
+  private final GraphApi graphApi;
+  private final CurieUtil curieUtil;
+  private final WarmupConfiguration configuration;
+  private final Map<String, Resource> resources = new LinkedHashMap<>();
+
+  @Inject
+  Warmup(GraphDatabaseService graphDb, CypherUtil cypherUtil, GraphApi graphApi,
+      CurieUtil curieUtil, Map<String, Path> paths, WarmupConfiguration configuration) {
+    this.graphDb = graphDb;
+    this.cypherUtil = cypherUtil;
+    this.graphApi = graphApi;
+    this.curieUtil = curieUtil;
+    this.configuration = configuration;
+    for (Entry<String, Path> path : paths.entrySet()) {
+      Object query = path.getValue().getVendorExtensions().get("x-query");
+      if (null != query) {
+        resources.put(path.getKey(), new Resource(path.getKey(), query.toString()));
+      }
+    }
+  }
+
+  /***
+   * A cypher resource and the pattern matching its request paths.
+   */
+  static final class Resource {
+
+    final String query;
+    final Pattern pattern;
+    final List<String> parameters = new ArrayList<>();
+
+    Resource(String pathName, String query) {
+      this.query = query;
+      StringBuilder regex = new StringBuilder("^(?:/.*)?");
+      Matcher matcher = PATH_PARAMETER.matcher(pathName);
+      int end = 0;
+      while (matcher.find()) {
+        regex.append(Pattern.quote(pathName.substring(end, matcher.start()))).append("([^/]+)");
+        parameters.add(matcher.group(1));
+        end = matcher.end();
+      }
+      regex.append(Pattern.quote(pathName.substring(end))).append("/?$");
+      this.pattern = Pattern.compile(regex.toString());
+    }
+
+    /***
+     * @return the path parameters of path if it is a request to this resource
+     */
+    Optional<Multimap<String, Object>> match(String path) {
+      Matcher matcher = pattern.matcher(path);
+      if (!matcher.matches()) {
+        return Optional.empty();
+      }
+      Multimap<String, Object> pathParameters = ArrayListMultimap.create();
+      for (int i = 0; i < parameters.size(); i++) {
+        pathParameters.put(parameters.get(i), matcher.group(i + 1));
+      }
+      return Optional.of(pathParameters);
+    }
+
+  }
+
+  /***
+   * A request read from the sample request log.
+   */
+  static final class SampleRequest {
+
+    final String path;
+    final Multimap<String, Object> parameters;
+
+    SampleRequest(String path, Multimap<String, Object> parameters) {
+      this.path = path;
+      this.parameters = parameters;
+    }
+
+  }
+
+  public void warm() {
+    long start = System.currentTimeMillis();
+    List<SampleRequest> requests = readRequestLog();
+    touchStoreFiles();
+    if (configuration.isPlanQueries()) {
+      planQueries(requests);
+    }
+    replay(requests);
+    logger.info("Warmed up in " + (System.currentTimeMillis() - start) + " ms");
+  }
+
+  /***
+   * Read the configured store files into the page cache.
+   *
+   * @return the number of pages read
+   */
+  long touchStoreFiles() {
+    if (configuration.getStoreFiles().isEmpty() || !(graphDb instanceof GraphDatabaseAPI)) {
+      return 0;
+    }
+    long pages = 0;
+    try {
+      PageCache pageCache = ((GraphDatabaseAPI) graphDb).getDependencyResolver()
+          .resolveDependency(PageCache.class);
+      for (PagedFile mapping : pageCache.listExistingMappings()) {
+        if (!configuration.getStoreFiles().contains(mapping.file().getName())) {
+          continue;
+        }
+        Optional<PagedFile> pagedFile = pageCache.getExistingMapping(mapping.file());
+        if (!pagedFile.isPresent()) {
+          continue;
+        }
+        try (PagedFile file = pagedFile.get();
+            PageCursor cursor = file.io(0, PagedFile.PF_SHARED_READ_LOCK)) {
+          while (cursor.next()) {
+            pages++;
+          }
+        }
+      }
+      logger.info("Read " + pages + " store pages into the page cache");
+    } catch (IOException | RuntimeException e) {
+      logger.log(Level.WARNING, "Failed to read the store files into the page cache", e);
+    }
+    return pages;
+  }
+
+  /***
+   * Plan the query of every cypher resource, with the parameters of the first sample request
+   * to the resource if there is one.
+   *
+   * @return the number of planned queries
+   */
+  int planQueries(List<SampleRequest> requests) {
+    int planned = 0;
+    for (Entry<String, Resource> resource : resources.entrySet()) {
+      Multimap<String, Object> parameters = ArrayListMultimap.create();
+      for (SampleRequest request : requests) {
+        Optional<Multimap<String, Object>> pathParameters =
+            resource.getValue().match(request.path);
+        if (pathParameters.isPresent()) {
+          parameters = getParameters(request, pathParameters.get());
+          break;
+        }
+      }
+      try (Transaction tx = graphDb.beginTx()) {
+        String query = cypherUtil.resolveQuery(resource.getValue().query, parameters);
+        graphDb.execute("EXPLAIN " + query, flatten(parameters)).close();
+        tx.success();
+        planned++;
+      } catch (RuntimeException e) {
+        logger.log(Level.WARNING, "Failed to plan the query of " + resource.getKey(), e);
+      }
+    }
+    logger.info("Planned " + planned + " of " + resources.size() + " cypher resource queries");
+    return planned;
+  }
+
+  /***
+   * Replay the sample requests.
+   *
+   * @return the number of cypher resource queries run
+   */
+  int replay(List<SampleRequest> requests) {
+    int queries = 0;
+    Set<String> ids = new LinkedHashSet<>();
+    for (SampleRequest request : requests) {
+      Optional<Resource> resource = Optional.empty();
+      Optional<Multimap<String, Object>> pathParameters = Optional.empty();
+      for (Resource candidate : resources.values()) {
+        pathParameters = candidate.match(request.path);
+        if (pathParameters.isPresent()) {
+          resource = Optional.of(candidate);
+          break;
+        }
+      }
+      if (resource.isPresent()) {
+        try (Transaction tx = graphDb.beginTx();
+            Result result = cypherUtil.execute(resource.get().query,
+                getParameters(request, pathParameters.get()))) {
+          while (result.hasNext()) {
+            result.next();
+          }
+          tx.success();
+          queries++;
+        } catch (RuntimeException e) {
+          logger.log(Level.FINE, "Failed to replay " + request.path, e);
+        }
+      } else {
+        for (Object id : request.parameters.get("id")) {
+          ids.add(id.toString());
+        }
+        String last = request.path.substring(request.path.lastIndexOf('/') + 1);
+        if (last.contains(":")) {
+          ids.add(last);
+        }
+      }
+    }
+    if (!ids.isEmpty()) {
+      graphApi.warmNodeCache(ids);
+    }
+    logger.info("Replayed " + requests.size() + " sample requests: ran " + queries
+        + " cypher resource queries and resolved " + ids.size() + " ids");
+    return queries;
+  }
+
+  Multimap<String, Object> getParameters(SampleRequest request,
+      Multimap<String, Object> pathParameters) {
+    Multimap<String, Object> parameters = ArrayListMultimap.create();
+    for (Entry<String, Object> entry : request.parameters.entries()) {
+      parameters.put(entry.getKey(), resolveCurie(entry.getValue()));
+    }
+    for (Entry<String, Object> entry : pathParameters.entries()) {
+      parameters.put(entry.getKey(), resolveCurie(entry.getValue()));
+    }
+    return parameters;
+  }
+
+  Object resolveCurie(Object value) {
+    return curieUtil.getIri(value.toString()).<Object>map(iri -> iri).orElse(value);
+  }
+
+  static Map<String, Object> flatten(Multimap<String, Object> parameters) {
+    Map<String, Object> flat = new HashMap<>();
+    for (Entry<String, Collection<Object>> entry : parameters.asMap().entrySet()) {
+      flat.put(entry.getKey(), getFirst(entry.getValue(), null));
+    }
+    return flat;
+  }
+
+  List<SampleRequest> readRequestLog() {
+    if (null == configuration.getRequestLog()) {
+      return new ArrayList<>();
+    }
+    String log = configuration.getRequestLog();
+    try (Stream<String> lines = Files.lines(Paths.get(log), StandardCharsets.UTF_8)) {
+      return lines.map(Warmup::parseRequest).filter(Optional::isPresent).map(Optional::get)
+          .limit(configuration.getMaxRequests()).collect(Collectors.toList());
+    } catch (IOException | RuntimeException e) {
+      logger.log(Level.WARNING, "Failed to read the sample requests from " + log, e);
+      return new ArrayList<>();
+    }
+  }
+
+  /***
+   * @param line
+   *          a request URI or an access log line
+   * @return the request
+   */
+  static Optional<SampleRequest> parseRequest(String line) {
+    for (String token : Splitter.on(' ').omitEmptyStrings().split(line.trim())) {
+      if (!token.startsWith("/")) {
+        continue;
+      }
+      int query = token.indexOf('?');
+      Multimap<String, Object> parameters = ArrayListMultimap.create();
+      if (query >= 0) {
+        for (String parameter : Splitter.on('&').omitEmptyStrings()
+            .split(token.substring(query + 1))) {
+          List<String> pair = Splitter.on('=').limit(2).splitToList(parameter);
+          parameters.put(decode(pair.get(0)), pair.size() > 1 ? decode(pair.get(1)) : "");
+        }
+      }
+      return Optional.of(new SampleRequest(decode(query >= 0 ? token.substring(0, query) : token),
+          parameters));
+    }
+    return Optional.empty();
+  }
+
+  static String decode(String value) {
+    try {
+      return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+    } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+      return value;
+    }
+  }
+
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.admin;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.scigraph.internal.SlowQueryLog;
+
+/***
+ * Lists the recorded slow queries, oldest first, on the admin port.
+ */
+public class SlowQueryServlet extends HttpServlet {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient SlowQueryLog slowQueryLog;
+  private final transient ObjectMapper mapper;
+
+  public SlowQueryServlet(SlowQueryLog slowQueryLog, ObjectMapper mapper) {
+    this.slowQueryLog = slowQueryLog;
+    this.mapper = mapper;
+  }
+
+  @Override
+  protected void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(MediaType.APPLICATION_JSON);
+    response.setHeader("Cache-Control", "must-revalidate,no-cache,no-store");
+    mapper.writeValue(response.getOutputStream(), slowQueryLog.getEntries());
+  }
+
+}
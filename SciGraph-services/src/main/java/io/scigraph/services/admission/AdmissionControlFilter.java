@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.admission;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.net.HttpHeaders;
+
+import io.scigraph.services.configuration.BulkheadConfiguration;
+
+/***
+ * Admits requests through the {@link Bulkhead} of their endpoint group.
+ *
+ * <p>
+ * Expensive endpoints (ie: arbitrary Cypher or large traversals) get their own concurrency
+ * limits so that a burst of them cannot take every request thread from cheap ones. A request
+ * belongs to the first group with a path pattern found in its path. Requests in no group are
+ * not limited. The permit is held until the response is written, so streamed responses count
+ * for as long as they stream.
+ */
+public class AdmissionControlFilter implements Filter {
+
+  private static final Logger logger = Logger.getLogger(AdmissionControlFilter.class.getName());
+
+  /*** Seconds a rejected client is asked to wait before retrying */
+  static final String RETRY_AFTER = "1";
+
+  /*** 429 is not in the servlet 3.0 constants */
+  static final int TOO_MANY_REQUESTS = 429;
+
+  private final List<Pattern> patterns = new ArrayList<>();
+  private final List<Bulkhead> bulkheads = new ArrayList<>();
+
+  public AdmissionControlFilter(Map<String, BulkheadConfiguration> groups,
+      MetricRegistry metrics) {
+    for (Entry<String, BulkheadConfiguration> group : groups.entrySet()) {
+      Bulkhead bulkhead = new Bulkhead(group.getKey(), group.getValue(), metrics);
+      for (String path : group.getValue().getPaths()) {
+        patterns.add(Pattern.compile(path));
+        bulkheads.add(bulkhead);
+      }
+    }
+  }
+
+  Bulkhead getBulkhead(String path) {
+    for (int i = 0; i < patterns.size(); i++) {
+      if (patterns.get(i).matcher(path).find()) {
+        return bulkheads.get(i);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void init(FilterConfig filterConfig) throws ServletException {}
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    HttpServletRequest httpRequest = (HttpServletRequest) request;
+    Bulkhead bulkhead = getBulkhead(httpRequest.getRequestURI());
+    if (null == bulkhead) {
+      chain.doFilter(request, response);
+      return;
+    }
+    Bulkhead.Rejection rejection;
+    try {
+      rejection = bulkhead.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      rejection = Bulkhead.Rejection.TIMEOUT;
+    }
+    if (null != rejection) {
+      reject((HttpServletResponse) response, bulkhead, rejection);
+      return;
+    }
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      bulkhead.release();
+    }
+  }
+
+  static void reject(HttpServletResponse response, Bulkhead bulkhead,
+      Bulkhead.Rejection rejection) throws IOException {
+    logger.fine("Rejected a request to " + bulkhead.getName() + ": " + rejection);
+    response.setStatus(Bulkhead.Rejection.QUEUE_FULL == rejection ? TOO_MANY_REQUESTS
+        : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER);
+    response.setContentType("text/plain");
+    response.getWriter().write("Too many concurrent " + bulkhead.getName() + " requests");
+  }
+
+  @Override
+  public void destroy() {}
+
+}
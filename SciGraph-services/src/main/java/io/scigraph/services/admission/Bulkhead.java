@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.admission;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import io.scigraph.services.configuration.BulkheadConfiguration;
+
+/***
+ * Limits the number of requests of an endpoint group that run at once.
+ *
+ * <p>
+ * Requests that cannot run immediately wait in a bounded queue, in arrival order. Admissions,
+ * rejections and waits are reported to the metric registry under the name of the group, along
+ * with the number of running and queued requests.
+ */
+public final class Bulkhead {
+
+  /*** Why a request was not admitted */
+  public enum Rejection {
+    /*** The queue was full */
+    QUEUE_FULL,
+    /*** The request waited too long in the queue */
+    TIMEOUT
+  }
+
+  private final String name;
+  private final int maxConcurrent;
+  private final int maxQueued;
+  private final long maxWait;
+  private final Semaphore permits;
+  private final AtomicInteger queued = new AtomicInteger();
+
+  private final Meter admitted;
+  private final Meter queueFull;
+  private final Meter timedOut;
+  private final Timer waits;
+
+  public Bulkhead(String name, BulkheadConfiguration configuration, MetricRegistry metrics) {
+    this.name = name;
+    this.maxConcurrent = configuration.getMaxConcurrent();
+    this.maxQueued = configuration.getMaxQueued();
+    this.maxWait = configuration.getMaxWait();
+    this.permits = new Semaphore(maxConcurrent, true);
+    this.admitted = metrics.meter(name(Bulkhead.class, name, "admitted"));
+    this.queueFull = metrics.meter(name(Bulkhead.class, name, "rejected", "queueFull"));
+    this.timedOut = metrics.meter(name(Bulkhead.class, name, "rejected", "timeout"));
+    this.waits = metrics.timer(name(Bulkhead.class, name, "wait"));
+    metrics.register(name(Bulkhead.class, name, "active"),
+        (Gauge<Integer>) () -> maxConcurrent - permits.availablePermits());
+    metrics.register(name(Bulkhead.class, name, "queued"), (Gauge<Integer>) queued::get);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /***
+   * Wait for a request to be admitted. Admitted requests must call {@link #release()} when they
+   * are done.
+   *
+   * @return the reason the request was rejected, null if it was admitted
+   */
+  public Rejection acquire() throws InterruptedException {
+    // unlike tryAcquire(), a timed tryAcquire does not barge past queued requests
+    if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+      admitted.mark();
+      return null;
+    }
+    if (queued.incrementAndGet() > maxQueued) {
+      queued.decrementAndGet();
+      queueFull.mark();
+      return Rejection.QUEUE_FULL;
+    }
+    try (Timer.Context context = waits.time()) {
+      if (permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+        admitted.mark();
+        return null;
+      }
+      timedOut.mark();
+      return Rejection.TIMEOUT;
+    } finally {
+      queued.decrementAndGet();
+    }
+  }
+
+  public void release() {
+    permits.release();
+  }
+
+}
@@ -25,6 +25,7 @@ import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.cache.CacheBuilderSpec;
 import io.dropwizard.Configuration;
 import io.scigraph.neo4j.Neo4jConfiguration;
 import io.scigraph.services.refine.ServiceMetadata;
@@ -77,6 +78,39 @@ public class ApplicationConfiguration extends Configuration {
   @JsonProperty(required=false)
   @JsonDeserialize(using=CypherResourcesDeserializer.class)
   private Map<String,Path> cypherResources = new HashMap<>();
+
+  @Valid
+  @NotNull
+  @JsonProperty(required=false)
+  private ResultCacheConfiguration resultCacheConfiguration = new ResultCacheConfiguration();
+
+  @Valid
+  @NotNull
+  @JsonProperty(required=false)
+  private TraversalBudgetConfiguration traversalBudgetConfiguration =
+      new TraversalBudgetConfiguration();
+
+  @Valid
+  @NotNull
+  @JsonProperty(required=false)
+  private SlowQueryLogConfiguration slowQueryLogConfiguration = new SlowQueryLogConfiguration();
+
+  @Valid
+  @NotNull
+  @JsonProperty(required=false)
+  private WarmupConfiguration warmupConfiguration = new WarmupConfiguration();
+
+  /*** Concurrency limits of endpoint groups, keyed by group name */
+  @Valid
+  @NotNull
+  @JsonProperty(required=false)
+  private Map<String,BulkheadConfiguration> bulkheads = new LinkedHashMap<>();
+
+  /*** Cache specs for @Cacheable methods, keyed by SimpleClassName.methodName or "default" */
+  @Valid
+  @NotNull
+  @JsonProperty(required=false)
+  private Map<String,CacheBuilderSpec> methodCaches = new HashMap<>();
   
   public String getApplicationContextPath() {
     return applicationContextPath;
@@ -98,6 +132,30 @@ public class ApplicationConfiguration extends Configuration {
     return cypherResources;
   }
 
+  public ResultCacheConfiguration getResultCacheConfiguration() {
+    return resultCacheConfiguration;
+  }
+
+  public TraversalBudgetConfiguration getTraversalBudgetConfiguration() {
+    return traversalBudgetConfiguration;
+  }
+
+  public SlowQueryLogConfiguration getSlowQueryLogConfiguration() {
+    return slowQueryLogConfiguration;
+  }
+
+  public WarmupConfiguration getWarmupConfiguration() {
+    return warmupConfiguration;
+  }
+
+  public Map<String,BulkheadConfiguration> getBulkheads() {
+    return bulkheads;
+  }
+
+  public Map<String,CacheBuilderSpec> getMethodCaches() {
+    return methodCaches;
+  }
+
   public static class CypherResourcesDeserializer extends StdDeserializer<Map<String,Path>> {
     public CypherResourcesDeserializer() {
       this(null);
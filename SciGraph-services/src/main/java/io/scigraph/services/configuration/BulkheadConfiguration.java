@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/***
+ * The admission limits of a group of endpoints.
+ *
+ * <p>
+ * At most maxConcurrent requests of the group run at once. Up to maxQueued more wait, for at
+ * most maxWait milliseconds, for one of them to finish. Requests beyond that are rejected with
+ * a 429, and requests that wait too long with a 503.
+ */
+public class BulkheadConfiguration {
+
+  /*** Regular expressions found in the request paths of the group, ie: "/cypher/execute" */
+  @NotNull
+  @JsonProperty
+  private List<String> paths = new ArrayList<>();
+
+  @Min(1)
+  @JsonProperty
+  private int maxConcurrent = 8;
+
+  @Min(0)
+  @JsonProperty
+  private int maxQueued = 16;
+
+  /*** The maximum time a request waits in the queue, in milliseconds */
+  @Min(0)
+  @JsonProperty
+  private long maxWait = 1_000;
+
+  public List<String> getPaths() {
+    return paths;
+  }
+
+  public void setPaths(List<String> paths) {
+    this.paths = paths;
+  }
+
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  public void setMaxConcurrent(int maxConcurrent) {
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  public int getMaxQueued() {
+    return maxQueued;
+  }
+
+  public void setMaxQueued(int maxQueued) {
+    this.maxQueued = maxQueued;
+  }
+
+  public long getMaxWait() {
+    return maxWait;
+  }
+
+  public void setMaxWait(long maxWait) {
+    this.maxWait = maxWait;
+  }
+
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.configuration;
+
+import javax.validation.constraints.Min;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/***
+ * Bounds the server side cache of graph results.
+ */
+public class ResultCacheConfiguration {
+
+  /*** The maximum number of vertices and edges held in the cache, 0 disables it */
+  @Min(0)
+  @JsonProperty
+  private long maximumWeight = 1_000_000;
+
+  public long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  public void setMaximumWeight(long maximumWeight) {
+    this.maximumWeight = maximumWeight;
+  }
+
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.configuration;
+
+import javax.validation.constraints.Min;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/***
+ * Which Cypher queries are recorded as slow.
+ */
+public class SlowQueryLogConfiguration {
+
+  /*** Queries slower than this, in milliseconds, are recorded */
+  @JsonProperty
+  private long threshold = 1_000;
+
+  /*** Queries slower than this, in milliseconds, also have their plan recorded */
+  @JsonProperty
+  private long planThreshold = 5_000;
+
+  /*** The number of slow queries kept in memory */
+  @Min(0)
+  @JsonProperty
+  private int capacity = 100;
+
+  public long getThreshold() {
+    return threshold;
+  }
+
+  public void setThreshold(long threshold) {
+    this.threshold = threshold;
+  }
+
+  public long getPlanThreshold() {
+    return planThreshold;
+  }
+
+  public void setPlanThreshold(long planThreshold) {
+    this.planThreshold = planThreshold;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public void setCapacity(int capacity) {
+    this.capacity = capacity;
+  }
+
+}
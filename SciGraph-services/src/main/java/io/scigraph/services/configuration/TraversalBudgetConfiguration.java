@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.configuration;
+
+import javax.validation.constraints.Min;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/***
+ * Server wide upper bounds for neighborhood traversals. Requests may ask for less but never
+ * for more.
+ */
+public class TraversalBudgetConfiguration {
+
+  /*** The maximum number of relationships expanded by a traversal */
+  @Min(1)
+  @JsonProperty
+  private int maxRelationships = 1_000_000;
+
+  /*** The maximum number of nodes returned by a traversal */
+  @Min(1)
+  @JsonProperty
+  private int maxNodes = 100_000;
+
+  /*** The maximum time spent by a traversal, in milliseconds */
+  @Min(1)
+  @JsonProperty
+  private long timeout = 30_000;
+
+  /*** The number of threads shared by parallel traversals */
+  @Min(1)
+  @JsonProperty
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  public int getMaxRelationships() {
+    return maxRelationships;
+  }
+
+  public void setMaxRelationships(int maxRelationships) {
+    this.maxRelationships = maxRelationships;
+  }
+
+  public int getMaxNodes() {
+    return maxNodes;
+  }
+
+  public void setMaxNodes(int maxNodes) {
+    this.maxNodes = maxNodes;
+  }
+
+  public long getTimeout() {
+    return timeout;
+  }
+
+  public void setTimeout(long timeout) {
+    this.timeout = timeout;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+}
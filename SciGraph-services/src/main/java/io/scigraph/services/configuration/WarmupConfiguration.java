@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/***
+ * What is warmed up before the service starts accepting requests.
+ */
+public class WarmupConfiguration {
+
+  /*** Plan the query of every cypher resource */
+  @JsonProperty
+  private boolean planQueries = true;
+
+  /*** Store files read into the page cache, an empty list skips this step */
+  @NotNull
+  @JsonProperty
+  private List<String> storeFiles = new ArrayList<>(Arrays.asList("neostore.nodestore.db",
+      "neostore.relationshipstore.db", "neostore.relationshipgroupstore.db"));
+
+  /*** A file of sample request URIs, one per line, to replay */
+  @JsonProperty
+  private String requestLog;
+
+  /*** The maximum number of sample requests replayed */
+  @Min(0)
+  @JsonProperty
+  private int maxRequests = 10_000;
+
+  public boolean isPlanQueries() {
+    return planQueries;
+  }
+
+  public void setPlanQueries(boolean planQueries) {
+    this.planQueries = planQueries;
+  }
+
+  public List<String> getStoreFiles() {
+    return storeFiles;
+  }
+
+  public void setStoreFiles(List<String> storeFiles) {
+    this.storeFiles = storeFiles;
+  }
+
+  public String getRequestLog() {
+    return requestLog;
+  }
+
+  public void setRequestLog(String requestLog) {
+    this.requestLog = requestLog;
+  }
+
+  public int getMaxRequests() {
+    return maxRequests;
+  }
+
+  public void setMaxRequests(int maxRequests) {
+    this.maxRequests = maxRequests;
+  }
+
+}
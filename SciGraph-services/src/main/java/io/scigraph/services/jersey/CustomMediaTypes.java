@@ -31,6 +31,9 @@ public class CustomMediaTypes {
   public final static String TEXT_TSV = "text/tab-separated-values";
   public final static MediaType TEXT_TSV_TYPE = new MediaType("text", "tab-separated-values");
 
+  public final static String APPLICATION_NDJSON = "application/x-ndjson";
+  public final static MediaType APPLICATION_NDJSON_TYPE = new MediaType("application", "x-ndjson");
+
   public final static String APPLICATION_RIS = "application/x-research-info-systems";
   public final static MediaType APPLICATION_RIS_TYPE = new MediaType("application", "x-research-info-systems");
 
@@ -17,27 +17,35 @@ package io.scigraph.services.jersey.dynamic;
 
 import static com.google.common.collect.Iterables.getFirst;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.base.Splitter;
+import com.google.common.hash.Hashing;
 import com.tinkerpop.blueprints.Graph;
-import io.scigraph.internal.CypherUtil;
-import io.scigraph.internal.GraphAspect;
-import io.scigraph.internal.TinkerGraphUtil;
-import io.scigraph.owlapi.curies.AddCuries;
-import io.scigraph.services.api.graph.ArrayPropertyTransformer;
-import io.scigraph.services.jersey.MultivaluedMapUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.inject.Inject;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.Variant;
 
 import io.swagger.models.Path;
 import org.glassfish.jersey.process.Inflector;
@@ -47,30 +55,68 @@ import org.neo4j.graphdb.Transaction;
 import org.prefixcommons.CurieUtil;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.inject.assistedinject.Assisted;
-import org.prefixcommons.CurieUtil;
 
+import io.scigraph.cache.GraphResultCache;
 import io.scigraph.internal.CypherUtil;
 import io.scigraph.internal.GraphAspect;
+import io.scigraph.internal.GraphSinks;
 import io.scigraph.internal.TinkerGraphUtil;
+import io.scigraph.neo4j.GraphVersion;
 import io.scigraph.owlapi.curies.AddCuries;
 import io.scigraph.services.api.graph.ArrayPropertyTransformer;
+import io.scigraph.services.jersey.CustomMediaTypes;
 import io.scigraph.services.jersey.MultivaluedMapUtils;
+import io.scigraph.services.jersey.streaming.BbopStreamingGraphSink;
+import io.scigraph.services.jersey.streaming.GraphsonStreamingGraphSink;
+import io.scigraph.services.jersey.streaming.StreamingGraphSink;
 
+/***
+ * Serves a dynamic Cypher resource.
+ *
+ * <p>
+ * Resources with an <code>x-serverCache: true</code> vendor extension have their results cached
+ * in the shared {@link GraphResultCache}, keyed by the resolved request parameters, and are
+ * served with a strong ETag derived from the graph version, the parameters and the accepted
+ * media types. Clients revalidating with <code>If-None-Match</code> get a 304 without the query
+ * being run. Only enable this for queries whose result only depends on the graph and the
+ * parameters.
+ *
+ * <p>
+ * Other resources stream JSON and GraphSON responses: rows are converted to nodes and edges
+ * that are written as they are read, projected, CURIE mapped and with their array properties
+ * flattened, without building a graph first. A graph is still built when another format is
+ * negotiated or when a {@link GraphAspect} is requested, as aspects need the whole graph.
+ */
 class CypherInflector implements Inflector<ContainerRequestContext, Response> {
 
   private static final Logger logger = Logger.getLogger(CypherInflector.class.getName());
 
+  static final String SERVER_CACHE_EXTENSION = "x-serverCache";
+  static final String CACHE_CONTROL_EXTENSION = "x-cacheControl";
+
+  static final List<Variant> VARIANTS = Variant.mediaTypes(
+      DynamicCypherResource.MEDIA_TYPES.toArray(new MediaType[0])).build();
+
+  static final Set<MediaType> STREAMED_TYPES =
+      ImmutableSet.of(MediaType.APPLICATION_JSON_TYPE, CustomMediaTypes.APPLICATION_GRAPHSON_TYPE);
+
   private final GraphDatabaseService graphDb;
   private final CypherUtil cypherUtil;
   private final String pathName;
   private final Path path;
   private final CurieUtil curieUtil;
   private final Map<String, GraphAspect> aspectMap;
+  private final GraphResultCache resultCache;
+  private final GraphVersion graphVersion;
+  private final CacheControl cacheControl;
+  private final boolean serverCache;
 
   @Inject
   CypherInflector(GraphDatabaseService graphDb, CypherUtil cypherUtil, CurieUtil curieUtil,
+      GraphResultCache resultCache, GraphVersion graphVersion,
       @Assisted String pathName, @Assisted Path path, Map<String, GraphAspect> aspectMap) {
     this.graphDb = graphDb;
     this.cypherUtil = cypherUtil;
@@ -78,6 +124,25 @@ class CypherInflector implements Inflector<ContainerRequestContext, Response> {
     this.path = path;
     this.curieUtil = curieUtil;
     this.aspectMap = aspectMap;
+    this.resultCache = resultCache;
+    this.graphVersion = graphVersion;
+    this.cacheControl = getCacheControl(pathName, path);
+    this.serverCache = null != path
+        && Boolean.parseBoolean(String.valueOf(path.getVendorExtensions().get(SERVER_CACHE_EXTENSION)));
+  }
+
+  static CacheControl getCacheControl(String pathName, Path path) {
+    Object cacheControlNode = (null == path) ? null
+        : path.getVendorExtensions().get(CACHE_CONTROL_EXTENSION);
+    if (null == cacheControlNode) {
+      return null;
+    }
+    try {
+      return new ObjectMapper().readValue(cacheControlNode.toString(), CacheControl.class);
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Ignoring invalid cache control for " + pathName, e);
+      return null;
+    }
   }
 
   @AddCuries
@@ -86,9 +151,83 @@ class CypherInflector implements Inflector<ContainerRequestContext, Response> {
     logger.fine("Serving dynamic request");
     Multimap<String, Object> paramMap = MultivaluedMapUtils.merge(context.getUriInfo());
     paramMap = resolveCuries(paramMap);
+    if (!serverCache) {
+      Optional<MediaType> streamedType = getStreamedType(context, paramMap);
+      if (streamedType.isPresent()) {
+        return stream(paramMap, streamedType.get());
+      }
+      return Response.ok(getGraph(paramMap)).cacheControl(cacheControl).build();
+    }
+    Map<String, List<String>> parameters = normalize(paramMap);
+    EntityTag tag = getEntityTag(graphVersion.get(), parameters,
+        context.getHeaderString(HttpHeaders.ACCEPT));
+    if (matches(context.getHeaderString(HttpHeaders.IF_NONE_MATCH), tag)) {
+      return Response.notModified(tag).cacheControl(cacheControl)
+          .header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+    }
+    final Multimap<String, Object> resolvedParams = paramMap;
+    Graph graph = resultCache.get(GraphResultCache.key("dynamic", pathName, parameters),
+        () -> getGraph(resolvedParams));
+    return Response.ok(graph).tag(tag).cacheControl(cacheControl)
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+  }
+
+  boolean hasAspects(Multimap<String, Object> paramMap) {
+    for (String key: aspectMap.keySet()) {
+      if ("true".equals(getFirst(paramMap.get(key), "false"))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /***
+   * @return the negotiated media type if the response can be streamed
+   */
+  Optional<MediaType> getStreamedType(ContainerRequestContext context,
+      Multimap<String, Object> paramMap) {
+    if (hasAspects(paramMap) || null == context.getRequest()) {
+      return Optional.empty();
+    }
+    Variant variant = context.getRequest().selectVariant(VARIANTS);
+    if (null == variant) {
+      return Optional.empty();
+    }
+    MediaType type = variant.getMediaType();
+    return STREAMED_TYPES.contains(type) ? Optional.of(type) : Optional.empty();
+  }
+
+  Response stream(Multimap<String, Object> paramMap, MediaType type) {
+    Collection<String> projection = getProjection(paramMap);
+    String query = (String)path.getVendorExtensions().get("x-query");
+    StreamingOutput stream = output -> {
+      try (Transaction tx = graphDb.beginTx();
+          StreamingGraphSink sink = CustomMediaTypes.APPLICATION_GRAPHSON_TYPE.equals(type)
+              ? new GraphsonStreamingGraphSink(output, graphDb, curieUtil, projection)
+              : new BbopStreamingGraphSink(output, graphDb, curieUtil, projection)) {
+        Result result = cypherUtil.execute(query, paramMap);
+        sink.start();
+        try {
+          GraphSinks.emit(result, sink);
+        } catch (UncheckedIOException e) {
+          throw e.getCause();
+        }
+        sink.finish(Optional.empty());
+        tx.success();
+      }
+    };
+    return Response.ok(stream, type).cacheControl(cacheControl).build();
+  }
+
+  @SuppressWarnings("unchecked")
+  static Collection<String> getProjection(Multimap<String, Object> paramMap) {
+    return paramMap.containsKey("project")
+        ? (Collection<String>)(Collection<?>)paramMap.get("project") : Collections.singleton("*");
+  }
+
+  Graph getGraph(Multimap<String, Object> paramMap) {
     try (Transaction tx = graphDb.beginTx()) {
       long start = System.currentTimeMillis();
-      start = System.currentTimeMillis();
       Result result = cypherUtil.execute((String)path.getVendorExtensions().get("x-query"), paramMap);
       logger.fine((System.currentTimeMillis() - start) + " to execute query" );
       start = System.currentTimeMillis();
@@ -96,31 +235,62 @@ class CypherInflector implements Inflector<ContainerRequestContext, Response> {
       Graph graph = tgu.resultToGraph(result);
       tgu.setGraph(graph);
       logger.fine((System.currentTimeMillis() - start) + " to convert to graph" );
-      start = System.currentTimeMillis();
       for (String key: aspectMap.keySet()) {
         if ("true".equals(getFirst(paramMap.get(key), "false"))) {
           aspectMap.get(key).invoke(graph);
         }
       }
       if (paramMap.containsKey("project")) {
-        @SuppressWarnings("unchecked")
-        Collection<String> projection = (Collection<String>)(Collection<?>)paramMap.get("project");
-        tgu.project(projection);
+        tgu.project(getProjection(paramMap));
       }
       ArrayPropertyTransformer.transform(graph);
       tx.success();
-      Object cacheControlNode = path.getVendorExtensions().get("x-cacheControl");
-      if (cacheControlNode != null) {
-          try {
-            CacheControl cacheControl = new ObjectMapper().readValue(cacheControlNode.toString(), CacheControl.class);
-            return Response.ok(graph).cacheControl(cacheControl).build();
-          }
-          catch (Throwable e) {
-            return Response.ok(graph).cacheControl(null).build();
-          }
+      return graph;
+    }
+  }
+
+  /***
+   * @return the parameters sorted by name, values keep their order as it may matter to the query
+   */
+  static Map<String, List<String>> normalize(Multimap<String, Object> paramMap) {
+    Map<String, List<String>> parameters = new TreeMap<>();
+    for (Entry<String, Collection<Object>> entry : paramMap.asMap().entrySet()) {
+      List<String> values = new ArrayList<>();
+      for (Object value : entry.getValue()) {
+        values.add(String.valueOf(value));
+      }
+      parameters.put(entry.getKey(), values);
+    }
+    return parameters;
+  }
+
+  EntityTag getEntityTag(long version, Map<String, List<String>> parameters, String accept) {
+    String representation = pathName + '\n' + version + '\n' + parameters + '\n' + accept;
+    return new EntityTag(
+        Hashing.murmur3_128().hashString(representation, StandardCharsets.UTF_8).toString());
+  }
+
+  /***
+   * @return true if an If-None-Match header matches tag
+   */
+  static boolean matches(String ifNoneMatch, EntityTag tag) {
+    if (null == ifNoneMatch) {
+      return false;
+    }
+    for (String candidate : Splitter.on(',').trimResults().omitEmptyStrings().split(ifNoneMatch)) {
+      if ("*".equals(candidate)) {
+        return true;
+      }
+      try {
+        // If-None-Match uses the weak comparison
+        if (EntityTag.valueOf(candidate).getValue().equals(tag.getValue())) {
+          return true;
+        }
+      } catch (IllegalArgumentException e) {
+        logger.fine("Ignoring invalid entity tag " + candidate);
       }
-      return Response.ok(graph).cacheControl(null).build();
     }
+    return false;
   }
 
   Multimap<String, Object> resolveCuries(Multimap<String, Object> paramMap) {
@@ -17,6 +17,7 @@ package io.scigraph.services.jersey.dynamic;
 
 import io.scigraph.services.jersey.CustomMediaTypes;
 
+import java.util.List;
 import java.util.logging.Logger;
 
 import javax.inject.Inject;
@@ -27,12 +28,19 @@ import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.server.model.Resource;
 import org.glassfish.jersey.server.model.ResourceMethod;
 
+import com.google.common.collect.ImmutableList;
 import com.google.inject.assistedinject.Assisted;
 
 public class DynamicCypherResource extends ResourceConfig {
 
   private static final Logger logger = Logger.getLogger(DynamicCypherResourceFactory.class.getName());
 
+  static final List<MediaType> MEDIA_TYPES = ImmutableList.of(
+      MediaType.APPLICATION_JSON_TYPE, CustomMediaTypes.APPLICATION_JSONP_TYPE, CustomMediaTypes.APPLICATION_GRAPHSON_TYPE,
+      MediaType.APPLICATION_XML_TYPE, CustomMediaTypes.APPLICATION_GRAPHML_TYPE, CustomMediaTypes.APPLICATION_XGMML_TYPE,
+      CustomMediaTypes.TEXT_GML_TYPE, CustomMediaTypes.TEXT_CSV_TYPE, CustomMediaTypes.TEXT_TSV_TYPE,
+      CustomMediaTypes.IMAGE_JPEG_TYPE, CustomMediaTypes.IMAGE_PNG_TYPE);
+
   final Resource.Builder resourceBuilder = Resource.builder();
 
   @Inject
@@ -40,12 +48,7 @@ public class DynamicCypherResource extends ResourceConfig {
     logger.info("Building dynamic resource at " + pathName);
     resourceBuilder.path(pathName);
     ResourceMethod.Builder methodBuilder = resourceBuilder.addMethod("GET");
-    methodBuilder.produces(
-        MediaType.APPLICATION_JSON_TYPE, CustomMediaTypes.APPLICATION_JSONP_TYPE, CustomMediaTypes.APPLICATION_GRAPHSON_TYPE,
-        MediaType.APPLICATION_XML_TYPE, CustomMediaTypes.APPLICATION_GRAPHML_TYPE, CustomMediaTypes.APPLICATION_XGMML_TYPE,
-        CustomMediaTypes.TEXT_GML_TYPE, CustomMediaTypes.TEXT_CSV_TYPE, CustomMediaTypes.TEXT_TSV_TYPE,
-        CustomMediaTypes.IMAGE_JPEG_TYPE, CustomMediaTypes.IMAGE_PNG_TYPE)
-        .handledBy(factory.create(pathName, path));
+    methodBuilder.produces(MEDIA_TYPES).handledBy(factory.create(pathName, path));
   }
 
   public Resource.Builder getBuilder() {
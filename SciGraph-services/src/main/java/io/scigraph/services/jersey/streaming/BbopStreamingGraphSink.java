@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.jersey.streaming;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.prefixcommons.CurieUtil;
+
+import com.google.common.collect.ImmutableSet;
+
+import io.scigraph.bbop.BbopEdge;
+import io.scigraph.bbop.BbopNode;
+import io.scigraph.frames.CommonProperties;
+import io.scigraph.frames.NodeProperties;
+import io.scigraph.internal.TraversalBudget;
+import io.scigraph.services.jersey.writers.BbopJsGraphWriter;
+
+/***
+ * Streams a graph in the format of {@link BbopJsGraphWriter}.
+ *
+ * <p>
+ * A truncated graph has the exceeded limit in its "truncated" meta field.
+ */
+public class BbopStreamingGraphSink extends StreamingGraphSink {
+
+  private static final ImmutableSet<String> IGNORED_PROPERTY_KEYS =
+      ImmutableSet.of(CommonProperties.IRI, NodeProperties.LABEL, CommonProperties.CURIE);
+
+  public BbopStreamingGraphSink(OutputStream out, GraphDatabaseService graphDb,
+      CurieUtil curieUtil, Collection<String> projection) throws IOException {
+    super(out, graphDb, curieUtil, projection);
+  }
+
+  @Override
+  public void start() throws IOException {
+    generator.writeStartObject();
+    generator.writeArrayFieldStart("nodes");
+  }
+
+  @Override
+  void writeNode(Node node) throws IOException {
+    BbopNode bbopNode = new BbopNode();
+    bbopNode.setId(getCurieOrIri(node));
+    if (node.hasProperty(NodeProperties.LABEL) && isProjected(NodeProperties.LABEL)) {
+      bbopNode.setLbl(asSet(getValue(node, NodeProperties.LABEL)).iterator().next().toString());
+    }
+    for (String key : node.getPropertyKeys()) {
+      if (!IGNORED_PROPERTY_KEYS.contains(key) && isProjected(key)) {
+        bbopNode.getMeta().put(key, asSet(getValue(node, key)));
+      }
+    }
+    if (isProjected(TYPES)) {
+      bbopNode.getMeta().put(TYPES, getLabels(node));
+    }
+    generator.writeObject(bbopNode);
+  }
+
+  @Override
+  void writeValue(String key, Object value) throws IOException {
+    BbopNode bbopNode = new BbopNode();
+    bbopNode.setId(getCurieOrIri(key));
+    if (isProjected(NodeProperties.LABEL)) {
+      bbopNode.setLbl(VALUE_LABEL);
+    }
+    if (!IGNORED_PROPERTY_KEYS.contains(key) && isProjected(key)) {
+      bbopNode.getMeta().put(key, asSet(value));
+    }
+    generator.writeObject(bbopNode);
+  }
+
+  @Override
+  void startEdges() throws IOException {
+    generator.writeEndArray();
+    generator.writeArrayFieldStart("edges");
+  }
+
+  @Override
+  void writeEdge(Relationship relationship) throws IOException {
+    BbopEdge bbopEdge = new BbopEdge();
+    bbopEdge.setSub(getCurieOrIri(relationship.getStartNode()));
+    bbopEdge.setObj(getCurieOrIri(relationship.getEndNode()));
+    bbopEdge.setPred(getPredicate(relationship));
+    for (String key : relationship.getPropertyKeys()) {
+      if (!CommonProperties.IRI.equals(key)) {
+        bbopEdge.getMeta().put(key, asSet(getValue(relationship, key)));
+      }
+    }
+    generator.writeObject(bbopEdge);
+  }
+
+  @Override
+  void end(Optional<TraversalBudget.Limit> truncated) throws IOException {
+    generator.writeEndArray();
+    generator.writeObjectFieldStart("meta");
+    if (truncated.isPresent()) {
+      generator.writeStringField("truncated", truncated.get().name().toLowerCase());
+    }
+    generator.writeEndObject();
+    generator.writeEndObject();
+  }
+
+  static Set<Object> asSet(Object value) {
+    Set<Object> values = new HashSet<>();
+    if (value instanceof Collection) {
+      values.addAll((Collection<?>) value);
+    } else {
+      values.add(value);
+    }
+    return values;
+  }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.jersey.streaming;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.PropertyContainer;
+import org.neo4j.graphdb.Relationship;
+import org.prefixcommons.CurieUtil;
+
+import com.google.common.collect.ImmutableSet;
+
+import io.scigraph.frames.CommonProperties;
+import io.scigraph.frames.EdgeProperties;
+import io.scigraph.frames.NodeProperties;
+import io.scigraph.internal.TraversalBudget;
+import io.scigraph.services.jersey.writers.GraphsonWriter;
+
+/***
+ * Streams a graph in the GraphSON format of {@link GraphsonWriter}.
+ *
+ * <p>
+ * A truncated graph has the exceeded limit in a top level "truncated" field.
+ */
+public class GraphsonStreamingGraphSink extends StreamingGraphSink {
+
+  /*** Properties that are not wrapped in lists, as in ArrayPropertyTransformer */
+  private static final ImmutableSet<String> SCALAR_PROPERTY_KEYS = ImmutableSet.of(
+      CommonProperties.CURIE, CommonProperties.CONVENIENCE, CommonProperties.IRI,
+      CommonProperties.OWL_TYPE, EdgeProperties.QUANTIFICATION_TYPE, EdgeProperties.REFLEXIVE,
+      EdgeProperties.SYMMETRIC, EdgeProperties.TRANSITIVE);
+
+  public GraphsonStreamingGraphSink(OutputStream out, GraphDatabaseService graphDb,
+      CurieUtil curieUtil, Collection<String> projection) throws IOException {
+    super(out, graphDb, curieUtil, projection);
+  }
+
+  @Override
+  public void start() throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("mode", "COMPACT");
+    generator.writeArrayFieldStart("vertices");
+  }
+
+  @Override
+  void writeNode(Node node) throws IOException {
+    generator.writeStartObject();
+    writeProperties(node, true);
+    if (isProjected(TYPES)) {
+      // Blueprints writes sets as strings
+      generator.writeStringField(TYPES, getLabels(node).toString());
+    }
+    generator.writeStringField("_id", Long.toString(node.getId()));
+    generator.writeStringField("_type", "vertex");
+    generator.writeEndObject();
+  }
+
+  @Override
+  void writeValue(String key, Object value) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField(CommonProperties.IRI, getCurieOrIri(key));
+    if (isProjected(key)) {
+      generator.writeObjectField(key, Collections.singletonList(value));
+    }
+    if (isProjected(NodeProperties.LABEL)) {
+      generator.writeObjectField(NodeProperties.LABEL, Collections.singletonList(VALUE_LABEL));
+    }
+    generator.writeStringField("_id", key);
+    generator.writeStringField("_type", "vertex");
+    generator.writeEndObject();
+  }
+
+  @Override
+  void startEdges() throws IOException {
+    generator.writeEndArray();
+    generator.writeArrayFieldStart("edges");
+  }
+
+  @Override
+  void writeEdge(Relationship relationship) throws IOException {
+    generator.writeStartObject();
+    writeProperties(relationship, false);
+    generator.writeStringField("_id", Long.toString(relationship.getId()));
+    generator.writeStringField("_type", "edge");
+    generator.writeStringField("_label", getPredicate(relationship));
+    generator.writeStringField("_outV", Long.toString(relationship.getStartNodeId()));
+    generator.writeStringField("_inV", Long.toString(relationship.getEndNodeId()));
+    generator.writeEndObject();
+  }
+
+  void writeProperties(PropertyContainer container, boolean project) throws IOException {
+    for (String key : container.getPropertyKeys()) {
+      if (project && !isProjected(key)) {
+        continue;
+      }
+      Object value = getValue(container, key);
+      if (CommonProperties.IRI.equals(key) && value instanceof String) {
+        value = getCurieOrIri((String) value);
+      }
+      if (!SCALAR_PROPERTY_KEYS.contains(key) && !(value instanceof Collection)) {
+        value = Collections.singletonList(value);
+      }
+      generator.writeObjectField(key, value);
+    }
+  }
+
+  @Override
+  void end(Optional<TraversalBudget.Limit> truncated) throws IOException {
+    generator.writeEndArray();
+    if (truncated.isPresent()) {
+      generator.writeStringField("truncated", truncated.get().name().toLowerCase());
+    }
+    generator.writeEndObject();
+  }
+
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.jersey.streaming;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.PropertyContainer;
+import org.neo4j.graphdb.Relationship;
+import org.prefixcommons.CurieUtil;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+
+import io.dropwizard.jackson.Jackson;
+import io.scigraph.frames.CommonProperties;
+import io.scigraph.internal.GraphSink;
+import io.scigraph.internal.TraversalBudget;
+import io.scigraph.neo4j.GraphUtil;
+
+/***
+ * Writes a graph to a stream as a traversal reaches its elements.
+ *
+ * <p>
+ * Nodes are written as they are received. Formats list every node before any edge so only the
+ * ids of the edges are kept, and the edges are written by {@link #finish(Optional)}. This must
+ * be called in the transaction of the traversal. The output mirrors what the graph writers
+ * produce for a {@link com.tinkerpop.blueprints.Graph} built by
+ * {@link io.scigraph.internal.TinkerGraphUtil}, including the projection of node properties.
+ */
+public abstract class StreamingGraphSink implements GraphSink, Closeable {
+
+  private static final ObjectMapper MAPPER = Jackson.newObjectMapper();
+
+  static final ImmutableSet<String> PROTECTED_PROPERTY_KEYS =
+      ImmutableSet.of(CommonProperties.IRI, CommonProperties.CURIE);
+
+  static final String TYPES = "types";
+
+  /*** The label of the nodes holding result values */
+  static final String VALUE_LABEL = "Boolean result";
+
+  protected final JsonGenerator generator;
+  protected final CurieUtil curieUtil;
+  private final GraphDatabaseService graphDb;
+  private final Collection<String> projection;
+  private long[] edges = new long[64];
+  private int edgeCount = 0;
+
+  protected StreamingGraphSink(OutputStream out, GraphDatabaseService graphDb,
+      CurieUtil curieUtil, Collection<String> projection) throws IOException {
+    this.generator = MAPPER.getFactory().createGenerator(out)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    this.graphDb = graphDb;
+    this.curieUtil = curieUtil;
+    this.projection = projection;
+  }
+
+  /***
+   * Write everything that comes before the first node.
+   */
+  public abstract void start() throws IOException;
+
+  abstract void writeNode(Node node) throws IOException;
+
+  /***
+   * Write a node holding a result value, as {@link io.scigraph.internal.TinkerGraphUtil} does.
+   */
+  abstract void writeValue(String key, Object value) throws IOException;
+
+  abstract void startEdges() throws IOException;
+
+  abstract void writeEdge(Relationship relationship) throws IOException;
+
+  abstract void end(Optional<TraversalBudget.Limit> truncated) throws IOException;
+
+  @Override
+  public void node(Node node) {
+    try {
+      writeNode(node);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void value(String key, Object value) {
+    try {
+      writeValue(key, value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void edge(Relationship relationship) {
+    if (edgeCount == edges.length) {
+      edges = Arrays.copyOf(edges, edges.length * 2);
+    }
+    edges[edgeCount++] = relationship.getId();
+  }
+
+  /***
+   * Write the edges and close the document.
+   *
+   * @param truncated the limit that stopped the traversal, if any
+   */
+  public void finish(Optional<TraversalBudget.Limit> truncated) throws IOException {
+    startEdges();
+    for (int i = 0; i < edgeCount; i++) {
+      writeEdge(graphDb.getRelationshipById(edges[i]));
+    }
+    end(truncated);
+    generator.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    generator.close();
+  }
+
+  boolean isProjected(String key) {
+    return projection.contains("*") || projection.contains(key)
+        || PROTECTED_PROPERTY_KEYS.contains(key);
+  }
+
+  String getCurieOrIri(String iri) {
+    return (null == iri) ? null : curieUtil.getCurie(iri).orElse(iri);
+  }
+
+  String getCurieOrIri(Node node) {
+    return getCurieOrIri(GraphUtil.getProperty(node, CommonProperties.IRI, String.class)
+        .orElse(null));
+  }
+
+  String getPredicate(Relationship relationship) {
+    return getCurieOrIri(relationship.getType().name());
+  }
+
+  static Set<String> getLabels(Node node) {
+    Set<String> labels = new HashSet<>();
+    for (Label label : node.getLabels()) {
+      labels.add(label.name());
+    }
+    return labels;
+  }
+
+  /***
+   * @return a property value with arrays converted to lists
+   */
+  static Object getValue(PropertyContainer container, String key) {
+    Object value = container.getProperty(key);
+    if (value.getClass().isArray()) {
+      List<Object> values = new ArrayList<>();
+      for (int i = 0; i < Array.getLength(value); i++) {
+        values.add(Array.get(value, i));
+      }
+      return values;
+    }
+    return value;
+  }
+
+}
@@ -19,16 +19,20 @@ import io.dropwizard.jersey.caching.CacheControl;
 import io.dropwizard.jersey.params.IntParam;
 import io.scigraph.internal.CypherUtil;
 import io.scigraph.services.jersey.BaseResource;
+import io.scigraph.services.jersey.CustomMediaTypes;
 import io.scigraph.services.jersey.JaxRsUtil;
 
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import javax.inject.Inject;
 import javax.ws.rs.DefaultValue;
@@ -38,6 +42,9 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.Variant;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -50,6 +57,8 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import com.codahale.metrics.annotation.Timed;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.common.base.Charsets;
 
 @Path("/cypher")
 @Api(value = "/cypher", description = "Cypher utility services")
@@ -57,6 +66,18 @@ import com.fasterxml.jackson.core.JsonGenerator;
 @Produces({MediaType.TEXT_PLAIN})
 public class CypherUtilService extends BaseResource {
 
+  static final int FLUSH_INTERVAL = 1000;
+
+  static final String TIMEOUT_MESSAGE =
+      "The query execution exceeds dbms.transaction.timeout configuration. "
+          + "Consider using the neo4j shell instead of this service.";
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private static final List<Variant> EXECUTE_VARIANTS = Variant.VariantListBuilder.newInstance()
+      .mediaTypes(MediaType.TEXT_PLAIN_TYPE, MediaType.APPLICATION_JSON_TYPE,
+          CustomMediaTypes.APPLICATION_NDJSON_TYPE).add().build();
+
   final private CypherUtil cypherUtil;
   final private GraphDatabaseService graphDb;
 
@@ -95,48 +116,91 @@ public class CypherUtilService extends BaseResource {
   @ApiOperation(
       value = "Execute an arbitrary Cypher query.",
       response = String.class,
-      notes = "The graph is in read-only mode, this service will fail with queries which alter the graph, like CREATE, DELETE or REMOVE. Example: MATCH (n:Node{iri:'DOID:4'}) return n")
+      notes = "The graph is in read-only mode, this service will fail with queries which alter the graph, like CREATE, DELETE or REMOVE. Example: MATCH (n:Node{iri:'DOID:4'}) return n. "
+          + "Rows are streamed as they are read: JSON as an array of rows and NDJSON ("
+          + CustomMediaTypes.APPLICATION_NDJSON + ") as one row per line.")
   @Timed
   @CacheControl(maxAge = 2, maxAgeUnit = TimeUnit.HOURS)
-  @Produces({MediaType.TEXT_PLAIN, MediaType.APPLICATION_JSON})
-  public String execute(
+  @Produces({MediaType.TEXT_PLAIN, MediaType.APPLICATION_JSON, CustomMediaTypes.APPLICATION_NDJSON})
+  public Response execute(
       @ApiParam(value = "The cypher query to execute", required = true) @QueryParam("cypherQuery") String cypherQuery,
-      @ApiParam(value = "Limit", required = true) @QueryParam("limit") @DefaultValue("10") IntParam limit)
-      throws IOException {
+      @ApiParam(value = "Limit", required = true) @QueryParam("limit") @DefaultValue("10") IntParam limit) {
 
     String sanitizedCypherQuery = cypherQuery.replaceAll(";", "") + " LIMIT " + limit;
     String replacedStartCurie = cypherUtil.resolveNodeIris(sanitizedCypherQuery);
 
-    try {
-      if (JaxRsUtil.getVariant(request.get()) != null
-          && JaxRsUtil.getVariant(request.get()).getMediaType() == MediaType.APPLICATION_JSON_TYPE) {
-        try (Transaction tx = graphDb.beginTx()) {
+    Variant variant = request.get().selectVariant(EXECUTE_VARIANTS);
+    MediaType mediaType = (null == variant) ? MediaType.TEXT_PLAIN_TYPE : variant.getMediaType();
+    StreamingOutput stream = output -> {
+      // The transaction only lives as long as the response is being written
+      try (Transaction tx = graphDb.beginTx()) {
+        if (MediaType.TEXT_PLAIN_TYPE.equals(mediaType)) {
           Result result = cypherUtil.execute(replacedStartCurie);
-          StringWriter writer = new StringWriter();
-          JsonGenerator generator = new JsonFactory().createGenerator(writer);
-          generator.writeStartArray();
-          while (result.hasNext()) {
-            Map<String, Object> row = result.next();
-            generator.writeStartObject();
-            for (Entry<String, Object> entry : row.entrySet()) {
-              String key = entry.getKey();
-              Object value = entry.getValue();
-              resultSerializer(generator, key, value);
-            }
-            generator.writeEndObject();
-          }
-          generator.writeEndArray();
-          generator.close();
+          PrintWriter writer = new PrintWriter(new OutputStreamWriter(output, Charsets.UTF_8));
+          result.writeAsStringTo(writer);
+          writer.flush();
+          tx.success();
+        } else if (writeRows(() -> cypherUtil.execute(replacedStartCurie), output,
+            CustomMediaTypes.APPLICATION_NDJSON_TYPE.equals(mediaType))) {
+          tx.success();
+        }
+      } catch (TransactionTerminatedException e) {
+        if (MediaType.TEXT_PLAIN_TYPE.equals(mediaType)) {
+          output.write(TIMEOUT_MESSAGE.getBytes(Charsets.UTF_8));
+        }
+      }
+    };
+    return Response.ok(stream, mediaType).build();
+  }
 
-          tx.close();
-          return writer.toString();
+  /***
+   * Write each row as soon as it is read, flushing every {@link #FLUSH_INTERVAL} rows.
+   * <p>
+   * Rows are buffered one at a time so that a query timing out mid-row still leaves a parsable
+   * body: the rows read so far followed by an {@code {"error": ...}} record.
+   *
+   * @param ndjson write one row per line instead of an array of rows
+   * @return whether every row was written
+   */
+  boolean writeRows(Supplier<Result> query, OutputStream output, boolean ndjson)
+      throws IOException {
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(output)) {
+      generator.setRootValueSeparator(null);
+      if (!ndjson) {
+        generator.writeStartArray();
+      }
+      boolean complete = true;
+      try {
+        Result result = query.get();
+        long rows = 0;
+        while (result.hasNext()) {
+          TokenBuffer row = new TokenBuffer(null, false);
+          row.writeStartObject();
+          for (Entry<String, Object> entry : result.next().entrySet()) {
+            resultSerializer(row, entry.getKey(), entry.getValue());
+          }
+          row.writeEndObject();
+          row.serialize(generator);
+          if (ndjson) {
+            generator.writeRaw('\n');
+          }
+          if (++rows % FLUSH_INTERVAL == 0) {
+            generator.flush();
+          }
         }
-      } else {
-        return cypherUtil.execute(replacedStartCurie).resultAsString();
+      } catch (TransactionTerminatedException e) {
+        complete = false;
+        generator.writeStartObject();
+        generator.writeStringField("error", TIMEOUT_MESSAGE);
+        generator.writeEndObject();
+        if (ndjson) {
+          generator.writeRaw('\n');
+        }
+      }
+      if (!ndjson) {
+        generator.writeEndArray();
       }
-    } catch (TransactionTerminatedException e) {
-      return "The query execution exceeds dbms.transaction.timeout configuration. " +
-              "Consider using the neo4j shell instead of this service.";
+      return complete;
     }
   }
 
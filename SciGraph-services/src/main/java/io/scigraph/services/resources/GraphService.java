@@ -15,14 +15,18 @@
  */
 package io.scigraph.services.resources;
 
+import static com.codahale.metrics.MetricRegistry.name;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
 import static java.util.Collections.sort;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -34,9 +38,13 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.Variant;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -46,11 +54,15 @@ import io.swagger.annotations.Tag;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Transaction;
 import org.prefixcommons.CurieUtil;
 
+import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
@@ -61,18 +73,28 @@ import io.dropwizard.jersey.caching.CacheControl;
 import io.dropwizard.jersey.params.BooleanParam;
 import io.dropwizard.jersey.params.IntParam;
 import io.dropwizard.jersey.params.LongParam;
+import io.scigraph.cache.GraphResultCache;
 import io.scigraph.frames.Concept;
+import io.scigraph.frames.NodeProperties;
 import io.scigraph.internal.CypherUtil;
 import io.scigraph.internal.GraphApi;
+import io.scigraph.internal.SupernodePolicy;
 import io.scigraph.internal.TinkerGraphUtil;
+import io.scigraph.internal.TraversalBudget;
+import io.scigraph.internal.TraversalBudgetExceededException;
 import io.scigraph.neo4j.DirectedRelationshipType;
+import io.scigraph.neo4j.GraphUtil;
 import io.scigraph.owlapi.OwlLabels;
 import io.scigraph.services.api.graph.ArrayPropertyTransformer;
+import io.scigraph.services.configuration.TraversalBudgetConfiguration;
 import io.scigraph.services.jersey.BadRequestException;
 import io.scigraph.services.jersey.BaseResource;
 import io.scigraph.services.jersey.CustomMediaTypes;
 import io.scigraph.services.jersey.JaxRsUtil;
 import io.scigraph.services.jersey.UnknownClassException;
+import io.scigraph.services.jersey.streaming.BbopStreamingGraphSink;
+import io.scigraph.services.jersey.streaming.GraphsonStreamingGraphSink;
+import io.scigraph.services.jersey.streaming.StreamingGraphSink;
 import io.scigraph.vocabulary.Vocabulary;
 
 @Path("/graph")
@@ -80,20 +102,54 @@ import io.scigraph.vocabulary.Vocabulary;
 @SwaggerDefinition(tags = {@Tag(name = "graph", description = "Graph services")})
 public class GraphService extends BaseResource {
 
+  /*** Set on keyset paginated edge pages that are followed by more edges */
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private static final String EDGE_CURSOR_DOC =
+      "Only return edges after this relationship id (see the " + NEXT_CURSOR_HEADER + " header)";
+
+  /*** Set on neighborhoods that were cut short, to the limit that was hit */
+  static final String TRUNCATED_HEADER = "X-Truncated";
+
+  private static final String MAX_NODES_DOC =
+      "The maximum number of nodes returned, the neighborhood is truncated beyond it";
+
+  private static final String MAX_RELATIONSHIPS_DOC =
+      "The maximum number of relationships expanded, the neighborhood is truncated beyond it";
+
+  private static final String TIMEOUT_DOC =
+      "The maximum traversal time in milliseconds, the neighborhood is truncated beyond it";
+
+  private static final String SUPERNODES_DOC =
+      "How nodes with more relationships than supernodeThreshold are expanded";
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private static final List<Variant> STREAM_VARIANTS = Variant.VariantListBuilder.newInstance()
+      .mediaTypes(MediaType.APPLICATION_JSON_TYPE, CustomMediaTypes.APPLICATION_GRAPHSON_TYPE)
+      .add().build();
+
   private final Vocabulary vocabulary;
   private final GraphDatabaseService graphDb;
   private final GraphApi api;
   private final CurieUtil curieUtil;
   private final CypherUtil cypherUtil;
+  private final GraphResultCache resultCache;
+  private final TraversalBudgetConfiguration budgets;
+  private final MetricRegistry metrics;
 
   @Inject
   GraphService(Vocabulary vocabulary, GraphDatabaseService graphDb, GraphApi api,
-               CurieUtil curieUtil, CypherUtil cypherUtil) {
+               CurieUtil curieUtil, CypherUtil cypherUtil, GraphResultCache resultCache,
+               TraversalBudgetConfiguration budgets, MetricRegistry metrics) {
     this.vocabulary = vocabulary;
     this.graphDb = graphDb;
     this.api = api;
     this.curieUtil = curieUtil;
     this.cypherUtil = cypherUtil;
+    this.resultCache = resultCache;
+    this.budgets = budgets;
+    this.metrics = metrics;
   }
 
   @GET
@@ -120,17 +176,229 @@ public class GraphService extends BaseResource {
           required = false) @QueryParam("entail") @DefaultValue("false") BooleanParam entail,
       @ApiParam(value = DocumentationStrings.PROJECTION_DOC,
           required = false) @QueryParam("project") @DefaultValue("*") Set<String> projection,
+      @ApiParam(value = "Expand the roots in parallel",
+          required = false) @QueryParam("parallel") @DefaultValue("false") BooleanParam parallel,
+      @ApiParam(value = MAX_NODES_DOC,
+          required = false) @QueryParam("maxNodes") IntParam maxNodes,
+      @ApiParam(value = MAX_RELATIONSHIPS_DOC,
+          required = false) @QueryParam("maxRelationships") IntParam maxRelationships,
+      @ApiParam(value = TIMEOUT_DOC,
+          required = false) @QueryParam("timeout") LongParam timeout,
+      @ApiParam(value = SUPERNODES_DOC, required = false,
+          allowableValues = "EXPAND,SKIP,SAMPLE,TYPED") @QueryParam("supernodes") @DefaultValue("EXPAND") String supernodes,
+      @ApiParam(value = "Nodes with more relationships than this are supernodes",
+          required = false) @QueryParam("supernodeThreshold") @DefaultValue("10000") IntParam supernodeThreshold,
+      @ApiParam(value = "How many relationships of a supernode are expanded when sampling",
+          required = false) @QueryParam("supernodeSampleSize") @DefaultValue("100") IntParam supernodeSampleSize,
+      @ApiParam(value = "Which relationships of a supernode are expanded when typed",
+          required = false) @QueryParam("supernodeRelationshipType") Set<String> supernodeRelationshipTypes,
       @ApiParam(value = DocumentationStrings.JSONP_DOC,
           required = false) @QueryParam("callback") String callback) {
-    Set<Concept> roots = new HashSet<>();
-    for (String id : ids) {
-      Vocabulary.Query query = new Vocabulary.Query.Builder(id).build();
-      Optional<Concept> concept = vocabulary.getConceptFromId(query);
-      if (!concept.isPresent()) {
-        throw new UnknownClassException(id);
+    TraversalBudget budget = getBudget(maxNodes, maxRelationships, timeout);
+    SupernodePolicy supernodePolicy = getSupernodePolicy(supernodes, supernodeThreshold,
+        supernodeSampleSize, supernodeRelationshipTypes, direction);
+    List<Object> key = GraphResultCache.key("neighbors", resolveIris(ids), depth.get(),
+        traverseBlankNodes.get(), resolveIris(relationshipTypes), direction, entail.get(),
+        projection, parallel.get(), limit(maxNodes, budgets.getMaxNodes()),
+        limit(maxRelationships, budgets.getMaxRelationships()), supernodes,
+        supernodeThreshold.get(), supernodeSampleSize.get(),
+        resolveIris(supernodeRelationshipTypes));
+    Graph tg = resultCache.get(key, () -> getNeighborhood(ids, depth, traverseBlankNodes,
+        relationshipTypes, direction, entail, projection, parallel, budget, supernodePolicy),
+        () -> !budget.isExhausted());
+    GenericEntity<Graph> response = new GenericEntity<Graph>(tg) {};
+    Object wrapped = JaxRsUtil.wrapJsonp(request.get(), response, callback);
+    Optional<TraversalBudget.Limit> exceeded = budget.getExceededLimit();
+    if (exceeded.isPresent()) {
+      String limit = exceeded.get().name().toLowerCase();
+      metrics.meter(name(GraphService.class, "truncated", limit)).mark();
+      return withHeader(wrapped, TRUNCATED_HEADER, limit);
+    }
+    return wrapped;
+  }
+
+  @GET
+  @Path("/neighbors/stream")
+  @ApiOperation(value = "Stream neighbors",
+      notes = "Nodes and edges are written as the traversal reaches them, without building a "
+          + "graph. Only JSON and GraphSON are supported. Since the status and headers are sent "
+          + "before the traversal, a truncated graph is marked in the body instead of the "
+          + TRUNCATED_HEADER + " header.")
+  @Timed
+  @Produces({MediaType.APPLICATION_JSON, CustomMediaTypes.APPLICATION_GRAPHSON})
+  public Response streamNeighbors(
+      @ApiParam(value = DocumentationStrings.GRAPH_ID_DOC,
+          required = true) @QueryParam("id") Set<String> ids,
+      @ApiParam(value = "How far to traverse neighbors",
+          required = false) @QueryParam("depth") @DefaultValue("1") IntParam depth,
+      @ApiParam(value = "Traverse blank nodes",
+          required = false) @QueryParam("blankNodes") @DefaultValue("false") BooleanParam traverseBlankNodes,
+      @ApiParam(value = "Which relationship to traverse",
+          required = false) @QueryParam("relationshipType") Set<String> relationshipTypes,
+      @ApiParam(value = DocumentationStrings.DIRECTION_DOC, required = false,
+          allowableValues = DocumentationStrings.DIRECTION_ALLOWED) @QueryParam("direction") @DefaultValue("BOTH") String direction,
+      @ApiParam(value = "Should subproperties and equivalent properties be included",
+          required = false) @QueryParam("entail") @DefaultValue("false") BooleanParam entail,
+      @ApiParam(value = DocumentationStrings.PROJECTION_DOC,
+          required = false) @QueryParam("project") @DefaultValue("*") Set<String> projection,
+      @ApiParam(value = MAX_NODES_DOC,
+          required = false) @QueryParam("maxNodes") IntParam maxNodes,
+      @ApiParam(value = MAX_RELATIONSHIPS_DOC,
+          required = false) @QueryParam("maxRelationships") IntParam maxRelationships,
+      @ApiParam(value = TIMEOUT_DOC,
+          required = false) @QueryParam("timeout") LongParam timeout,
+      @ApiParam(value = SUPERNODES_DOC, required = false,
+          allowableValues = "EXPAND,SKIP,SAMPLE,TYPED") @QueryParam("supernodes") @DefaultValue("EXPAND") String supernodes,
+      @ApiParam(value = "Nodes with more relationships than this are supernodes",
+          required = false) @QueryParam("supernodeThreshold") @DefaultValue("10000") IntParam supernodeThreshold,
+      @ApiParam(value = "How many relationships of a supernode are expanded when sampling",
+          required = false) @QueryParam("supernodeSampleSize") @DefaultValue("100") IntParam supernodeSampleSize,
+      @ApiParam(value = "Which relationships of a supernode are expanded when typed",
+          required = false) @QueryParam("supernodeRelationshipType") Set<String> supernodeRelationshipTypes) {
+    // Resolve everything up front so that bad requests fail before the response is committed
+    SupernodePolicy supernodePolicy = getSupernodePolicy(supernodes, supernodeThreshold,
+        supernodeSampleSize, supernodeRelationshipTypes, direction);
+    Set<Long> roots = getRoots(ids, false);
+    Set<DirectedRelationshipType> types =
+        getDirectedTypes(relationshipTypes, direction, entail.get());
+    Optional<Predicate<Node>> nodePredicate = getNodePredicate(traverseBlankNodes.get());
+    Variant variant = request.get().selectVariant(STREAM_VARIANTS);
+    boolean graphson = null != variant
+        && CustomMediaTypes.APPLICATION_GRAPHSON_TYPE.equals(variant.getMediaType());
+    StreamingOutput stream = output -> {
+      try (Transaction tx = graphDb.beginTx();
+          StreamingGraphSink sink = graphson
+              ? new GraphsonStreamingGraphSink(output, graphDb, curieUtil, projection)
+              : new BbopStreamingGraphSink(output, graphDb, curieUtil, projection)) {
+        TraversalBudget budget = getBudget(maxNodes, maxRelationships, timeout);
+        sink.start();
+        try {
+          api.streamNeighbors(getNodes(roots), depth.get(), types, nodePredicate, budget,
+              supernodePolicy, sink);
+        } catch (UncheckedIOException e) {
+          throw e.getCause();
+        }
+        Optional<TraversalBudget.Limit> exceeded = budget.getExceededLimit();
+        if (exceeded.isPresent()) {
+          metrics.meter(name(GraphService.class, "truncated",
+              exceeded.get().name().toLowerCase())).mark();
+        }
+        sink.finish(exceeded);
+        tx.success();
       }
-      roots.add(concept.get());
+    };
+    return Response.ok(stream, graphson ? CustomMediaTypes.APPLICATION_GRAPHSON_TYPE
+        : MediaType.APPLICATION_JSON_TYPE).build();
+  }
+
+  static int limit(IntParam requested, int serverLimit) {
+    return (null == requested) ? serverLimit : Math.min(requested.get(), serverLimit);
+  }
+
+  TraversalBudget getBudget(IntParam maxNodes, IntParam maxRelationships, LongParam timeout) {
+    return new TraversalBudget(limit(maxRelationships, budgets.getMaxRelationships()),
+        limit(maxNodes, budgets.getMaxNodes()),
+        (null == timeout) ? budgets.getTimeout() : Math.min(timeout.get(), budgets.getTimeout()));
+  }
+
+  SupernodePolicy getSupernodePolicy(String supernodes, IntParam threshold, IntParam sampleSize,
+      Set<String> supernodeRelationshipTypes, String direction) {
+    SupernodePolicy.Behaviour behaviour;
+    try {
+      behaviour = SupernodePolicy.Behaviour.valueOf(supernodes.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Unknown supernode behaviour: " + supernodes);
+    }
+    if (SupernodePolicy.Behaviour.EXPAND == behaviour) {
+      return SupernodePolicy.NONE;
+    }
+    try {
+      return new SupernodePolicy(behaviour, threshold.get(), sampleSize.get(),
+          getDirectedTypes(supernodeRelationshipTypes, direction, false));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException(e.getMessage());
+    }
+  }
+
+  Graph getNeighborhood(Set<String> ids, IntParam depth, BooleanParam traverseBlankNodes,
+      Set<String> relationshipTypes, String direction, BooleanParam entail, Set<String> projection,
+      BooleanParam parallel, TraversalBudget budget, SupernodePolicy supernodePolicy) {
+    Set<Long> roots = getRoots(ids, parallel.get());
+    Set<DirectedRelationshipType> types =
+        getDirectedTypes(relationshipTypes, direction, entail.get());
+
+    Graph tg = new TinkerGraph();
+    try (Transaction tx = graphDb.beginTx()) {
+      Set<Node> nodes = getNodes(roots);
+      Optional<Predicate<Node>> nodePredicate = getNodePredicate(traverseBlankNodes.get());
+      if (parallel.get()) {
+        tg = api.getNeighborsInParallel(nodes, depth.get(), types, nodePredicate, budget,
+            supernodePolicy);
+      } else {
+        tg = api.getNeighbors(nodes, depth.get(), types, nodePredicate, budget, supernodePolicy);
+      }
+      tx.success();
+    }
+    TinkerGraphUtil tgu = new TinkerGraphUtil(tg, curieUtil);
+    tgu.project(projection);
+    ArrayPropertyTransformer.transform(tg);
+    return tg;
+  }
+
+  /***
+   * @param bulk resolve all the ids at once instead of going through the vocabulary
+   * @return the node ids of the roots
+   */
+  Set<Long> getRoots(Set<String> ids, boolean bulk) {
+    Set<Long> roots = new HashSet<>();
+    if (bulk) {
+      Map<String, Node> nodes = api.getNodes(ids);
+      for (String id : ids) {
+        if (!nodes.containsKey(id)) {
+          throw new UnknownClassException(id);
+        }
+        roots.add(nodes.get(id).getId());
+      }
+    } else {
+      for (String id : ids) {
+        Vocabulary.Query query = new Vocabulary.Query.Builder(id).build();
+        Optional<Concept> concept = vocabulary.getConceptFromId(query);
+        if (!concept.isPresent()) {
+          throw new UnknownClassException(id);
+        }
+        roots.add(concept.get().getId());
+      }
+    }
+    return roots;
+  }
+
+  Set<Node> getNodes(Set<Long> ids) {
+    return newHashSet(transform(ids, new Function<Long, Node>() {
+      @Override
+      public Node apply(Long id) {
+        return graphDb.getNodeById(id);
+      }
+    }));
+  }
+
+  static Optional<Predicate<Node>> getNodePredicate(boolean traverseBlankNodes) {
+    if (traverseBlankNodes) {
+      return Optional.empty();
     }
+    Predicate<Node> predicate = new Predicate<Node>() {
+      @Override
+      public boolean apply(Node node) {
+        return !(Iterables.contains(node.getLabels(), OwlLabels.OWL_ANONYMOUS));
+      }
+    };
+    return Optional.of(predicate);
+  }
+
+  /***
+   * Resolve relationship type CURIEs and a direction, checking that the types exist.
+   */
+  Set<DirectedRelationshipType> getDirectedTypes(Set<String> relationshipTypes, String direction,
+      boolean entail) {
     Set<DirectedRelationshipType> types = new HashSet<>();
     Set<String> relationships = new HashSet<>();
     for (String relationshipTypeString : relationshipTypes) {
@@ -143,7 +411,7 @@ public class GraphService extends BaseResource {
 
     Direction dir = Direction.valueOf(direction);
     try {
-      if (entail.get()) {
+      if (entail) {
         Set<RelationshipType> entailedRelationships =
             cypherUtil.getEntailedRelationshipTypes(relationships);
         types = newHashSet(transform(entailedRelationships,
@@ -162,33 +430,15 @@ public class GraphService extends BaseResource {
     } catch (Exception e) {
       throw new BadRequestException("Unknown direction: " + direction);
     }
+    return types;
+  }
 
-    Graph tg = new TinkerGraph();
-    try (Transaction tx = graphDb.beginTx()) {
-      Iterable<Node> nodes = transform(roots, new Function<Concept, Node>() {
-        @Override
-        public Node apply(Concept concept) {
-          return graphDb.getNodeById(concept.getId());
-        }
-      });
-      Optional<Predicate<Node>> nodePredicate = Optional.empty();
-      if (!traverseBlankNodes.get()) {
-        Predicate<Node> predicate = new Predicate<Node>() {
-          @Override
-          public boolean apply(Node node) {
-            return !(Iterables.contains(node.getLabels(), OwlLabels.OWL_ANONYMOUS));
-          }
-        };
-        nodePredicate = Optional.of(predicate);
-      }
-      tg = api.getNeighbors(newHashSet(nodes), depth.get(), types, nodePredicate);
-      tx.success();
+  Set<String> resolveIris(Set<String> ids) {
+    Set<String> iris = new HashSet<>();
+    for (String id : ids) {
+      iris.add(curieUtil.getIri(id).orElse(id));
     }
-    TinkerGraphUtil tgu = new TinkerGraphUtil(tg, curieUtil);
-    tgu.project(projection);
-    ArrayPropertyTransformer.transform(tg);
-    GenericEntity<Graph> response = new GenericEntity<Graph>(tg) {};
-    return JaxRsUtil.wrapJsonp(request.get(), response, callback);
+    return iris;
   }
 
   @GET
@@ -218,7 +468,9 @@ public class GraphService extends BaseResource {
       @ApiParam(value = DocumentationStrings.JSONP_DOC,
           required = false) @QueryParam("callback") String callback) {
     return getNeighborsFromMultipleRoots(newHashSet(id), depth, traverseBlankNodes,
-        relationshipTypes, direction, entail, projection, callback);
+        relationshipTypes, direction, entail, projection, new BooleanParam("false"), null, null,
+        null, SupernodePolicy.Behaviour.EXPAND.name(), new IntParam("10000"), new IntParam("100"),
+        new HashSet<String>(), callback);
   }
 
   @GET
@@ -258,16 +510,91 @@ public class GraphService extends BaseResource {
           required = false) @QueryParam("limit") @DefaultValue("100") LongParam limit,
       @ApiParam(value = "The number of edges to skip",
           required = false) @QueryParam("skip") @DefaultValue("0") LongParam skip,
+      @ApiParam(value = EDGE_CURSOR_DOC,
+          required = false) @QueryParam("after") LongParam after,
       @ApiParam(value = DocumentationStrings.JSONP_DOC,
           required = false) @QueryParam("callback") String callback) {
     Graph edgeGraph = new TinkerGraph();
+    long next = GraphApi.NO_MORE_EDGES;
     try (Transaction tx = graphDb.beginTx()) {
       RelationshipType relationshipType = RelationshipType.withName(type);
-      edgeGraph = api.getEdges(relationshipType, entail.get(), skip.get(), limit.get());
+      if (null == after) {
+        edgeGraph = api.getEdges(relationshipType, entail.get(), skip.get(), limit.get());
+      } else {
+        TinkerGraphUtil tgu = new TinkerGraphUtil(edgeGraph, curieUtil);
+        next = api.forEachEdge(relationshipType, entail.get(), after.get(), limit.get(),
+            relationship -> tgu.addElement(relationship));
+      }
       tx.success();
     }
     GenericEntity<Graph> response = new GenericEntity<Graph>(edgeGraph) {};
-    return JaxRsUtil.wrapJsonp(request.get(), response, callback);
+    Object wrapped = JaxRsUtil.wrapJsonp(request.get(), response, callback);
+    if (GraphApi.NO_MORE_EDGES != next) {
+      return withHeader(wrapped, NEXT_CURSOR_HEADER, next);
+    }
+    return wrapped;
+  }
+
+  /***
+   * @param wrapped
+   *          a response or a JSONP entity
+   * @return the response with the header set
+   */
+  static Response withHeader(Object wrapped, String name, Object value) {
+    ResponseBuilder builder = (wrapped instanceof Response)
+        ? Response.fromResponse((Response) wrapped) : Response.ok(wrapped);
+    return builder.header(name, value).build();
+  }
+
+  @GET
+  @Path("/edges/{type}/stream")
+  @ApiOperation(value = "Stream all edges of a type",
+      notes = "Edges are written as they are read, in relationship id order, without building "
+          + "a graph. Each edge is an object with its id, sub, pred and obj.")
+  @Timed
+  @Produces({MediaType.APPLICATION_JSON})
+  public Response streamEdges(
+      @ApiParam(value = "The type of the edge", required = true) @PathParam("type") String type,
+      @ApiParam(value = "Should subproperties and equivalent properties be included",
+          required = false) @QueryParam("entail") @DefaultValue("true") BooleanParam entail,
+      @ApiParam(value = EDGE_CURSOR_DOC,
+          required = false) @QueryParam("after") @DefaultValue("-1") LongParam after) {
+    RelationshipType relationshipType = RelationshipType.withName(type);
+    StreamingOutput stream = output -> {
+      try (Transaction tx = graphDb.beginTx();
+          JsonGenerator generator = JSON_FACTORY.createGenerator(output)) {
+        generator.writeStartArray();
+        try {
+          api.forEachEdge(relationshipType, entail.get(), after.get(), Long.MAX_VALUE,
+              relationship -> writeEdge(generator, relationship));
+        } catch (UncheckedIOException e) {
+          throw e.getCause();
+        }
+        generator.writeEndArray();
+        tx.success();
+      }
+    };
+    return Response.ok(stream).build();
+  }
+
+  void writeEdge(JsonGenerator generator, Relationship relationship) {
+    try {
+      generator.writeStartObject();
+      generator.writeNumberField("id", relationship.getId());
+      generator.writeStringField("sub", getCurieOrIri(relationship.getStartNode()));
+      String predicate = relationship.getType().name();
+      generator.writeStringField("pred", curieUtil.getCurie(predicate).orElse(predicate));
+      generator.writeStringField("obj", getCurieOrIri(relationship.getEndNode()));
+      generator.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  String getCurieOrIri(Node node) {
+    String iri = GraphUtil.getProperty(node, NodeProperties.IRI, String.class)
+        .orElse(Long.toString(node.getId()));
+    return curieUtil.getCurie(iri).orElse(iri);
   }
 
   // TODO: Move this to scigraph-core
@@ -331,19 +658,90 @@ public class GraphService extends BaseResource {
           required = false) @QueryParam("relationships") List<String> relationships,
       @ApiParam(value = "A list of node labels to filter.",
           required = false) @QueryParam("lbls") Set<String> lbls,
+      @ApiParam(value = "The maximum number of nodes to visit", required = false)
+      @QueryParam("maxNodes") @DefaultValue("" + GraphApi.DEFAULT_NODE_BUDGET) IntParam maxNodes,
       @ApiParam(value = DocumentationStrings.JSONP_DOC,
           required = false) @QueryParam("callback") String callback) {
-    Graph graph = new TinkerGraph();
-
-    try (Transaction tx = graphDb.beginTx()) {
-      Optional<Node> startNode = api.getNode(id, hint);
-      if (!startNode.isPresent()) {
-        return Response.status(Response.Status.NOT_FOUND).build();
-      } else {
-        graph = api.getReachableNodes(startNode.get(), relationships, lbls);
+    List<Object> key = GraphResultCache.key("reachablefrom",
+        curieUtil.getIri(id).orElse(id), hint.orElse(null), relationships, lbls, maxNodes.get());
+    Graph graph = resultCache.get(key, () -> {
+      try (Transaction tx = graphDb.beginTx()) {
+        Optional<Node> startNode = api.getNode(id, hint);
+        if (!startNode.isPresent()) {
+          throw new WebApplicationException(Response.Status.NOT_FOUND);
+        }
+        Graph reachable =
+            api.getReachableNodes(startNode.get(), relationships, lbls, maxNodes.get());
+        tx.success();
+        return reachable;
+      } catch (TraversalBudgetExceededException e) {
+        throw new BadRequestException(e.getMessage());
       }
-      tx.success();
+    });
+    GenericEntity<Graph> response = new GenericEntity<Graph>(graph) {};
+    return JaxRsUtil.wrapJsonp(request.get(), response, callback);
+  }
+
+  @GET
+  @Path("/paths")
+  @ApiOperation(value = "Get the shortest paths between two nodes", response = Graph.class)
+  @Timed
+  @CacheControl(maxAge = 2, maxAgeUnit = TimeUnit.HOURS)
+  @Produces({MediaType.APPLICATION_JSON, CustomMediaTypes.APPLICATION_GRAPHSON,
+      MediaType.APPLICATION_XML, CustomMediaTypes.APPLICATION_GRAPHML,
+      CustomMediaTypes.APPLICATION_XGMML, CustomMediaTypes.TEXT_GML, CustomMediaTypes.TEXT_CSV,
+      CustomMediaTypes.TEXT_TSV, CustomMediaTypes.IMAGE_JPEG, CustomMediaTypes.IMAGE_PNG})
+  public Object getPaths(
+      @ApiParam(value = "The start node", required = true) @QueryParam("start") String start,
+      @ApiParam(value = "The end node", required = true) @QueryParam("end") String end,
+      @ApiParam(value = "Which relationship to traverse, any if absent",
+          required = false) @QueryParam("relationshipType") Set<String> relationshipTypes,
+      @ApiParam(value = DocumentationStrings.DIRECTION_DOC, required = false,
+          allowableValues = DocumentationStrings.DIRECTION_ALLOWED) @QueryParam("direction") @DefaultValue("BOTH") String direction,
+      @ApiParam(value = "Should subproperties and equivalent properties be included",
+          required = false) @QueryParam("entail") @DefaultValue("false") BooleanParam entail,
+      @ApiParam(value = "How many of the shortest simple paths to return",
+          required = false) @QueryParam("k") @DefaultValue("1") IntParam k,
+      @ApiParam(value = "The maximum length of a path",
+          required = false) @QueryParam("maxDepth") @DefaultValue("" + GraphApi.DEFAULT_PATH_DEPTH) IntParam maxDepth,
+      @ApiParam(value = "The maximum number of relationships read by the search",
+          required = false) @QueryParam("maxExpansions") @DefaultValue("" + GraphApi.DEFAULT_NODE_BUDGET) IntParam maxExpansions,
+      @ApiParam(value = DocumentationStrings.PROJECTION_DOC,
+          required = false) @QueryParam("project") @DefaultValue("*") Set<String> projection,
+      @ApiParam(value = DocumentationStrings.JSONP_DOC,
+          required = false) @QueryParam("callback") String callback) {
+    if (null == start || null == end) {
+      throw new BadRequestException("Both a start and an end node are required");
+    } else if (k.get() < 1 || maxDepth.get() < 1) {
+      throw new BadRequestException("k and maxDepth must be positive");
     }
+    List<Object> key = GraphResultCache.key("paths", curieUtil.getIri(start).orElse(start),
+        curieUtil.getIri(end).orElse(end), resolveIris(relationshipTypes), direction,
+        entail.get(), k.get(), maxDepth.get(), maxExpansions.get(), projection);
+    Graph graph = resultCache.get(key, () -> {
+      Set<DirectedRelationshipType> types =
+          getDirectedTypes(relationshipTypes, direction, entail.get());
+      if (relationshipTypes.isEmpty() && Direction.valueOf(direction) != Direction.BOTH) {
+        for (RelationshipType type : api.getAllRelationshipTypes()) {
+          types.add(new DirectedRelationshipType(type, Direction.valueOf(direction)));
+        }
+      }
+      Graph paths;
+      try (Transaction tx = graphDb.beginTx()) {
+        Node startNode = api.getNode(start, Optional.empty())
+            .orElseThrow(() -> new UnknownClassException(start));
+        Node endNode = api.getNode(end, Optional.empty())
+            .orElseThrow(() -> new UnknownClassException(end));
+        paths = api.getPaths(startNode, endNode, types, k.get(), maxDepth.get(),
+            maxExpansions.get());
+        tx.success();
+      } catch (TraversalBudgetExceededException e) {
+        throw new BadRequestException(e.getMessage());
+      }
+      new TinkerGraphUtil(paths, curieUtil).project(projection);
+      ArrayPropertyTransformer.transform(paths);
+      return paths;
+    });
     GenericEntity<Graph> response = new GenericEntity<Graph>(graph) {};
     return JaxRsUtil.wrapJsonp(request.get(), response, callback);
   }
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.resources;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+
+import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+
+import io.scigraph.frames.Concept;
+import io.scigraph.internal.reachability.ReachabilityIndex;
+import io.scigraph.services.jersey.BaseResource;
+import io.scigraph.services.jersey.UnknownClassException;
+import io.scigraph.vocabulary.Vocabulary;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+@Path("/graph/reachability")
+@Api(value = "/graph", description = "Graph services")
+@Produces({MediaType.APPLICATION_JSON})
+public class ReachabilityService extends BaseResource {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final Vocabulary vocabulary;
+  private final GraphDatabaseService graphDb;
+  private final ReachabilityIndex index;
+
+  @Inject
+  ReachabilityService(Vocabulary vocabulary, GraphDatabaseService graphDb,
+      ReachabilityIndex index) {
+    this.vocabulary = vocabulary;
+    this.graphDb = graphDb;
+    this.index = index;
+  }
+
+  @GET
+  @ApiOperation(value = "Get the connected pairs between two sets of nodes",
+      notes = "Uses the reachability index. Each source and target label is read once and "
+          + "connected pairs are streamed back as they are found.")
+  @Timed
+  public Response getConnectedPairs(
+      @ApiParam(value = DocumentationStrings.GRAPH_ID_DOC,
+          required = true) @QueryParam("source") Set<String> sources,
+      @ApiParam(value = DocumentationStrings.GRAPH_ID_DOC,
+          required = true) @QueryParam("target") Set<String> targets) {
+    return streamConnectedPairs(sources, targets);
+  }
+
+  @POST
+  @Consumes("application/x-www-form-urlencoded")
+  @ApiOperation(value = "Get the connected pairs between two sets of nodes",
+      notes = "A POST resource for large source and target sets. "
+          + DocumentationStrings.REST_ABUSE_DOC)
+  @Timed
+  public Response postConnectedPairs(
+      @ApiParam(value = DocumentationStrings.GRAPH_ID_DOC,
+          required = true) @FormParam("source") Set<String> sources,
+      @ApiParam(value = DocumentationStrings.GRAPH_ID_DOC,
+          required = true) @FormParam("target") Set<String> targets) {
+    return streamConnectedPairs(sources, targets);
+  }
+
+  Response streamConnectedPairs(Set<String> sources, Set<String> targets) {
+    if (!index.indexExists()) {
+      throw new WebApplicationException(Response.status(Status.SERVICE_UNAVAILABLE)
+          .entity("No reachability index has been built for this graph")
+          .type(MediaType.TEXT_PLAIN).build());
+    }
+    Multimap<Long, String> sourceIds = resolveNodes(sources);
+    Multimap<Long, String> targetIds = resolveNodes(targets);
+    StreamingOutput stream = output -> {
+      // read only: the index's own reads do not mark their nested transactions successful
+      try (Transaction tx = graphDb.beginTx();
+          JsonGenerator generator = JSON_FACTORY.createGenerator(output)) {
+        generator.writeStartArray();
+        try {
+          index.forEachConnectedPair(getNodes(sourceIds.keySet()), getNodes(targetIds.keySet()),
+              (source, target) -> {
+                try {
+                  for (String sourceId : sourceIds.get(source.getId())) {
+                    for (String targetId : targetIds.get(target.getId())) {
+                      generator.writeStartObject();
+                      generator.writeStringField("source", sourceId);
+                      generator.writeStringField("target", targetId);
+                      generator.writeEndObject();
+                    }
+                  }
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+        } catch (UncheckedIOException e) {
+          throw e.getCause();
+        }
+        generator.writeEndArray();
+      }
+    };
+    return Response.ok(stream).build();
+  }
+
+  /***
+   * Resolve ids before streaming so that unknown ids are reported with a 404.
+   * 
+   * @return the requested ids of each node id, several ids may resolve to the same node
+   */
+  Multimap<Long, String> resolveNodes(Set<String> ids) {
+    Multimap<Long, String> nodes = LinkedHashMultimap.create();
+    for (String id : ids) {
+      Optional<Concept> concept =
+          vocabulary.getConceptFromId(new Vocabulary.Query.Builder(id).build());
+      if (!concept.isPresent()) {
+        throw new UnknownClassException(id);
+      }
+      nodes.put(concept.get().getId(), id);
+    }
+    return nodes;
+  }
+
+  /***
+   * Must be called in a transaction.
+   */
+  List<Node> getNodes(Set<Long> ids) {
+    List<Node> nodes = new ArrayList<>();
+    for (long id : ids) {
+      nodes.add(graphDb.getNodeById(id));
+    }
+    return nodes;
+  }
+
+}
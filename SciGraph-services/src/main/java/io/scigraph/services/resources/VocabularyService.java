@@ -22,6 +22,7 @@ import static java.util.Collections.sort;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -350,6 +351,18 @@ public class VocabularyService extends BaseResource {
     return categories;
   }
 
+  @GET
+  @Path("/categories/counts")
+  @ApiOperation(value = "Get the number of concepts in each category",
+  notes = "Counts are recorded when the graph is loaded and can be used for faceting",
+  response = Long.class,
+  responseContainer = "Map")
+  @Timed
+  @CacheControl(maxAge = 2, maxAgeUnit = TimeUnit.HOURS)
+  public Map<String, Long> getCategoryCounts() {
+    return vocabulary.getCategoryCounts();
+  }
+
   @GET
   @Path("/prefixes")
   @ApiOperation(value = "Get all CURIE prefixes",
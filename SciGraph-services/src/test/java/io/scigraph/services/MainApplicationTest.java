@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+
+import javax.ws.rs.ext.MessageBodyWriter;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.prefixcommons.CurieUtil;
+
+import com.google.inject.Module;
+import com.google.inject.Stage;
+
+import io.dropwizard.jersey.setup.JerseyEnvironment;
+
+public class MainApplicationTest {
+
+  @Test
+  public void onlyWriters_areRegistered() throws Exception {
+    MainApplication application = new MainApplication();
+    Module curies = binder -> binder.bind(CurieUtil.class)
+        .toInstance(new CurieUtil(Collections.<String, String>emptyMap()));
+    application.factory.createInjector(Stage.PRODUCTION, Collections.singleton(curies));
+    JerseyEnvironment jersey = mock(JerseyEnvironment.class);
+    application.addWriters(jersey);
+    ArgumentCaptor<Object> writers = ArgumentCaptor.forClass(Object.class);
+    verify(jersey, atLeastOnce()).register(writers.capture());
+    assertThat(writers.getAllValues(), hasSize(7));
+    assertThat(writers.getAllValues(), everyItem(instanceOf(MessageBodyWriter.class)));
+  }
+
+}
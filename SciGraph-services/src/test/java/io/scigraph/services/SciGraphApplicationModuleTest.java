@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.junit.Test;
+
+import io.dropwizard.lifecycle.setup.LifecycleEnvironment;
+import io.dropwizard.setup.Environment;
+import io.scigraph.services.configuration.ApplicationConfiguration;
+
+public class SciGraphApplicationModuleTest {
+
+  @Test
+  public void traversalExecutor_isManaged() {
+    ApplicationConfiguration configuration = new ApplicationConfiguration();
+    configuration.getTraversalBudgetConfiguration().setThreads(3);
+    LifecycleEnvironment lifecycle = new LifecycleEnvironment();
+    Environment environment = mock(Environment.class);
+    when(environment.lifecycle()).thenReturn(lifecycle);
+    SciGraphApplicationModule module = new SciGraphApplicationModule();
+    module.setConfiguration(configuration);
+    module.setEnvironment(environment);
+    ThreadPoolExecutor executor = (ThreadPoolExecutor) module.getTraversalExecutor();
+    assertThat(executor.getMaximumPoolSize(), is(3));
+    assertThat(lifecycle.getManagedObjects(), hasSize(1));
+    executor.shutdown();
+  }
+
+}
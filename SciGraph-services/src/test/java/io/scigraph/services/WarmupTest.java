@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.prefixcommons.CurieUtil;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.TypeLiteral;
+
+import io.scigraph.frames.CommonProperties;
+import io.scigraph.internal.CypherUtil;
+import io.scigraph.internal.GraphApi;
+import io.scigraph.neo4j.Neo4jConfiguration;
+import io.scigraph.neo4j.Neo4jModule;
+import io.scigraph.services.Warmup.SampleRequest;
+import io.scigraph.services.configuration.WarmupConfiguration;
+import io.scigraph.util.GraphTestBase;
+import io.swagger.models.Path;
+
+public class WarmupTest extends GraphTestBase {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  WarmupConfiguration configuration = new WarmupConfiguration();
+  GraphApi graphApi = mock(GraphApi.class);
+  Map<String, Path> paths = new HashMap<>();
+  Warmup warmup;
+
+  @Before
+  public void setup() throws Exception {
+    addRelationship("http://x.org/#1", "http://x.org/#2", RelationshipType.withName("foo"));
+    Path path = new Path();
+    path.setVendorExtension("x-query", "MATCH (n {iri: {id}})-[r:${rel}]-(m) RETURN n, r, m");
+    paths.put("/dynamic/{rel}/neighbors", path);
+    Path invalid = new Path();
+    invalid.setVendorExtension("x-query", "MATCH (n RETURN n");
+    paths.put("/dynamic/invalid", invalid);
+    File log = folder.newFile();
+    Files.write(log.toPath(), newArrayList(
+        "/scigraph/dynamic/foo/neighbors?id=X:1",
+        "127.0.0.1 - - [01/Jan/2018:00:00:00 +0000] \"GET /scigraph/graph/neighbors/X:2 HTTP/1.1\" 200",
+        "/scigraph/vocabulary/autocomplete/foo?id=http%3A%2F%2Fx.org%2F%233",
+        ""), StandardCharsets.UTF_8);
+    configuration.setRequestLog(log.getPath());
+    CurieUtil curieUtil = new CurieUtil(Collections.singletonMap("X", "http://x.org/#"));
+    warmup = new Warmup(graphDb, new CypherUtil(graphDb, curieUtil), graphApi, curieUtil, paths,
+        configuration);
+  }
+
+  @Test
+  public void requests_areParsed() {
+    SampleRequest request = Warmup.parseRequest("GET /a/b?c=d%20e&c=f&g HTTP/1.1").get();
+    assertThat(request.path, is("/a/b"));
+    assertThat(request.parameters.get("c"), contains((Object) "d e", "f"));
+    assertThat(request.parameters.get("g"), contains((Object) ""));
+    assertThat(Warmup.parseRequest("no request").isPresent(), is(false));
+  }
+
+  @Test
+  public void resourcePaths_areMatched() {
+    Warmup.Resource resource = new Warmup.Resource("/dynamic/{rel}/neighbors", "");
+    assertThat(resource.match("/scigraph/dynamic/foo/neighbors").get().get("rel"),
+        contains((Object) "foo"));
+    assertThat(resource.match("/dynamic/foo/neighbors/").isPresent(), is(true));
+    assertThat(resource.match("/dynamic/foo/bar/neighbors").isPresent(), is(false));
+  }
+
+  @Test
+  public void sampleRequests_areRead() {
+    assertThat(warmup.readRequestLog(), hasSize(3));
+    configuration.setMaxRequests(1);
+    assertThat(warmup.readRequestLog(), hasSize(1));
+  }
+
+  @Test
+  public void validQueries_arePlanned() {
+    assertThat(warmup.planQueries(warmup.readRequestLog()), is(1));
+  }
+
+  @Test
+  public void sampleRequests_areReplayed() {
+    List<SampleRequest> requests = warmup.readRequestLog();
+    assertThat(warmup.replay(requests), is(1));
+    verify(graphApi).warmNodeCache(newHashSet("X:2", "http://x.org/#3"));
+  }
+
+  @Test
+  public void warmedIds_areCachedForTheServices() throws Exception {
+    Neo4jConfiguration neo4jConfiguration = new Neo4jConfiguration();
+    neo4jConfiguration.setLocation(folder.newFolder().getAbsolutePath());
+    neo4jConfiguration.getCuries().put("X", "http://x.org/#");
+    Injector injector = Guice.createInjector(new Neo4jModule(neo4jConfiguration), binder -> {
+      binder.bind(WarmupConfiguration.class).toInstance(configuration);
+      binder.bind(new TypeLiteral<Map<String, Path>>() {}).toInstance(paths);
+    });
+    GraphDatabaseService db = injector.getInstance(GraphDatabaseService.class);
+    try {
+      try (Transaction tx = db.beginTx()) {
+        db.createNode().setProperty(CommonProperties.IRI, "http://x.org/#2");
+        tx.success();
+      }
+      injector.getInstance(Warmup.class).replay(warmup.readRequestLog());
+      GraphApi services = injector.getInstance(GraphApi.class);
+      try (Transaction tx = db.beginTx()) {
+        assertThat(services.getNode("X:2", Optional.empty()).isPresent(), is(true));
+        tx.success();
+      }
+      assertThat(services.getNodeCacheStats().hitCount(), is(1L));
+    } finally {
+      db.shutdown();
+    }
+  }
+
+  @Test
+  public void storeFiles_areReadIntoThePageCache() {
+    assertThat(warmup.touchStoreFiles(), is(greaterThan(0L)));
+    configuration.setStoreFiles(Collections.<String>emptyList());
+    assertThat(warmup.touchStoreFiles(), is(0L));
+  }
+
+}
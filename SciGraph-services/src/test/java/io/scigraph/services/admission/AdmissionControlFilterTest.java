@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.admission;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.net.HttpHeaders;
+
+import io.scigraph.services.configuration.BulkheadConfiguration;
+
+public class AdmissionControlFilterTest {
+
+  AdmissionControlFilter filter;
+  HttpServletRequest request = mock(HttpServletRequest.class);
+  HttpServletResponse response = mock(HttpServletResponse.class);
+  FilterChain chain = mock(FilterChain.class);
+
+  @Before
+  public void setup() throws Exception {
+    BulkheadConfiguration cypher = new BulkheadConfiguration();
+    cypher.setPaths(Collections.singletonList("/cypher/execute"));
+    cypher.setMaxConcurrent(1);
+    cypher.setMaxQueued(0);
+    Map<String, BulkheadConfiguration> groups = new LinkedHashMap<>();
+    groups.put("cypher", cypher);
+    filter = new AdmissionControlFilter(groups, new MetricRegistry());
+    when(response.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+  }
+
+  @Test
+  public void ungroupedRequests_areNotLimited() throws Exception {
+    when(request.getRequestURI()).thenReturn("/scigraph/vocabulary/autocomplete/foo");
+    filter.getBulkhead("/cypher/execute").acquire();
+    filter.doFilter(request, response, chain);
+    verify(chain).doFilter(request, response);
+  }
+
+  @Test
+  public void permits_areReleased() throws Exception {
+    when(request.getRequestURI()).thenReturn("/scigraph/cypher/execute");
+    filter.doFilter(request, response, chain);
+    filter.doFilter(request, response, chain);
+    verify(chain, times(2)).doFilter(request, response);
+  }
+
+  @Test
+  public void excessRequests_areRejected() throws Exception {
+    when(request.getRequestURI()).thenReturn("/scigraph/cypher/execute");
+    filter.getBulkhead("/cypher/execute").acquire();
+    filter.doFilter(request, response, chain);
+    verify(chain, never()).doFilter(request, response);
+    verify(response).setStatus(AdmissionControlFilter.TOO_MANY_REQUESTS);
+    verify(response).setHeader(HttpHeaders.RETRY_AFTER, AdmissionControlFilter.RETRY_AFTER);
+  }
+
+}
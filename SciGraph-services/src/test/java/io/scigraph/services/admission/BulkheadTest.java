@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.admission;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+import io.scigraph.services.configuration.BulkheadConfiguration;
+
+public class BulkheadTest {
+
+  MetricRegistry metrics = new MetricRegistry();
+  BulkheadConfiguration configuration = new BulkheadConfiguration();
+  ExecutorService executor = Executors.newCachedThreadPool();
+
+  @Before
+  public void setup() {
+    configuration.setMaxConcurrent(1);
+    configuration.setMaxQueued(1);
+    configuration.setMaxWait(10_000);
+  }
+
+  @After
+  public void teardown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void requests_areAdmittedUpToTheLimit() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("cypher", configuration, metrics);
+    assertThat(bulkhead.acquire(), is(nullValue()));
+    bulkhead.release();
+    assertThat(bulkhead.acquire(), is(nullValue()));
+    assertThat(metrics.meter(name(Bulkhead.class, "cypher", "admitted")).getCount(), is(2L));
+    assertThat(metrics.getGauges().get(name(Bulkhead.class, "cypher", "active")).getValue(),
+        is((Object) 1));
+  }
+
+  @Test
+  public void queuedRequests_areAdmittedWhenARequestFinishes() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("cypher", configuration, metrics);
+    bulkhead.acquire();
+    CountDownLatch waiting = new CountDownLatch(1);
+    Future<Bulkhead.Rejection> queued = executor.submit(() -> {
+      waiting.countDown();
+      return bulkhead.acquire();
+    });
+    waiting.await();
+    while (!Integer.valueOf(1).equals(
+        metrics.getGauges().get(name(Bulkhead.class, "cypher", "queued")).getValue())) {
+      Thread.sleep(1);
+    }
+    assertThat(bulkhead.acquire(), is(Bulkhead.Rejection.QUEUE_FULL));
+    bulkhead.release();
+    assertThat(queued.get(), is(nullValue()));
+    assertThat(metrics.meter(name(Bulkhead.class, "cypher", "rejected", "queueFull")).getCount(),
+        is(1L));
+  }
+
+  @Test
+  public void queuedRequests_areAdmittedBeforeNewArrivals() throws Exception {
+    configuration.setMaxQueued(2);
+    Bulkhead bulkhead = new Bulkhead("cypher", configuration, metrics);
+    bulkhead.acquire();
+    List<String> admissions = new CopyOnWriteArrayList<>();
+    AtomicReference<Thread> waiter = new AtomicReference<>();
+    Future<?> queued = executor.submit(() -> {
+      waiter.set(Thread.currentThread());
+      bulkhead.acquire();
+      admissions.add("queued");
+      bulkhead.release();
+      return null;
+    });
+    while (null == waiter.get() || Thread.State.TIMED_WAITING != waiter.get().getState()) {
+      Thread.sleep(1);
+    }
+    bulkhead.release();
+    assertThat(bulkhead.acquire(), is(nullValue()));
+    admissions.add("new");
+    queued.get();
+    assertThat(admissions, contains("queued", "new"));
+  }
+
+  @Test
+  public void queuedRequests_timeOut() throws Exception {
+    configuration.setMaxWait(1);
+    Bulkhead bulkhead = new Bulkhead("cypher", configuration, metrics);
+    bulkhead.acquire();
+    assertThat(bulkhead.acquire(), is(Bulkhead.Rejection.TIMEOUT));
+    assertThat(metrics.meter(name(Bulkhead.class, "cypher", "rejected", "timeout")).getCount(),
+        is(1L));
+  }
+
+  @Test
+  public void emptyQueues_rejectImmediately() throws Exception {
+    configuration.setMaxQueued(0);
+    Bulkhead bulkhead = new Bulkhead("cypher", configuration, metrics);
+    bulkhead.acquire();
+    assertThat(bulkhead.acquire(), is(Bulkhead.Rejection.QUEUE_FULL));
+  }
+
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.jersey.dynamic;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.core.Variant;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+import org.prefixcommons.CurieUtil;
+
+import com.carrotsearch.junitbenchmarks.AbstractBenchmark;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.io.ByteStreams;
+import com.tinkerpop.blueprints.Graph;
+
+import io.scigraph.bbop.BbopGraphUtil;
+import io.scigraph.cache.GraphResultCache;
+import io.scigraph.frames.NodeProperties;
+import io.scigraph.internal.CypherUtil;
+import io.scigraph.internal.GraphAspect;
+import io.scigraph.neo4j.GraphVersion;
+import io.scigraph.neo4j.Neo4jConfiguration;
+import io.scigraph.neo4j.Neo4jModule;
+import io.scigraph.owlapi.OwlRelationships;
+import io.scigraph.services.jersey.writers.BbopJsGraphWriter;
+import io.swagger.models.Path;
+
+/***
+ * Serves a dynamic resource with an entailed relationship template for a series of different
+ * requests, with and without the server side result cache, and serializes them from a graph or
+ * as a stream.
+ */
+@BenchmarkOptions(benchmarkRounds = 20, warmupRounds = 5)
+public class CypherInflectorPerfIT extends AbstractBenchmark {
+
+  @ClassRule
+  public static ImpermanentDatabaseRule graphDb = new ImpermanentDatabaseRule();
+
+  static final int NODE_COUNT = 2_000;
+  static final int PROPERTY_COUNT = 50;
+  static final int REQUESTS = 200;
+  static final String QUERY =
+      "START n=node:node_auto_index(iri={id}) MATCH (n)-[r:${rel}!]-(m) RETURN n, r, m";
+
+  static CypherInflector inflector;
+  static CypherInflector cachedInflector;
+  static ContainerRequestContext[] contexts = new ContainerRequestContext[REQUESTS];
+  static ContainerRequestContext[] jsonContexts = new ContainerRequestContext[REQUESTS];
+  static BbopJsGraphWriter writer;
+
+  static String property(int i) {
+    return "http://x.org/p" + i;
+  }
+
+  @BeforeClass
+  public static void setup() {
+    Neo4jModule.setupAutoIndexing(graphDb, new Neo4jConfiguration());
+    try (Transaction tx = graphDb.beginTx()) {
+      Node root = graphDb.createNode();
+      root.setProperty(NodeProperties.IRI, property(0));
+      for (int i = 1; i < PROPERTY_COUNT; i++) {
+        Node property = graphDb.createNode();
+        property.setProperty(NodeProperties.IRI, property(i));
+        property.createRelationshipTo(root, OwlRelationships.RDFS_SUB_PROPERTY_OF);
+      }
+      Node previous = null;
+      for (int i = 0; i < NODE_COUNT; i++) {
+        Node node = graphDb.createNode();
+        node.setProperty(NodeProperties.IRI, "http://x.org/n" + i);
+        if (null != previous) {
+          previous.createRelationshipTo(node,
+              RelationshipType.withName(property(i % PROPERTY_COUNT)));
+        }
+        previous = node;
+      }
+      tx.success();
+    }
+    CurieUtil curieUtil = new CurieUtil(Collections.<String, String>emptyMap());
+    Path path = new Path();
+    path.setVendorExtension("x-query", QUERY);
+    GraphVersion graphVersion = new GraphVersion(graphDb);
+    inflector = new CypherInflector(graphDb, new CypherUtil(graphDb, curieUtil), curieUtil,
+        new GraphResultCache(graphVersion, 0, new MetricRegistry()), graphVersion,
+        "dynamic", path, new HashMap<String, GraphAspect>());
+    Path cachedPath = new Path();
+    cachedPath.setVendorExtension("x-query", QUERY);
+    cachedPath.setVendorExtension(CypherInflector.SERVER_CACHE_EXTENSION, "true");
+    cachedInflector = new CypherInflector(graphDb, new CypherUtil(graphDb, curieUtil), curieUtil,
+        new GraphResultCache(graphVersion, 100_000, new MetricRegistry()), graphVersion,
+        "cached", cachedPath, new HashMap<String, GraphAspect>());
+    for (int i = 0; i < REQUESTS; i++) {
+      MultivaluedHashMap<String, String> query = new MultivaluedHashMap<>();
+      query.put("id", newArrayList("http://x.org/n" + (i * 7 % NODE_COUNT)));
+      query.put("rel", newArrayList(property(i % 4)));
+      UriInfo uriInfo = mock(UriInfo.class);
+      when(uriInfo.getQueryParameters()).thenReturn(query);
+      when(uriInfo.getPathParameters()).thenReturn(new MultivaluedHashMap<String, String>());
+      contexts[i] = mock(ContainerRequestContext.class);
+      when(contexts[i].getUriInfo()).thenReturn(uriInfo);
+      Request request = mock(Request.class);
+      when(request.selectVariant(any())).thenReturn(
+          new Variant(MediaType.APPLICATION_JSON_TYPE, (String) null, null));
+      jsonContexts[i] = mock(ContainerRequestContext.class);
+      when(jsonContexts[i].getUriInfo()).thenReturn(uriInfo);
+      when(jsonContexts[i].getRequest()).thenReturn(request);
+    }
+    writer = new BbopJsGraphWriter(new BbopGraphUtil(curieUtil));
+  }
+
+  @Test
+  public void dynamicResource() {
+    for (ContainerRequestContext context : contexts) {
+      inflector.apply(context);
+    }
+  }
+
+  @Test
+  public void cachedDynamicResource() {
+    for (ContainerRequestContext context : contexts) {
+      cachedInflector.apply(context);
+    }
+  }
+
+  @Test
+  public void serializedDynamicResource() throws IOException {
+    for (ContainerRequestContext context : contexts) {
+      writer.writeTo((Graph) inflector.apply(context).getEntity(), null, null, null, null, null,
+          ByteStreams.nullOutputStream());
+    }
+  }
+
+  @Test
+  public void streamedDynamicResource() throws IOException {
+    for (ContainerRequestContext context : jsonContexts) {
+      ((StreamingOutput) inflector.apply(context).getEntity())
+          .write(ByteStreams.nullOutputStream());
+    }
+  }
+
+}
@@ -19,20 +19,35 @@ import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import io.scigraph.internal.CypherUtil;
 import io.scigraph.internal.GraphAspect;
 import io.scigraph.owlapi.OwlRelationships;
 import io.scigraph.util.GraphTestBase;
 
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Optional;
 
 import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.core.Variant;
 
 import io.swagger.models.Path;
 import org.hamcrest.collection.IsIterableWithSize;
@@ -42,12 +57,16 @@ import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Transaction;
 import org.prefixcommons.CurieUtil;
 
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
 
+import io.scigraph.cache.GraphResultCache;
 import io.scigraph.internal.CypherUtil;
 import io.scigraph.internal.GraphAspect;
+import io.scigraph.neo4j.GraphVersion;
 import io.scigraph.owlapi.OwlRelationships;
 import io.scigraph.util.GraphTestBase;
 
@@ -57,7 +76,10 @@ public class CypherInflectorTest extends GraphTestBase {
   ContainerRequestContext context = mock(ContainerRequestContext.class);
   UriInfo uriInfo = mock(UriInfo.class);
   Transaction tx = mock(Transaction.class);
+  Request request = mock(Request.class);
   CurieUtil curieUtil = mock(CurieUtil.class);
+  GraphVersion graphVersion = mock(GraphVersion.class);
+  GraphResultCache resultCache = new GraphResultCache(graphVersion, 1000, new MetricRegistry());
   CypherInflector inflector;
 
   @Before
@@ -76,7 +98,8 @@ public class CypherInflectorTest extends GraphTestBase {
     when(curieUtil.getIri(anyString())).thenReturn(Optional.<String>empty());
     when(curieUtil.getCurie(anyString())).thenReturn(Optional.<String>empty());
     when(curieUtil.getIri("X:foo")).thenReturn(Optional.of("http://x.org/#foo"));
-    inflector = new CypherInflector(graphDb, cypherUtil, curieUtil, "dynamic", path, new HashMap<String, GraphAspect>());
+    inflector = new CypherInflector(graphDb, cypherUtil, curieUtil, resultCache, graphVersion,
+        "dynamic", path, new HashMap<String, GraphAspect>());
   }
 
   @Test
@@ -107,4 +130,98 @@ public class CypherInflectorTest extends GraphTestBase {
     assertThat(graph.getEdges(), IsIterableWithSize.<Edge>iterableWithSize(1));
   }
 
+  CypherInflector cachedInflector() {
+    path.setVendorExtension(CypherInflector.SERVER_CACHE_EXTENSION, "true");
+    path.setVendorExtension(CypherInflector.CACHE_CONTROL_EXTENSION, "{\"maxAge\": 60}");
+    return new CypherInflector(graphDb, new CypherUtil(graphDb, curieUtil), curieUtil,
+        resultCache, graphVersion, "cached", path, new HashMap<String, GraphAspect>());
+  }
+
+  @Test
+  public void cacheControl_isParsedOnce() {
+    path.setVendorExtension(CypherInflector.CACHE_CONTROL_EXTENSION, "{\"maxAge\": 60}");
+    CacheControl cacheControl = CypherInflector.getCacheControl("dynamic", path);
+    assertThat(cacheControl.getMaxAge(), is(60));
+    path.setVendorExtension(CypherInflector.CACHE_CONTROL_EXTENSION, "{");
+    assertThat(CypherInflector.getCacheControl("dynamic", path), is(nullValue()));
+  }
+
+  @Test
+  public void cachedResults_areReused() {
+    path.setVendorExtension("x-query", "MATCH (n) RETURN n");
+    CypherInflector inflector = cachedInflector();
+    Response first = inflector.apply(context);
+    Response second = inflector.apply(context);
+    assertThat(second.getEntity(), is(sameInstance(first.getEntity())));
+    assertThat(second.getEntityTag(), is(first.getEntityTag()));
+    assertThat(first.getHeaderString(HttpHeaders.CACHE_CONTROL), is("no-transform, max-age=60"));
+  }
+
+  @Test
+  public void matchingEntityTags_areNotModified() {
+    path.setVendorExtension("x-query", "MATCH (n) RETURN n");
+    CypherInflector inflector = cachedInflector();
+    EntityTag tag = inflector.apply(context).getEntityTag();
+    when(context.getHeaderString(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"foo\", " + tag);
+    Response response = inflector.apply(context);
+    assertThat(response.getStatus(), is(304));
+    assertThat(response.getEntity(), is(nullValue()));
+  }
+
+  @Test
+  public void entityTags_changeWithTheGraphVersion() {
+    path.setVendorExtension("x-query", "MATCH (n) RETURN n");
+    CypherInflector inflector = cachedInflector();
+    EntityTag tag = inflector.apply(context).getEntityTag();
+    when(graphVersion.get()).thenReturn(1L);
+    when(context.getHeaderString(HttpHeaders.IF_NONE_MATCH)).thenReturn(tag.toString());
+    Response response = inflector.apply(context);
+    assertThat(response.getStatus(), is(200));
+    assertThat(response.getEntityTag(), is(not(tag)));
+  }
+
+  @Test
+  public void uncachedResources_haveNoEntityTag() {
+    path.setVendorExtension("x-query", "MATCH (n) RETURN n");
+    assertThat(inflector.apply(context).getEntityTag(), is(nullValue()));
+  }
+
+  @Test
+  public void jsonResponses_areStreamed() throws Exception {
+    path.setVendorExtension("x-query", "MATCH (n) RETURN n");
+    when(context.getRequest()).thenReturn(request);
+    when(request.selectVariant(any())).thenReturn(
+        new Variant(MediaType.APPLICATION_JSON_TYPE, (String) null, null));
+    Response response = inflector.apply(context);
+    assertThat(response.getMediaType(), is(MediaType.APPLICATION_JSON_TYPE));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ((StreamingOutput) response.getEntity()).write(out);
+    assertThat(new ObjectMapper().readTree(out.toByteArray()).get("nodes").size(), is(6));
+  }
+
+  @Test
+  public void otherFormats_areNotStreamed() {
+    path.setVendorExtension("x-query", "MATCH (n) RETURN n");
+    when(context.getRequest()).thenReturn(request);
+    when(request.selectVariant(any())).thenReturn(
+        new Variant(MediaType.APPLICATION_XML_TYPE, (String) null, null));
+    assertThat(inflector.apply(context).getEntity() instanceof TinkerGraph, is(true));
+  }
+
+  @Test
+  public void aspects_needAGraph() {
+    path.setVendorExtension("x-query", "MATCH (n) RETURN n");
+    when(context.getRequest()).thenReturn(request);
+    when(request.selectVariant(any())).thenReturn(
+        new Variant(MediaType.APPLICATION_JSON_TYPE, (String) null, null));
+    GraphAspect aspect = mock(GraphAspect.class);
+    inflector = new CypherInflector(graphDb, new CypherUtil(graphDb, curieUtil), curieUtil,
+        resultCache, graphVersion, "dynamic", path, Collections.singletonMap("evidence", aspect));
+    MultivaluedHashMap<String, String> map = new MultivaluedHashMap<>();
+    map.put("evidence", newArrayList("true"));
+    when(uriInfo.getQueryParameters()).thenReturn(map);
+    assertThat(inflector.apply(context).getEntity() instanceof TinkerGraph, is(true));
+    verify(aspect).invoke(any());
+  }
+
 }
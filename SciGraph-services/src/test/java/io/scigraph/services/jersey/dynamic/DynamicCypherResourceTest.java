@@ -35,7 +35,7 @@ public class DynamicCypherResourceTest {
 
   @Before
   public void setup() {
-    CypherInflector inflector = new CypherInflector(null, null, null, "foo", null, null);
+    CypherInflector inflector = new CypherInflector(null, null, null, null, null, "foo", null, null);
     when(factory.create(eq("foo"), any(Path.class))).thenReturn(inflector);
   }
 
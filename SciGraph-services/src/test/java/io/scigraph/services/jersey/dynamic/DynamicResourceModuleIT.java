@@ -39,6 +39,7 @@ import org.neo4j.test.TestGraphDatabaseFactory;
 import org.neo4j.test.rule.ImpermanentDatabaseRule;
 import org.prefixcommons.CurieUtil;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
@@ -46,6 +47,9 @@ import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.Vertex;
 
+import io.scigraph.cache.GraphResultCache;
+import io.scigraph.neo4j.GraphVersion;
+
 public class DynamicResourceModuleIT {
 
   @ClassRule
@@ -64,6 +68,8 @@ public class DynamicResourceModuleIT {
       install(new DynamicResourceModule());
       bind(GraphDatabaseService.class).toInstance(graphDb);
       bind(CurieUtil.class).toInstance(new CurieUtil(new HashMap<String, String>()));
+      bind(GraphResultCache.class).toInstance(
+          new GraphResultCache(new GraphVersion(graphDb), 1000, new MetricRegistry()));
     }
 
   }
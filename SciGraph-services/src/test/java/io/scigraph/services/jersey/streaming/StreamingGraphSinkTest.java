@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.jersey.streaming;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.prefixcommons.CurieUtil;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableMap;
+import com.tinkerpop.blueprints.Graph;
+
+import io.scigraph.bbop.BbopGraphUtil;
+import io.scigraph.frames.NodeProperties;
+import io.scigraph.internal.GraphApi;
+import io.scigraph.internal.GraphSinks;
+import io.scigraph.internal.SupernodePolicy;
+import io.scigraph.internal.TinkerGraphUtil;
+import io.scigraph.internal.TraversalBudget;
+import io.scigraph.neo4j.DirectedRelationshipType;
+import io.scigraph.owlapi.OwlRelationships;
+import io.scigraph.services.api.graph.ArrayPropertyTransformer;
+import io.scigraph.services.jersey.writers.BbopJsGraphWriter;
+import io.scigraph.services.jersey.writers.GraphsonWriter;
+import io.scigraph.util.GraphTestBase;
+
+public class StreamingGraphSinkTest extends GraphTestBase {
+
+  static final ObjectMapper MAPPER = new ObjectMapper();
+
+  CurieUtil curies = new CurieUtil(ImmutableMap.of("X", "http://x.org/"));
+  GraphApi graphApi;
+  Node root;
+  Set<DirectedRelationshipType> allTypes = Collections.emptySet();
+  Optional<Predicate<Node>> absent = Optional.empty();
+
+  @Before
+  public void setup() {
+    Relationship parent = addRelationship("http://x.org/a", "http://x.org/b",
+        OwlRelationships.RDFS_SUBCLASS_OF);
+    root = parent.getStartNode();
+    root.setProperty(NodeProperties.LABEL, "bee");
+    root.setProperty("synonym", new String[] {"bea", "bi"});
+    root.addLabel(Label.label("Class"));
+    parent.setProperty("weight", 2);
+    Relationship other = addRelationship("http://y.org/c", "http://x.org/b",
+        RelationshipType.withName("http://x.org/partOf"));
+    other.getEndNode().setProperty("count", 3);
+    graphApi = new GraphApi(graphDb, cypherUtil, curies);
+  }
+
+  Graph getGraph(Set<String> projection) {
+    Graph graph = graphApi.getNeighbors(newHashSet(root), 2, allTypes, absent);
+    new TinkerGraphUtil(graph, curies).project(projection);
+    ArrayPropertyTransformer.transform(graph);
+    return graph;
+  }
+
+  String stream(StreamingGraphSink sink, ByteArrayOutputStream out,
+      Optional<TraversalBudget.Limit> truncated) throws IOException {
+    sink.start();
+    graphApi.streamNeighbors(newHashSet(root), 2, allTypes, absent, TraversalBudget.unlimited(),
+        SupernodePolicy.NONE, sink);
+    sink.finish(truncated);
+    sink.close();
+    return out.toString("UTF-8");
+  }
+
+  static Set<JsonNode> elements(JsonNode array) {
+    Set<JsonNode> elements = new HashSet<>();
+    for (JsonNode element : array) {
+      elements.add(element);
+    }
+    return elements;
+  }
+
+  void assertBbopEquivalence(Set<String> projection) throws IOException {
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    new BbopJsGraphWriter(new BbopGraphUtil(curies)).writeTo(getGraph(projection), null, null,
+        null, null, null, expected);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonNode streamed = MAPPER.readTree(stream(
+        new BbopStreamingGraphSink(out, graphDb, curies, projection), out, Optional.empty()));
+    JsonNode graph = MAPPER.readTree(expected.toString("UTF-8"));
+    assertThat(elements(streamed.get("nodes")), is(elements(graph.get("nodes"))));
+    assertThat(elements(streamed.get("edges")), is(elements(graph.get("edges"))));
+  }
+
+  @Test
+  public void bbopStreams_matchTheWriter() throws IOException {
+    assertBbopEquivalence(Collections.singleton("*"));
+  }
+
+  @Test
+  public void projectedBbopStreams_matchTheWriter() throws IOException {
+    assertBbopEquivalence(newHashSet("synonym", "types"));
+  }
+
+  @Test
+  public void graphsonStreams_matchTheWriter() throws IOException {
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    new GraphsonWriter().writeTo(getGraph(Collections.singleton("*")), null, null, null, null,
+        null, expected);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonNode streamed = MAPPER.readTree(stream(new GraphsonStreamingGraphSink(out, graphDb, curies,
+        Collections.singleton("*")), out, Optional.empty()));
+    JsonNode graph = MAPPER.readTree(expected.toString("UTF-8"));
+    assertThat(streamed.get("mode"), is(graph.get("mode")));
+    assertThat(elements(streamed.get("vertices")), is(elements(graph.get("vertices"))));
+    assertThat(elements(streamed.get("edges")), is(elements(graph.get("edges"))));
+  }
+
+  @Test
+  public void truncatedStreams_areMarked() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonNode streamed = MAPPER.readTree(stream(new BbopStreamingGraphSink(out, graphDb, curies,
+        Collections.singleton("*")), out, Optional.of(TraversalBudget.Limit.NODES)));
+    assertThat(streamed.get("meta").get("truncated").asText(), is("nodes"));
+  }
+
+  static final String QUERY = "MATCH path = (a {iri: 'http://x.org/a'})-[*1..2]-(b) "
+      + "RETURN path, [b] AS others, exists(a.label) AS found";
+
+  @Test
+  public void cypherResults_matchTheWriters() throws IOException {
+    Graph graph = new TinkerGraphUtil(curies).resultToGraph(graphDb.execute(QUERY));
+    ArrayPropertyTransformer.transform(graph);
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    new BbopJsGraphWriter(new BbopGraphUtil(curies)).writeTo(graph, null, null, null, null, null,
+        expected);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StreamingGraphSink sink =
+        new BbopStreamingGraphSink(out, graphDb, curies, Collections.singleton("*"));
+    sink.start();
+    GraphSinks.emit(graphDb.execute(QUERY), sink);
+    sink.finish(Optional.empty());
+    sink.close();
+    JsonNode streamed = MAPPER.readTree(out.toString("UTF-8"));
+    JsonNode written = MAPPER.readTree(expected.toString("UTF-8"));
+    assertThat(streamed.get("nodes").size(), is(4));
+    assertThat(elements(streamed.get("nodes")), is(elements(written.get("nodes"))));
+    assertThat(elements(streamed.get("edges")), is(elements(written.get("edges"))));
+
+    expected = new ByteArrayOutputStream();
+    new GraphsonWriter().writeTo(graph, null, null, null, null, null, expected);
+    out = new ByteArrayOutputStream();
+    sink = new GraphsonStreamingGraphSink(out, graphDb, curies, Collections.singleton("*"));
+    sink.start();
+    GraphSinks.emit(graphDb.execute(QUERY), sink);
+    sink.finish(Optional.empty());
+    sink.close();
+    streamed = MAPPER.readTree(out.toString("UTF-8"));
+    written = MAPPER.readTree(expected.toString("UTF-8"));
+    assertThat(elements(streamed.get("vertices")), is(elements(written.get("vertices"))));
+    assertThat(elements(streamed.get("edges")), is(elements(written.get("edges"))));
+  }
+
+}
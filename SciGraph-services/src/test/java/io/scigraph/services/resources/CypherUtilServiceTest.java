@@ -22,17 +22,29 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import io.dropwizard.testing.junit.ResourceTestRule;
 import io.scigraph.internal.CypherUtil;
+import io.scigraph.services.jersey.CustomMediaTypes;
+
+import java.util.Collections;
+
+import javax.ws.rs.core.MediaType;
 
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.TransactionTerminatedException;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.configuration.Settings;
+import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.kernel.guard.Guard;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.test.TestGraphDatabaseFactory;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 public class CypherUtilServiceTest {
 
   private static final CypherUtil cypherUtil = mock(CypherUtil.class);
@@ -46,6 +58,20 @@ public class CypherUtilServiceTest {
   public void setup() {
     when(cypherUtil.resolveRelationships("foo!")).thenReturn("foo");
     when(cypherUtil.resolveNodeIris("foo!")).thenReturn("foo!");
+    when(cypherUtil.resolveNodeIris("MATCH (n) RETURN n.iri AS iri LIMIT 10"))
+        .thenReturn("MATCH (n) RETURN n.iri AS iri LIMIT 10");
+    when(graphDb.beginTx()).thenReturn(mock(Transaction.class));
+    Result result = mock(Result.class);
+    when(result.hasNext()).thenReturn(true, true, false);
+    when(result.next()).thenReturn(Collections.<String, Object>singletonMap("iri", "x:1"),
+        Collections.<String, Object>singletonMap("iri", "x:2"));
+    when(cypherUtil.execute("MATCH (n) RETURN n.iri AS iri LIMIT 10")).thenReturn(result);
+  }
+
+  String execute(String mediaType) {
+    return resources.client().target("/cypher/execute")
+        .queryParam("cypherQuery", "MATCH (n) RETURN n.iri AS iri").request(mediaType)
+        .get(String.class);
   }
 
   @Test
@@ -60,4 +86,34 @@ public class CypherUtilServiceTest {
         equalTo("foo"));
   }
 
+  @Test
+  public void rows_areStreamedAsJson() {
+    assertThat(execute(MediaType.APPLICATION_JSON),
+        equalTo("[{\"iri\":\"x:1\"},{\"iri\":\"x:2\"}]"));
+  }
+
+  @Test
+  public void timedOutRows_endWithAnErrorRecord() throws Exception {
+    when(cypherUtil.resolveNodeIris("MATCH (n) RETURN n.iri AS iri LIMIT 2"))
+        .thenReturn("MATCH (n) RETURN n.iri AS iri LIMIT 2");
+    Result result = mock(Result.class);
+    when(result.hasNext()).thenReturn(true)
+        .thenThrow(new TransactionTerminatedException(Status.Transaction.TransactionTimedOut));
+    when(result.next()).thenReturn(Collections.<String, Object>singletonMap("iri", "x:1"));
+    when(cypherUtil.execute("MATCH (n) RETURN n.iri AS iri LIMIT 2")).thenReturn(result);
+    String body = resources.client().target("/cypher/execute")
+        .queryParam("cypherQuery", "MATCH (n) RETURN n.iri AS iri").queryParam("limit", 2)
+        .request(MediaType.APPLICATION_JSON).get(String.class);
+    JsonNode rows = new ObjectMapper().readTree(body);
+    assertThat(rows.size(), equalTo(2));
+    assertThat(rows.get(0).get("iri").asText(), equalTo("x:1"));
+    assertThat(rows.get(1).get("error").asText(), equalTo(CypherUtilService.TIMEOUT_MESSAGE));
+  }
+
+  @Test
+  public void rows_areStreamedAsNdjson() {
+    assertThat(execute(CustomMediaTypes.APPLICATION_NDJSON),
+        equalTo("{\"iri\":\"x:1\"}\n{\"iri\":\"x:2\"}\n"));
+  }
+
 }
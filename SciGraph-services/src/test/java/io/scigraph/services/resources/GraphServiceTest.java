@@ -18,30 +18,46 @@ package io.scigraph.services.resources;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.Response;
 
 import org.hamcrest.core.StringContains;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Transaction;
 
+import com.codahale.metrics.MetricRegistry;
 import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
 
 import io.dropwizard.testing.junit.ResourceTestRule;
+import io.scigraph.cache.GraphResultCache;
+import io.scigraph.frames.Concept;
 import io.scigraph.internal.CypherUtil;
 import io.scigraph.internal.GraphApi;
+import io.scigraph.internal.TraversalBudget;
+import io.scigraph.neo4j.GraphVersion;
+import io.scigraph.services.configuration.TraversalBudgetConfiguration;
 import io.scigraph.vocabulary.Vocabulary;
 import org.prefixcommons.CurieUtil;
 
@@ -53,10 +69,16 @@ public class GraphServiceTest {
   private static final Transaction tx = mock(Transaction.class);
   private static final CurieUtil curieUtil = mock(CurieUtil.class);
   private static final CypherUtil cypherUtil = mock(CypherUtil.class);
+  private static final GraphResultCache resultCache =
+      new GraphResultCache(mock(GraphVersion.class), 1000, new MetricRegistry());
+  private static final TraversalBudgetConfiguration budgets = new TraversalBudgetConfiguration();
+  private static final MetricRegistry metrics = new MetricRegistry();
 
   @ClassRule
   public static final ResourceTestRule resources = ResourceTestRule.builder()
-      .addResource(new GraphService(vocabulary, graphDb, api, curieUtil, cypherUtil)).build();
+      .addResource(new GraphService(vocabulary, graphDb, api, curieUtil, cypherUtil, resultCache,
+          budgets, metrics))
+      .build();
 
   @Before
   public void setup() {
@@ -64,13 +86,17 @@ public class GraphServiceTest {
     when(api.getAllRelationshipTypes()).thenReturn(
         newArrayList(RelationshipType.withName("foo"), RelationshipType.withName("bar")));
     when(graphDb.beginTx()).thenReturn(tx);
+    when(curieUtil.getIri(anyString())).thenReturn(Optional.empty());
     when(api.getEdges(any(RelationshipType.class), anyBoolean(), anyLong(), anyLong()))
         .thenReturn(new TinkerGraph());
+    when(api.forEachEdge(any(RelationshipType.class), anyBoolean(), anyLong(), anyLong(), any()))
+        .thenReturn(5L);
   }
 
   @Test
   public void smokeConstructor() {
-    new GraphService(vocabulary, graphDb, api, curieUtil, cypherUtil);
+    new GraphService(vocabulary, graphDb, api, curieUtil, cypherUtil, resultCache,
+        budgets, metrics);
   }
 
   @Test
@@ -93,4 +119,108 @@ public class GraphServiceTest {
         StringContains.containsString("\"vertices\":[]"));
   }
 
+  @Test
+  public void edgePages_haveANextCursor() {
+    Response response = resources.client().target("/graph/edges/subClassOf")
+        .queryParam("after", 2).request().get();
+    assertThat(response.getHeaderString(GraphService.NEXT_CURSOR_HEADER), is("5"));
+    verify(api).forEachEdge(any(RelationshipType.class), anyBoolean(), eq(2L), eq(100L), any());
+  }
+
+  @Test
+  public void jsonpEdgePages_haveANextCursor() {
+    Response response = resources.client().target("/graph/edges/subClassOf")
+        .queryParam("after", 3).queryParam("callback", "cb").request().get();
+    assertThat(response.getHeaderString(GraphService.NEXT_CURSOR_HEADER), is("5"));
+    assertThat(response.readEntity(String.class), startsWith("cb("));
+  }
+
+  @Test
+  public void parallelNeighbors_resolveRootsInBulk() {
+    when(api.getNodes(any())).thenReturn(Collections.emptyMap());
+    Response response = resources.client().target("/graph/neighbors")
+        .queryParam("id", "x:1").queryParam("parallel", true).request().get();
+    assertThat(response.getStatus(), is(404));
+    verify(api).getNodes(any());
+  }
+
+  @Test
+  public void reachableNodes_areCached() {
+    Node node = mock(Node.class);
+    when(api.getNode(eq("x:2"), any())).thenReturn(Optional.of(node));
+    when(api.getReachableNodes(eq(node), any(), any(), anyInt())).thenReturn(new TinkerGraph());
+    for (int i = 0; i < 2; i++) {
+      assertThat(resources.client().target("/graph/reachablefrom/x:2").request().get()
+          .getStatus(), is(200));
+    }
+    verify(api, times(1)).getReachableNodes(eq(node), any(), any(), anyInt());
+  }
+
+  @Test
+  public void truncatedNeighborhoods_areMarkedAndNotCached() {
+    Node node = mock(Node.class);
+    when(api.getNodes(any())).thenReturn(Collections.singletonMap("x:5", node));
+    when(api.getNeighborsInParallel(any(), anyInt(), any(), any(), any(), any())).then(invocation -> {
+      ((TraversalBudget) invocation.getArguments()[4]).addNodes(2);
+      return new TinkerGraph();
+    });
+    // the second request asks for JSONP, which must be marked too
+    for (String callback : newArrayList(null, "cb")) {
+      Response response = resources.client().target("/graph/neighbors").queryParam("id", "x:5")
+          .queryParam("parallel", true).queryParam("maxNodes", 1)
+          .queryParam("callback", callback).request().get();
+      assertThat(response.getHeaderString(GraphService.TRUNCATED_HEADER), is("nodes"));
+    }
+    verify(api, times(2)).getNeighborsInParallel(any(), anyInt(), any(), any(), any(), any());
+    assertThat(metrics.meter(MetricRegistry.name(GraphService.class, "truncated", "nodes"))
+        .getCount(), is(2L));
+  }
+
+  @Test
+  public void unknownSupernodeBehaviours_areRejected() {
+    assertThat(resources.client().target("/graph/neighbors").queryParam("id", "x:6")
+        .queryParam("supernodes", "explode").request().get().getStatus(), is(400));
+  }
+
+  @Test
+  public void edges_areStreamed() {
+    assertThat(resources.client().target("/graph/edges/subClassOf/stream").request()
+        .get(String.class), is("[]"));
+  }
+
+  @Test
+  public void neighbors_areStreamed() {
+    when(vocabulary.getConceptFromId(any())).thenReturn(Optional.of(new Concept(7L)));
+    String body = resources.client().target("/graph/neighbors/stream").queryParam("id", "x:7")
+        .request().get(String.class);
+    assertThat(body, is("{\"nodes\":[],\"edges\":[],\"meta\":{}}"));
+    verify(api).streamNeighbors(any(), eq(1), any(), any(), any(), any(), any());
+  }
+
+  @Test
+  public void streamedNeighbors_failBeforeStreaming() {
+    when(vocabulary.getConceptFromId(any())).thenReturn(Optional.of(new Concept(8L)));
+    assertThat(resources.client().target("/graph/neighbors/stream").queryParam("id", "x:8")
+        .queryParam("supernodes", "explode").request().get().getStatus(), is(400));
+  }
+
+  @Test
+  public void paths_areReturned() {
+    Node start = mock(Node.class);
+    Node end = mock(Node.class);
+    when(api.getNode(eq("x:3"), any())).thenReturn(Optional.of(start));
+    when(api.getNode(eq("x:4"), any())).thenReturn(Optional.of(end));
+    when(api.getPaths(eq(start), eq(end), any(), eq(2), anyInt(), anyInt()))
+        .thenReturn(new TinkerGraph());
+    assertThat(resources.client().target("/graph/paths").queryParam("start", "x:3")
+        .queryParam("end", "x:4").queryParam("k", 2).request().get().getStatus(), is(200));
+    verify(api).getPaths(eq(start), eq(end), any(), eq(2), anyInt(), anyInt());
+  }
+
+  @Test
+  public void paths_needAStartAndAnEnd() {
+    assertThat(resources.client().target("/graph/paths").queryParam("start", "x:3").request()
+        .get().getStatus(), is(400));
+  }
+
 }
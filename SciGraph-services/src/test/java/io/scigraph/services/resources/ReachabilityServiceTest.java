@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2014 The SciGraph authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.scigraph.services.resources;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Form;
+
+import org.junit.AfterClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import io.dropwizard.testing.junit.ResourceTestRule;
+import io.scigraph.frames.Concept;
+import io.scigraph.internal.reachability.ReachabilityIndex;
+import io.scigraph.vocabulary.Vocabulary;
+
+public class ReachabilityServiceTest {
+
+  private static final GraphDatabaseService graphDb =
+      new TestGraphDatabaseFactory().newImpermanentDatabase();
+  private static final Vocabulary vocabulary = mock(Vocabulary.class);
+  private static final ReachabilityIndex index = createIndex();
+
+  @ClassRule
+  public static final ResourceTestRule resources = ResourceTestRule.builder()
+      .addResource(new ReachabilityService(vocabulary, graphDb, index))
+      .build();
+
+  static ReachabilityIndex createIndex() {
+    Map<String, Long> ids = new HashMap<>();
+    try (Transaction tx = graphDb.beginTx()) {
+      Node a = graphDb.createNode();
+      Node b = graphDb.createNode();
+      a.createRelationshipTo(b, RelationshipType.withName("type"));
+      ids.put("x:a", a.getId());
+      ids.put("http://x.org/a", a.getId());
+      ids.put("x:b", b.getId());
+      tx.success();
+    }
+    when(vocabulary.getConceptFromId(any(Vocabulary.Query.class))).thenAnswer(invocation -> {
+      Long id = ids.get(((Vocabulary.Query) invocation.getArguments()[0]).getInput());
+      return Optional.ofNullable(id).map(Concept::new);
+    });
+    ReachabilityIndex index = new ReachabilityIndex(graphDb);
+    try {
+      index.createIndex();
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+    return index;
+  }
+
+  @AfterClass
+  public static void shutdown() {
+    graphDb.shutdown();
+  }
+
+  @Test
+  public void connectedPairs_areStreamed() {
+    assertThat(resources.client().target("/graph/reachability").queryParam("source", "x:a")
+        .queryParam("target", "x:b").request().get(String.class),
+        is("[{\"source\":\"x:a\",\"target\":\"x:b\"}]"));
+  }
+
+  @Test
+  public void idsOfTheSameNode_eachGetAPair() {
+    String pairs = resources.client().target("/graph/reachability").queryParam("source", "x:a")
+        .queryParam("source", "http://x.org/a").queryParam("target", "x:b").request()
+        .get(String.class);
+    assertThat(pairs, containsString("{\"source\":\"x:a\",\"target\":\"x:b\"}"));
+    assertThat(pairs,
+        containsString("{\"source\":\"http://x.org/a\",\"target\":\"x:b\"}"));
+  }
+
+  @Test
+  public void disconnectedPairs_areNotReturned() {
+    assertThat(resources.client().target("/graph/reachability").queryParam("source", "x:b")
+        .queryParam("target", "x:a").request().get(String.class), is("[]"));
+  }
+
+  @Test
+  public void connectedPairs_arePosted() {
+    Form form = new Form().param("source", "x:a").param("target", "x:b");
+    assertThat(resources.client().target("/graph/reachability").request()
+        .post(Entity.form(form), String.class), is("[{\"source\":\"x:a\",\"target\":\"x:b\"}]"));
+  }
+
+  @Test
+  public void unknownIds_areNotFound() {
+    assertThat(resources.client().target("/graph/reachability").queryParam("source", "x:c")
+        .queryParam("target", "x:b").request().get().getStatus(), is(404));
+  }
+
+}
@@ -22,6 +22,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.skyscreamer.jsonassert.JSONAssert.assertEquals;
 
+import java.util.Collections;
 import java.util.Optional;
 
 import javax.ws.rs.core.MediaType;
@@ -63,4 +64,12 @@ public class VocabularyServiceTest {
     assertEquals(expected, response, true);
   }
 
+  @Test
+  public void categoryCounts_areReturned() throws Exception {
+    when(vocabulary.getCategoryCounts()).thenReturn(Collections.singletonMap("foo", 3L));
+    String response = resources.client().target("/vocabulary/categories/counts").request()
+        .accept(MediaType.APPLICATION_JSON).get(String.class);
+    assertEquals("{\"foo\":3}", response, true);
+  }
+
 }